@@ -0,0 +1,202 @@
+package com.globalbooks.catalog.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size- and TTL-bounded LRU cache. Entries are spread over independently
+ * locked segments so concurrent lookups on different keys do not contend.
+ *
+ * Read-through callers take {@link #generation} before loading a value and
+ * store it with {@link #putIfCurrent}, so a load that raced an invalidation
+ * of its key is dropped instead of being served until it expires.
+ */
+public class BoundedCache<K, V> {
+
+    private static final int SEGMENT_COUNT = 16;
+    // A multiple of SEGMENT_COUNT, so every stripe belongs to exactly one segment and is guarded by its lock
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final Segment<K, V>[] segments;
+    private final long[] generations = new long[GENERATION_STRIPES];
+    private final long ttlMillis;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public BoundedCache(int maxSize, long ttlMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be greater than zero");
+        }
+        this.ttlMillis = ttlMillis;
+        this.segments = (Segment<K, V>[]) new Segment<?, ?>[SEGMENT_COUNT];
+        int perSegment = Math.max(1, (maxSize + SEGMENT_COUNT - 1) / SEGMENT_COUNT);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment<>(perSegment, evictions);
+        }
+    }
+
+    public V get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            Entry<V> entry = segment.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (entry.isExpired(System.currentTimeMillis())) {
+                segment.remove(key);
+                evictions.increment();
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.value;
+        }
+    }
+
+    public void put(K key, V value) {
+        put(key, value, System.currentTimeMillis() + ttlMillis);
+    }
+
+    public void put(K key, V value, long expiresAt) {
+        if (value == null) {
+            return;
+        }
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, new Entry<>(value, expiresAt));
+        }
+    }
+
+    // Invalidation count for the key's stripe, taken before loading a value for putIfCurrent
+    public long generation(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            return generations[stripeFor(key)];
+        }
+    }
+
+    public boolean putIfCurrent(K key, V value, long generation) {
+        return putIfCurrent(key, value, generation, System.currentTimeMillis() + ttlMillis);
+    }
+
+    /**
+     * Stores the value only if its key has not been invalidated since the
+     * generation was taken; otherwise the value may predate that write.
+     * Keys sharing a stripe can cause a spurious refusal, never a stale store.
+     */
+    public boolean putIfCurrent(K key, V value, long generation, long expiresAt) {
+        if (value == null) {
+            return false;
+        }
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            if (generations[stripeFor(key)] != generation) {
+                return false;
+            }
+            segment.put(key, new Entry<>(value, expiresAt));
+            return true;
+        }
+    }
+
+    public void invalidate(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.remove(key);
+            generations[stripeFor(key)]++;
+        }
+    }
+
+    public void invalidateAll() {
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            Segment<K, V> segment = segments[i];
+            synchronized (segment) {
+                segment.clear();
+                for (int stripe = i; stripe < GENERATION_STRIPES; stripe += SEGMENT_COUNT) {
+                    generations[stripe]++;
+                }
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public long getHitCount() { return hits.sum(); }
+
+    public long getMissCount() { return misses.sum(); }
+
+    public long getEvictionCount() { return evictions.sum(); }
+
+    public double getHitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("size=%d, hits=%d, misses=%d, evictions=%d, hitRatio=%.3f",
+                size(), getHitCount(), getMissCount(), getEvictionCount(), getHitRatio());
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        return segments[spread(key) & (SEGMENT_COUNT - 1)];
+    }
+
+    private int stripeFor(K key) {
+        return spread(key) & (GENERATION_STRIPES - 1);
+    }
+
+    private static int spread(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    private static final class Segment<K, V> extends LinkedHashMap<K, Entry<V>> {
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+        private final LongAdder evictions;
+
+        Segment(int maxSize, LongAdder evictions) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+            if (size() > maxSize) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.globalbooks.catalog.cache;
+
+import com.globalbooks.catalog.config.CatalogConfig;
+import com.globalbooks.catalog.dao.ProductChangeListener;
+import com.globalbooks.catalog.search.ProductPopularity;
+import com.globalbooks.catalog.security.SoapReadRequest;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serialized SOAP responses for getProductById, so a repeated read is
+ * answered by the HTTP layer with the stored bytes: no JAX-WS dispatch, DAO
+ * call or JAXB marshalling. The transport filters authenticate the
+ * UsernameToken before serving a hit.
+ *
+ * Keys carry the product's version, bumped through the ProductDAOImpl change
+ * listeners on every write path (and, via LISTEN/NOTIFY, on other nodes'
+ * writes). The key is taken before the request is handled, so a response
+ * racing an update is stored under the old version and never served.
+ *
+ * checkInventory is never cached: reservations only move reserved_quantity,
+ * which the notify trigger deliberately does not broadcast, so another node's
+ * RESERVE or RELEASE would leave a stored availability stale.
+ */
+public class SoapResponseCache implements ProductChangeListener {
+
+    public static final String CATALOG_NS = "http://globalbooks.com/services/catalog/v1";
+
+    // Envelopes of single-product reads are a few hundred bytes; larger bodies are never cacheable
+    public static final int MAX_REQUEST_BYTES = 8192;
+    public static final int MAX_RESPONSE_BYTES = 65536;
+
+    private static final String PRODUCT_ID = "productId";
+    private static volatile SoapResponseCache instance;
+
+    private final BoundedCache<String, CachedResponse> responses;
+    private final List<String> operations = Collections.singletonList("getProductById");
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+    private volatile long epoch;
+
+    public SoapResponseCache(int maxSize, long ttlMillis) {
+        this.responses = new BoundedCache<>(maxSize, ttlMillis);
+    }
+
+    /**
+     * Process-wide instance shared by the transport filters and the service.
+     * CatalogServiceImpl registers it for product changes after its own
+     * product cache, so a miss never re-reads a product that cache still
+     * holds in its old state.
+     */
+    public static SoapResponseCache getInstance() {
+        if (instance == null) {
+            synchronized (SoapResponseCache.class) {
+                if (instance == null) {
+                    instance = new SoapResponseCache(CatalogConfig.SOAP_RESPONSE_CACHE_MAX_SIZE,
+                            CatalogConfig.SOAP_RESPONSE_CACHE_TTL_MILLIS);
+                }
+            }
+        }
+        return instance;
+    }
+
+    // The cache key for the request as of now, or null if its response is not cacheable
+    public String keyFor(SoapReadRequest request) {
+        if (request == null || !CATALOG_NS.equals(request.getNamespace())
+                || !operations.contains(request.getOperation())
+                || request.getParameters().size() != 1) {
+            return null;
+        }
+        String productId = request.getParameters().get(PRODUCT_ID);
+        if (productId == null || productId.trim().isEmpty()) {
+            return null;
+        }
+        return key(request.getOperation(), productId, versions.getOrDefault(productId, 0L));
+    }
+
+    public CachedResponse get(String key) {
+        return responses.get(key);
+    }
+
+    // Called after a hit was written, so views answered from here still count towards popularity
+    public void served(SoapReadRequest request) {
+        if ("getProductById".equals(request.getOperation())) {
+            ProductPopularity.recordView(request.getParameters().get(PRODUCT_ID));
+        }
+    }
+
+    public void put(String key, byte[] body, String contentType) {
+        responses.put(key, new CachedResponse(body, contentType));
+    }
+
+    private String key(String operation, String productId, long version) {
+        return operation + '|' + productId + '|' + epoch + ':' + version;
+    }
+
+    @Override
+    public void productChanged(String productId) {
+        long previous = versions.merge(productId, 1L, Long::sum) - 1;
+        // Entries under the old version can no longer be hit; drop them now rather than at eviction
+        for (String operation : operations) {
+            responses.invalidate(key(operation, productId, previous));
+        }
+    }
+
+    @Override
+    public void productDeleted(String productId) {
+        productChanged(productId);
+    }
+
+    @Override
+    public void catalogReloaded() {
+        // Versions are kept: resetting them could make a key taken before the reload current again
+        epoch++;
+        responses.invalidateAll();
+    }
+
+    public BoundedCache<String, CachedResponse> getResponses() {
+        return responses;
+    }
+
+    // Reads at most limit + 1 bytes; a result longer than limit means the body did not fit
+    public static byte[] readRequest(InputStream in, int limit) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.min(limit + 1, 1024));
+        byte[] chunk = new byte[1024];
+        int remaining = limit + 1;
+        int read;
+        while (remaining > 0 && (read = in.read(chunk, 0, Math.min(chunk.length, remaining))) != -1) {
+            buffer.write(chunk, 0, read);
+            remaining -= read;
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Stored response: the envelope bytes exactly as the service wrote them.
+     */
+    public static final class CachedResponse {
+        private final byte[] body;
+        private final String contentType;
+
+        CachedResponse(byte[] body, String contentType) {
+            this.body = body;
+            this.contentType = contentType;
+        }
+
+        public byte[] getBody() { return body; }
+
+        public String getContentType() { return contentType; }
+    }
+
+    /**
+     * Copy of a response as it is written through, abandoned once it grows
+     * past MAX_RESPONSE_BYTES.
+     */
+    public static final class Capture {
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+
+        public void write(int b) {
+            if (buffer != null && fits(1)) {
+                buffer.write(b);
+            }
+        }
+
+        public void write(byte[] b, int off, int len) {
+            if (buffer != null && fits(len)) {
+                buffer.write(b, off, len);
+            }
+        }
+
+        public void discard() {
+            buffer = null;
+        }
+
+        private boolean fits(int len) {
+            if (buffer.size() + len > MAX_RESPONSE_BYTES) {
+                buffer = null;
+                return false;
+            }
+            return true;
+        }
+
+        // Null if the response was too large to keep
+        public byte[] toByteArray() {
+            return buffer != null ? buffer.toByteArray() : null;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.globalbooks.catalog.config;
+
+import java.lang.management.ManagementFactory;
+
+public class CatalogConfig {
+
+    // Product read-through cache (override with -Dcatalog.cache.product.maxSize etc.)
+    public static final int PRODUCT_CACHE_MAX_SIZE =
+            Integer.getInteger("catalog.cache.product.maxSize", 10000);
+    public static final long PRODUCT_CACHE_TTL_MILLIS =
+            Long.getLong("catalog.cache.product.ttlMillis", 300000); // 5 minutes
+
+    // Serialized SOAP responses for single-product reads, served by the HTTP layer
+    public static final boolean SOAP_RESPONSE_CACHE_ENABLED =
+            Boolean.parseBoolean(System.getProperty("catalog.cache.response.enabled", "true"));
+    public static final int SOAP_RESPONSE_CACHE_MAX_SIZE =
+            Integer.getInteger("catalog.cache.response.maxSize", 10000);
+    public static final long SOAP_RESPONSE_CACHE_TTL_MILLIS =
+            Long.getLong("catalog.cache.response.ttlMillis", 300000); // 5 minutes
+
+    // In-memory search index
+    public static final boolean SEARCH_INDEX_ENABLED =
+            Boolean.parseBoolean(System.getProperty("catalog.search.index.enabled", "true"));
+    public static final long SEARCH_INDEX_VERIFY_INTERVAL_MILLIS =
+            Long.getLong("catalog.search.index.verifyIntervalMillis", 900000); // 15 minutes
+
+    // Typeahead suggestions (ProductSuggester); popularity weights are refreshed on the reweight interval
+    public static final boolean SUGGEST_ENABLED =
+            Boolean.parseBoolean(System.getProperty("catalog.suggest.enabled", "true"));
+    public static final int SUGGEST_MAX_RESULTS = Integer.getInteger("catalog.suggest.maxResults", 50);
+    public static final long SUGGEST_REWEIGHT_INTERVAL_MILLIS =
+            Long.getLong("catalog.suggest.reweightIntervalMillis", 60000);
+
+    // FUZZY search: default word similarity threshold when SearchCriteria.minSimilarity is not set
+    public static final double SEARCH_FUZZY_MIN_SIMILARITY =
+            Double.parseDouble(System.getProperty("catalog.search.fuzzy.minSimilarity", "0.5"));
+
+    // Search facets: price range bounds (ascending) and the most category/author values returned
+    public static final String SEARCH_FACET_PRICE_BOUNDS =
+            System.getProperty("catalog.search.facets.priceBounds", "10,25,50,100");
+    public static final int SEARCH_FACET_MAX_VALUES = Integer.getInteger("catalog.search.facets.maxValues", 20);
+
+    // Largest page searchProductsPage returns; bigger maxResults values are clamped to it
+    public static final int SEARCH_PAGE_MAX_SIZE = Integer.getInteger("catalog.search.page.maxSize", 1000);
+
+    // Upper bound on IDs or lines accepted by a single batch operation
+    public static final int BATCH_MAX_SIZE = Integer.getInteger("catalog.batch.maxSize", 500);
+
+    // Rows per round-trip when streaming the catalog through a server-side cursor
+    public static final int EXPORT_FETCH_SIZE = Integer.getInteger("catalog.export.fetchSize", 500);
+
+    // Bulk product import
+    public static final int IMPORT_BATCH_SIZE = Integer.getInteger("catalog.import.batchSize", 5000);
+    public static final int IMPORT_MAX_ERRORS = Integer.getInteger("catalog.import.maxErrors", 1000);
+
+    // Warehouse that takes a product's stock when it has no inventory row yet
+    public static final String INVENTORY_DEFAULT_WAREHOUSE =
+            System.getProperty("catalog.inventory.defaultWarehouse", "MAIN");
+
+    // Unconfirmed reservations expire after the TTL; the sweeper returns them to stock in batches
+    public static final long RESERVATION_TTL_MILLIS =
+            Long.getLong("catalog.inventory.reservationTtlMillis", 900000); // 15 minutes
+    public static final boolean RESERVATION_SWEEP_ENABLED =
+            Boolean.parseBoolean(System.getProperty("catalog.inventory.sweep.enabled", "true"));
+    public static final long RESERVATION_SWEEP_INTERVAL_MILLIS =
+            Long.getLong("catalog.inventory.sweep.intervalMillis", 30000);
+    public static final int RESERVATION_SWEEP_BATCH_SIZE =
+            Integer.getInteger("catalog.inventory.sweep.batchSize", 500);
+
+    // Price quotes; rates come from the pricing tables, refreshed in the background
+    public static final String PRICING_DEFAULT_TAX_RATE =
+            System.getProperty("catalog.pricing.defaultTaxRate", "0.08");
+    public static final long PRICING_QUOTE_VALIDITY_MILLIS =
+            Long.getLong("catalog.pricing.quoteValidityMillis", 604800000); // 7 days
+    public static final int PRICING_QUOTE_CACHE_MAX_SIZE =
+            Integer.getInteger("catalog.pricing.cache.maxSize", 50000);
+    public static final long PRICING_QUOTE_CACHE_TTL_MILLIS =
+            Long.getLong("catalog.pricing.cache.ttlMillis", 600000); // 10 minutes
+    public static final long PRICING_REFRESH_INTERVAL_MILLIS =
+            Long.getLong("catalog.pricing.refreshIntervalMillis", 300000); // 5 minutes
+
+    // Write-behind reservation ledger (single writer per database; see InventoryLedger).
+    // Reservations it admits are not recorded in inventory_reservations, so they return no
+    // reservation id and never expire: enabling it turns off reservation expiry for them
+    public static final boolean INVENTORY_LEDGER_ENABLED =
+            Boolean.parseBoolean(System.getProperty("catalog.inventory.ledger.enabled", "false"));
+    public static final String INVENTORY_LEDGER_ID = System.getProperty("catalog.inventory.ledger.id", "catalog");
+    public static final String INVENTORY_JOURNAL_DIR =
+            System.getProperty("catalog.inventory.ledger.journalDir", "inventory-journal");
+    public static final long INVENTORY_FLUSH_INTERVAL_MILLIS =
+            Long.getLong("catalog.inventory.ledger.flushMillis", 200);
+
+    // Cross-node cache coherence: products changed on other nodes arrive via LISTEN/NOTIFY.
+    // The node ID tells this node's own writes apart and must be unique per instance.
+    public static final String NODE_ID =
+            System.getProperty("catalog.node.id", ManagementFactory.getRuntimeMXBean().getName());
+    public static final boolean CHANGE_NOTIFY_ENABLED =
+            Boolean.parseBoolean(System.getProperty("catalog.notify.enabled", "true"));
+    public static final long CHANGE_NOTIFY_POLL_MILLIS = Long.getLong("catalog.notify.pollMillis", 10000);
+    public static final long CHANGE_NOTIFY_RECONNECT_MAX_MILLIS =
+            Long.getLong("catalog.notify.reconnectMaxMillis", 30000);
+
+    // JDBC instrumentation; statements slower than the threshold are logged with their binds
+    public static final boolean JDBC_METRICS_ENABLED =
+            Boolean.parseBoolean(System.getProperty("catalog.metrics.jdbc.enabled", "true"));
+    public static final long SLOW_QUERY_THRESHOLD_MILLIS = Long.getLong("catalog.metrics.slowQueryMillis", 200);
+
+    // Embedded SOAP server (CatalogServer); executor is "virtual" or "pool"
+    public static final int SERVER_PORT = Integer.getInteger("catalog.server.port", 8080);
+    public static final String SERVER_EXECUTOR = System.getProperty("catalog.server.executor", "virtual");
+    public static final int SERVER_MAX_THREADS = Integer.getInteger("catalog.server.maxThreads", 200);
+
+    private CatalogConfig() {}
+}
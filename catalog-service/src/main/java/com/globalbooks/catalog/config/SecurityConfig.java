@@ -1,8 +1,5 @@
 package com.globalbooks.catalog.config;
 
-import java.util.HashMap;
-import java.util.Map;
-
 public class SecurityConfig {
 
     // Security realm configuration
@@ -11,8 +8,17 @@ public class SecurityConfig {
     // Token expiration time (in milliseconds)
     public static final long TOKEN_EXPIRATION_TIME = 3600000; // 1 hour
 
-    // Nonce cache size
-    public static final int NONCE_CACHE_SIZE = 1000;
+    // HMAC key for JSON API bearer tokens; set the same value on every node
+    public static final String API_TOKEN_SECRET = System.getProperty("catalog.security.apiTokenSecret");
+
+    // Nonce cache size; digest tokens beyond this many within NONCE_TTL are refused
+    public static final int NONCE_CACHE_SIZE = 100000;
+
+    // How long a UsernameToken Created timestamp stays valid (and its nonce remembered)
+    public static final long NONCE_TTL = 300000; // 5 minutes
+
+    // Tolerated clock drift for Created timestamps from the future
+    public static final long CLOCK_SKEW_ALLOWANCE = 60000; // 1 minute
 
     // Password encoding type
     public static final String PASSWORD_TYPE_TEXT = "http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-username-token-profile-1.0#PasswordText";
@@ -34,34 +40,35 @@ public class SecurityConfig {
         public String getRole() {
             return role;
         }
-    }
-
-    // User credentials and roles (In production, this should be in database)
-    private static final Map<String, UserInfo> USERS = new HashMap<>();
 
-    static {
-        USERS.put("admin", new UserInfo("admin", "admin123", UserRole.ADMIN));
-        USERS.put("client1", new UserInfo("client1", "pass123", UserRole.CLIENT));
-        USERS.put("partner", new UserInfo("partner", "partner456", UserRole.PARTNER));
-        USERS.put("guest", new UserInfo("guest", "guest123", UserRole.GUEST));
+        public static UserRole fromRole(String role) {
+            for (UserRole value : values()) {
+                if (value.role.equalsIgnoreCase(role)) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Unknown role: " + role);
+        }
     }
 
-    public static UserInfo getUser(String username) {
-        return USERS.get(username);
-    }
+    // Credential store backing authentication: "db" (catalog_users table) or "file"
+    public static final String CREDENTIAL_STORE =
+            System.getProperty("catalog.security.credentialStore", "db");
 
-    public static boolean isValidUser(String username) {
-        return USERS.containsKey(username);
-    }
+    // Properties file for the "file" store; a filesystem path, or a classpath resource if no such file exists
+    public static final String CREDENTIAL_FILE =
+            System.getProperty("catalog.security.credentialFile", "catalog-users.properties");
+
+    // How often cached credentials are reloaded from the store
+    public static final long CREDENTIAL_REFRESH_INTERVAL =
+            Long.getLong("catalog.security.credentialRefreshMillis", 60000); // 1 minute
 
     public static class UserInfo {
         private final String username;
-        private final String password;
         private final UserRole role;
 
-        public UserInfo(String username, String password, UserRole role) {
+        public UserInfo(String username, UserRole role) {
             this.username = username;
-            this.password = password;
             this.role = role;
         }
 
@@ -69,12 +76,8 @@ public class SecurityConfig {
             return username;
         }
 
-        public String getPassword() {
-            return password;
-        }
-
         public UserRole getRole() {
             return role;
         }
     }
-}
\ No newline at end of file
+}
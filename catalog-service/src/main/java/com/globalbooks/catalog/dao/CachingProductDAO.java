@@ -0,0 +1,194 @@
+package com.globalbooks.catalog.dao;
+
+import com.globalbooks.catalog.cache.BoundedCache;
+import com.globalbooks.catalog.config.CatalogConfig;
+import com.globalbooks.catalog.model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Read-through cache in front of a {@link ProductDAO}. Point lookups by ID are
+ * served from memory; every write through this DAO invalidates the entry.
+ * Register it with {@link ProductDAOImpl#addChangeListener} to also pick up
+ * writes made elsewhere in the process, such as bulk imports.
+ *
+ * A load that overlaps an invalidation of its product is returned but not
+ * cached. Cached products are copied in and out, so callers may modify what
+ * they get back.
+ */
+public class CachingProductDAO implements ProductDAO, ProductChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingProductDAO.class);
+
+    private final ProductDAO delegate;
+    private final BoundedCache<String, Product> productCache;
+
+    public CachingProductDAO(ProductDAO delegate) {
+        this(delegate, CatalogConfig.PRODUCT_CACHE_MAX_SIZE, CatalogConfig.PRODUCT_CACHE_TTL_MILLIS);
+    }
+
+    public CachingProductDAO(ProductDAO delegate, int maxSize, long ttlMillis) {
+        this.delegate = delegate;
+        this.productCache = new BoundedCache<>(maxSize, ttlMillis);
+        logger.info("Product cache initialized (maxSize={}, ttlMillis={})", maxSize, ttlMillis);
+    }
+
+    @Override
+    public Product findById(String productId) {
+        Product product = productCache.get(productId);
+        if (product != null) {
+            return new Product(product);
+        }
+        long generation = productCache.generation(productId);
+        product = delegate.findById(productId);
+        if (product != null) {
+            productCache.putIfCurrent(productId, new Product(product), generation);
+        }
+        return product;
+    }
+
+    @Override
+    public Map<String, Product> findByIds(Collection<String> productIds) {
+        Map<String, Product> products = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        Map<String, Long> generations = new HashMap<>();
+        for (String productId : productIds) {
+            Product product = productCache.get(productId);
+            if (product != null) {
+                products.put(productId, new Product(product));
+            } else {
+                missing.add(productId);
+                generations.put(productId, productCache.generation(productId));
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<String, Product> loaded = delegate.findByIds(missing);
+            for (Map.Entry<String, Product> entry : loaded.entrySet()) {
+                Long generation = generations.get(entry.getKey());
+                if (generation != null) {
+                    productCache.putIfCurrent(entry.getKey(), new Product(entry.getValue()), generation);
+                }
+            }
+            products.putAll(loaded);
+        }
+        return products;
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public int streamAll(Consumer<Product> consumer) {
+        return delegate.streamAll(consumer);
+    }
+
+    @Override
+    public List<Product> search(SearchCriteria criteria) {
+        return delegate.search(criteria);
+    }
+
+    @Override
+    public List<ProductSummary> searchSummaries(SearchCriteria criteria) {
+        return delegate.searchSummaries(criteria);
+    }
+
+    @Override
+    public ProductPage searchPage(SearchCriteria criteria) {
+        return delegate.searchPage(criteria);
+    }
+
+    @Override
+    public SearchFacets searchFacets(SearchCriteria criteria) {
+        return delegate.searchFacets(criteria);
+    }
+
+    @Override
+    public InventoryStatus getInventoryStatus(String productId) {
+        return delegate.getInventoryStatus(productId);
+    }
+
+    @Override
+    public Map<String, InventoryStatus> getInventoryStatuses(Collection<String> productIds) {
+        return delegate.getInventoryStatuses(productIds);
+    }
+
+    @Override
+    public boolean updateInventory(String productId, int quantity, String operation) {
+        try {
+            return delegate.updateInventory(productId, quantity, operation);
+        } finally {
+            productCache.invalidate(productId);
+        }
+    }
+
+    @Override
+    public ReservationResult reserveInventory(List<InventoryLine> lines) {
+        try {
+            return delegate.reserveInventory(lines);
+        } finally {
+            for (InventoryLine line : lines) {
+                productCache.invalidate(line.getProductId());
+            }
+        }
+    }
+
+    @Override
+    public boolean settleReservation(long reservationId, String operation) {
+        // The product is only known once the record is taken; the DAO's change event invalidates it
+        return delegate.settleReservation(reservationId, operation);
+    }
+
+    @Override
+    public boolean save(Product product) {
+        try {
+            return delegate.save(product);
+        } finally {
+            productCache.invalidate(product.getProductId());
+        }
+    }
+
+    @Override
+    public boolean update(Product product) {
+        try {
+            return delegate.update(product);
+        } finally {
+            productCache.invalidate(product.getProductId());
+        }
+    }
+
+    @Override
+    public boolean delete(String productId) {
+        try {
+            return delegate.delete(productId);
+        } finally {
+            productCache.invalidate(productId);
+        }
+    }
+
+    @Override
+    public void productChanged(String productId) {
+        productCache.invalidate(productId);
+    }
+
+    @Override
+    public void productDeleted(String productId) {
+        productCache.invalidate(productId);
+    }
+
+    @Override
+    public void catalogReloaded() {
+        productCache.invalidateAll();
+    }
+
+    public BoundedCache<String, Product> getProductCache() {
+        return productCache;
+    }
+}
@@ -0,0 +1,56 @@
+package com.globalbooks.catalog.dao;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset continuation token: the (title, product_id) of the last row
+ * on a page, encoded as URL-safe Base64.
+ */
+final class PageToken {
+
+    private static final int VERSION = 1;
+
+    private final String title;
+    private final String productId;
+
+    PageToken(String title, String productId) {
+        this.title = title;
+        this.productId = productId;
+    }
+
+    String getTitle() { return title; }
+
+    String getProductId() { return productId; }
+
+    String encode() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(VERSION);
+            out.writeUTF(title);
+            out.writeUTF(productId);
+            out.flush();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode page token", e);
+        }
+    }
+
+    static PageToken decode(String token) {
+        try {
+            byte[] raw = Base64.getUrlDecoder().decode(token);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+            if (in.readByte() != VERSION) {
+                throw new IllegalArgumentException("Unsupported page token version");
+            }
+            return new PageToken(in.readUTF(), in.readUTF());
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page token", e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.globalbooks.catalog.dao;
+
+/**
+ * Receives notifications after product rows have been written. Listeners
+ * are invoked on the writing thread and should hand off any slow work.
+ */
+public interface ProductChangeListener {
+
+    void productChanged(String productId);
+
+    void productDeleted(String productId);
+
+    // Many rows changed at once (e.g. a bulk import); drop or rebuild any derived state
+    default void catalogReloaded() {}
+}
@@ -1,14 +1,25 @@
 package com.globalbooks.catalog.dao;
 
 import com.globalbooks.catalog.model.*;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface ProductDAO {
     Product findById(String productId);
+    Map<String, Product> findByIds(Collection<String> productIds);
     List<Product> findAll();
+    int streamAll(Consumer<Product> consumer);
     List<Product> search(SearchCriteria criteria);
+    List<ProductSummary> searchSummaries(SearchCriteria criteria);
+    ProductPage searchPage(SearchCriteria criteria);
+    SearchFacets searchFacets(SearchCriteria criteria);
     InventoryStatus getInventoryStatus(String productId);
+    Map<String, InventoryStatus> getInventoryStatuses(Collection<String> productIds);
     boolean updateInventory(String productId, int quantity, String operation);
+    ReservationResult reserveInventory(List<InventoryLine> lines);
+    boolean settleReservation(long reservationId, String operation);
     boolean save(Product product);
     boolean update(Product product);
     boolean delete(String productId);
@@ -1,5 +1,8 @@
 package com.globalbooks.catalog.dao;
 
+import com.globalbooks.catalog.cache.BoundedCache;
+import com.globalbooks.catalog.config.CatalogConfig;
+import com.globalbooks.catalog.inventory.InventoryLedger;
 import com.globalbooks.catalog.model.*;
 import com.globalbooks.catalog.util.DatabaseConnection;
 import org.slf4j.Logger;
@@ -7,17 +10,145 @@ import org.slf4j.LoggerFactory;
 import java.math.BigDecimal;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 public class ProductDAOImpl implements ProductDAO {
 
     private static final Logger logger = LoggerFactory.getLogger(ProductDAOImpl.class);
+    private static final List<ProductChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+
+    // Products written recently from this process; reads of them skip the replica until it has caught up
+    private static final BoundedCache<String, Boolean> recentWrites = new BoundedCache<>(10000, 0);
+    private static volatile long primaryReadsUntil;
+
+    private static final String SET_SIMILARITY_THRESHOLD_SQL =
+            "SELECT set_config('pg_trgm.word_similarity_threshold', ?, true)";
+
+    private static final List<BigDecimal> FACET_PRICE_BOUNDS =
+            parsePriceBounds(CatalogConfig.SEARCH_FACET_PRICE_BOUNDS);
+
+    // Stock lives in product_inventory, one row per warehouse. Product reads report
+    // the total, computed per returned row so LIMITed searches stay cheap
+    private static final String PRODUCT_COLUMNS = "p.*, (SELECT COALESCE(SUM(i.stock_quantity), 0) " +
+            "FROM product_inventory i WHERE i.product_id = p.product_id) AS stock_quantity";
+    private static final String IN_STOCK = "EXISTS (SELECT 1 FROM product_inventory i " +
+            "WHERE i.product_id = p.product_id AND i.stock_quantity > 0)";
+
+    // Columns for ProductSummary; leaves out the wide description and image_url
+    private static final String SUMMARY_COLUMNS =
+            "p.product_id, p.title, p.author, p.price, p.currency, " + IN_STOCK + " AS in_stock";
+
+    private static final String INVENTORY_STATUS_SQL = "SELECT product_id, SUM(stock_quantity) AS stock_quantity, " +
+            "SUM(reserved_quantity) AS reserved_quantity, " +
+            "string_agg(warehouse_location, ', ' ORDER BY warehouse_location) AS warehouse_location, " +
+            "MIN(restock_date) AS restock_date FROM product_inventory ";
+
+    // A reservation must fit in a single warehouse, picked by most available units, and
+    // is recorded in inventory_reservations so ReservationSweeper can reclaim it on expiry.
+    // id_issued marks records whose id went back to the caller: only that id settles them
+    private static final String RESERVE_SQL =
+            "WITH w AS (UPDATE product_inventory i SET reserved_quantity = i.reserved_quantity + ? " +
+            "FROM (SELECT product_id, warehouse_location FROM product_inventory " +
+            "WHERE product_id = ? AND stock_quantity - reserved_quantity >= ? " +
+            "ORDER BY stock_quantity - reserved_quantity DESC, warehouse_location LIMIT 1 FOR UPDATE) v " +
+            "WHERE i.product_id = v.product_id AND i.warehouse_location = v.warehouse_location " +
+            "RETURNING i.product_id, i.warehouse_location) " +
+            "INSERT INTO inventory_reservations (product_id, warehouse_location, quantity, expires_at, id_issued) " +
+            "SELECT product_id, warehouse_location, ?, CURRENT_TIMESTAMP + ? * INTERVAL '1 millisecond', ? FROM w " +
+            "RETURNING reservation_id";
+
+    // RELEASE and DEDUCT by product consume the records no caller holds an id for, earliest
+    // expiry first, and return the units to the warehouses they were reserved in
+    private static final String CONSUME_RESERVATIONS_SQL =
+            "WITH held AS (SELECT reservation_id, warehouse_location, quantity, " +
+            "SUM(quantity) OVER (ORDER BY expires_at, reservation_id) - quantity AS ahead " +
+            "FROM (SELECT reservation_id, warehouse_location, quantity, expires_at FROM inventory_reservations " +
+            "WHERE product_id = ? AND NOT id_issued FOR UPDATE) r), " +
+            "taken AS (SELECT reservation_id, warehouse_location, quantity, LEAST(quantity, ? - ahead) AS used " +
+            "FROM held WHERE ahead < ?), " +
+            "shrunk AS (UPDATE inventory_reservations r SET quantity = r.quantity - t.used FROM taken t " +
+            "WHERE r.reservation_id = t.reservation_id AND t.used < t.quantity), " +
+            "removed AS (DELETE FROM inventory_reservations r USING taken t " +
+            "WHERE r.reservation_id = t.reservation_id AND t.used = t.quantity) " +
+            "SELECT warehouse_location, SUM(used) AS used FROM taken GROUP BY warehouse_location";
+    // Settling by id takes the whole record; a missing record has expired or was settled already
+    private static final String TAKE_RESERVATION_SQL =
+            "DELETE FROM inventory_reservations WHERE reservation_id = ? " +
+            "RETURNING product_id, warehouse_location, quantity";
+    private static final String RELEASE_HELD_SQL =
+            "UPDATE product_inventory SET reserved_quantity = GREATEST(0, reserved_quantity - ?) " +
+            "WHERE product_id = ? AND warehouse_location = ?";
+    private static final String DEDUCT_HELD_SQL =
+            "UPDATE product_inventory SET stock_quantity = stock_quantity - ?, " +
+            "reserved_quantity = GREATEST(0, reserved_quantity - ?) " +
+            "WHERE product_id = ? AND warehouse_location = ?";
+
+    // Beyond the records, only reserved units no record accounts for (taken before
+    // records existed, or through the ledger) are released; expired units are already back
+    private static final String UNTRACKED =
+            "GREATEST(0, v.reserved_quantity - (SELECT COALESCE(SUM(r.quantity), 0) FROM inventory_reservations r " +
+            "WHERE r.product_id = v.product_id AND r.warehouse_location = v.warehouse_location))";
+    private static final String RELEASE_UNTRACKED_SQL =
+            "UPDATE product_inventory i SET reserved_quantity = i.reserved_quantity - w.released " +
+            "FROM (SELECT v.product_id, v.warehouse_location, LEAST(?, " + UNTRACKED + ") AS released " +
+            "FROM product_inventory v WHERE v.product_id = ? " +
+            "ORDER BY released DESC, v.warehouse_location LIMIT 1 FOR UPDATE) w " +
+            "WHERE i.product_id = w.product_id AND i.warehouse_location = w.warehouse_location";
+    private static final String DEDUCT_UNTRACKED_SQL =
+            "UPDATE product_inventory i SET stock_quantity = i.stock_quantity - ?, " +
+            "reserved_quantity = i.reserved_quantity - w.released " +
+            "FROM (SELECT v.product_id, v.warehouse_location, LEAST(?, " + UNTRACKED + ") AS released " +
+            "FROM product_inventory v WHERE v.product_id = ? AND v.stock_quantity >= ? " +
+            "ORDER BY released DESC, v.warehouse_location LIMIT 1 FOR UPDATE) w " +
+            "WHERE i.product_id = w.product_id AND i.warehouse_location = w.warehouse_location " +
+            "AND i.stock_quantity - ? >= i.reserved_quantity - w.released";
+
+    // Product saves and updates set stock only while the product is held in at most one
+    // warehouse (none yet: the default one); otherwise stock is maintained per warehouse
+    private static final String SET_STOCK_SQL =
+            "INSERT INTO product_inventory (product_id, warehouse_location, stock_quantity) " +
+            "SELECT ?, COALESCE(MIN(warehouse_location), ?), ? FROM product_inventory " +
+            "WHERE product_id = ? HAVING COUNT(*) <= 1 " +
+            "ON CONFLICT (product_id, warehouse_location) DO UPDATE SET stock_quantity = EXCLUDED.stock_quantity " +
+            "WHERE product_inventory.stock_quantity <> EXCLUDED.stock_quantity";
+
+    public static void addChangeListener(ProductChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    public static void removeChangeListener(ProductChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    // For writers outside this DAO that change many products at once
+    public static void notifyCatalogReloaded() {
+        InventoryLedger ledger = ledger();
+        if (ledger != null) {
+            ledger.invalidateAll();
+        }
+        primaryReadsUntil = System.currentTimeMillis() + DatabaseConnection.getReplicaMaxLagMillis();
+        for (ProductChangeListener listener : changeListeners) {
+            try {
+                listener.catalogReloaded();
+            } catch (RuntimeException e) {
+                logger.error("Product change listener failed on catalog reload", e);
+            }
+        }
+    }
 
     @Override
     public Product findById(String productId) {
-        String sql = "SELECT * FROM products WHERE product_id = ?";
+        String sql = "SELECT " + PRODUCT_COLUMNS + " FROM products p WHERE p.product_id = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = readConnection(productId);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, productId);
@@ -32,12 +163,36 @@ public class ProductDAOImpl implements ProductDAO {
         return null;
     }
 
+    @Override
+    public Map<String, Product> findByIds(Collection<String> productIds) {
+        Map<String, Product> products = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return products;
+        }
+        String sql = "SELECT " + PRODUCT_COLUMNS + " FROM products p WHERE p.product_id = ANY(?)";
+
+        try (Connection conn = readConnection(productIds);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setArray(1, conn.createArrayOf("varchar", productIds.toArray()));
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                Product product = mapResultSetToProduct(rs);
+                products.put(product.getProductId(), product);
+            }
+        } catch (SQLException e) {
+            logger.error("Error finding {} products by ID", productIds.size(), e);
+        }
+        return products;
+    }
+
     @Override
     public List<Product> findAll() {
         List<Product> products = new ArrayList<>();
-        String sql = "SELECT * FROM products ORDER BY title";
+        String sql = "SELECT " + PRODUCT_COLUMNS + " FROM products p ORDER BY p.title";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = readConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -50,20 +205,306 @@ public class ProductDAOImpl implements ProductDAO {
         return products;
     }
 
+    @Override
+    public int streamAll(Consumer<Product> consumer) {
+        String sql = "SELECT " + PRODUCT_COLUMNS + " FROM products p ORDER BY p.product_id";
+        int count = 0;
+
+        // The PostgreSQL driver only uses a server-side cursor (honouring the fetch
+        // size) inside a transaction; with auto-commit it buffers the whole result
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(CatalogConfig.EXPORT_FETCH_SIZE);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        consumer.accept(mapResultSetToProduct(rs));
+                        count++;
+                    }
+                }
+            } finally {
+                // Read-only; end the cursor's transaction before the connection goes back
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            // A partial count would pass for a complete export, so the failure has to reach the caller
+            logger.error("Error streaming products after {} rows", count, e);
+            throw new IllegalStateException("Product stream failed after " + count + " rows", e);
+        }
+        return count;
+    }
+
     @Override
     public List<Product> search(SearchCriteria criteria) {
         List<Product> products = new ArrayList<>();
-        StringBuilder sql = new StringBuilder("SELECT * FROM products WHERE 1=1");
         List<Object> params = new ArrayList<>();
+        String sql = buildSearchSql(PRODUCT_COLUMNS, criteria, params);
+
+        try (Connection conn = readConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-        // Build dynamic query based on criteria
+            try {
+                applySimilarityThreshold(conn, criteria);
+                setParameters(stmt, params);
+
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    products.add(mapResultSetToProduct(rs));
+                }
+            } finally {
+                endSimilarityScope(conn, criteria);
+            }
+        } catch (SQLException e) {
+            logger.error("Error searching products", e);
+        }
+        return products;
+    }
+
+    @Override
+    public List<ProductSummary> searchSummaries(SearchCriteria criteria) {
+        List<ProductSummary> summaries = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        String sql = buildSearchSql(SUMMARY_COLUMNS, criteria, params);
+
+        try (Connection conn = readConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            try {
+                applySimilarityThreshold(conn, criteria);
+                setParameters(stmt, params);
+
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    summaries.add(mapResultSetToSummary(rs));
+                }
+            } finally {
+                endSimilarityScope(conn, criteria);
+            }
+        } catch (SQLException e) {
+            logger.error("Error searching product summaries", e);
+        }
+        return summaries;
+    }
+
+    private String buildSearchSql(String columns, SearchCriteria criteria, List<Object> params) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(columns);
+        boolean ranked = isFullText(criteria) || isFuzzy(criteria);
+        if (isFullText(criteria)) {
+            sql.append(", ts_rank(p.search_vector, q.query) AS rank");
+        } else if (ranked) {
+            sql.append(", GREATEST(word_similarity(q.term, LOWER(p.title)), " +
+                    "word_similarity(q.term, LOWER(p.author))) AS rank");
+        }
+        appendMatch(sql, params, criteria);
+
+        sql.append(ranked ? " ORDER BY rank DESC, title LIMIT ?" : " ORDER BY title, product_id LIMIT ?");
+        params.add(criteria.getMaxResults());
+        return sql.toString();
+    }
+
+    private static boolean isFullText(SearchCriteria criteria) {
+        return criteria.getKeyword() != null && !criteria.getKeyword().isEmpty()
+                && criteria.getSearchMode() == SearchMode.FULL_TEXT;
+    }
+
+    private static boolean isFuzzy(SearchCriteria criteria) {
+        return criteria.getKeyword() != null && !criteria.getKeyword().isEmpty()
+                && criteria.getSearchMode() == SearchMode.FUZZY;
+    }
+
+    // FROM and WHERE clauses for the products matching the criteria, shared by results and facets
+    private void appendMatch(StringBuilder sql, List<Object> params, SearchCriteria criteria) {
+        if (isFullText(criteria)) {
+            // Ranked match against the maintained search_vector column (GIN index)
+            sql.append(" FROM products p, websearch_to_tsquery('english', ?) AS q(query) " +
+                    "WHERE p.search_vector @@ q.query");
+            params.add(criteria.getKeyword());
+        } else if (isFuzzy(criteria)) {
+            // <% is word similarity above pg_trgm.word_similarity_threshold, served by the
+            // trigram GIN indexes; see applySimilarityThreshold
+            sql.append(" FROM products p, LOWER(?) AS q(term) " +
+                    "WHERE (q.term <% LOWER(p.title) OR q.term <% LOWER(p.author))");
+            params.add(criteria.getKeyword());
+        } else {
+            sql.append(" FROM products p WHERE 1=1");
+            appendKeywordLike(sql, params, criteria);
+        }
+        appendFilters(sql, params, criteria);
+    }
+
+    @Override
+    public ProductPage searchPage(SearchCriteria criteria) {
+        List<Product> products = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT " + PRODUCT_COLUMNS + " FROM products p WHERE 1=1");
+        List<Object> params = new ArrayList<>();
+        int pageSize = Math.min(criteria.getMaxResults(), CatalogConfig.SEARCH_PAGE_MAX_SIZE);
+
+        appendKeywordLike(sql, params, criteria);
+        appendFilters(sql, params, criteria);
+
+        // Keyset continuation: seek past the last (title, product_id) of the previous
+        // page so every page is an index range scan on idx_products_title_id
+        if (criteria.getPageToken() != null && !criteria.getPageToken().isEmpty()) {
+            PageToken token = PageToken.decode(criteria.getPageToken());
+            sql.append(" AND (title, product_id) > (?, ?)");
+            params.add(token.getTitle());
+            params.add(token.getProductId());
+        }
+
+        // One extra row tells us whether another page exists
+        sql.append(" ORDER BY title, product_id LIMIT ?");
+        params.add(pageSize + 1);
+
+        try (Connection conn = readConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            setParameters(stmt, params);
+
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                products.add(mapResultSetToProduct(rs));
+            }
+        } catch (SQLException e) {
+            // An empty last page would end the client's paging as if the results were exhausted
+            logger.error("Error searching products page", e);
+            return null;
+        }
+
+        String nextPageToken = null;
+        if (products.size() > pageSize) {
+            products.remove(products.size() - 1);
+            Product last = products.get(products.size() - 1);
+            nextPageToken = new PageToken(last.getTitle(), last.getProductId()).encode();
+        }
+        return new ProductPage(products, nextPageToken);
+    }
+
+    /**
+     * Facet counts over all matching products in one statement: GROUPING SETS
+     * aggregates the match once per category, author and price range, plus
+     * the grand total, so the extra cost is a single scan of the match.
+     */
+    @Override
+    public SearchFacets searchFacets(SearchCriteria criteria) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT GROUPING(category) AS g_category, " +
+                "GROUPING(author) AS g_author, GROUPING(price_range) AS g_price_range, " +
+                "category, author, price_range, COUNT(*) AS matches FROM (" +
+                "SELECT p.category, p.author, width_bucket(p.price, ARRAY[");
+        for (int i = 0; i < FACET_PRICE_BOUNDS.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+            params.add(FACET_PRICE_BOUNDS.get(i));
+        }
+        sql.append("]::numeric[]) AS price_range");
+        appendMatch(sql, params, criteria);
+        sql.append(") m GROUP BY GROUPING SETS ((category), (author), (price_range), ())");
+
+        SearchFacets facets = new SearchFacets();
+        List<FacetCount> categories = new ArrayList<>();
+        List<FacetCount> authors = new ArrayList<>();
+        Map<Integer, Long> priceRanges = new TreeMap<>();
+
+        try (Connection conn = readConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            try {
+                applySimilarityThreshold(conn, criteria);
+                setParameters(stmt, params);
+
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    long matches = rs.getLong("matches");
+                    if (rs.getInt("g_category") == 0) {
+                        categories.add(new FacetCount(rs.getString("category"), matches));
+                    } else if (rs.getInt("g_author") == 0) {
+                        authors.add(new FacetCount(rs.getString("author"), matches));
+                    } else if (rs.getInt("g_price_range") == 0) {
+                        priceRanges.put(rs.getInt("price_range"), matches);
+                    } else {
+                        facets.setTotalMatches(matches);
+                    }
+                }
+            } finally {
+                endSimilarityScope(conn, criteria);
+            }
+        } catch (SQLException e) {
+            logger.error("Error computing search facets", e);
+            return null;
+        }
+
+        facets.setCategories(topValues(categories));
+        facets.setAuthors(topValues(authors));
+        for (Map.Entry<Integer, Long> range : priceRanges.entrySet()) {
+            // width_bucket numbers the range below the first bound 0 and the one above the last bounds.size()
+            int index = range.getKey();
+            facets.getPriceRanges().add(new PriceRangeCount(
+                    index == 0 ? null : FACET_PRICE_BOUNDS.get(index - 1),
+                    index == FACET_PRICE_BOUNDS.size() ? null : FACET_PRICE_BOUNDS.get(index),
+                    range.getValue()));
+        }
+        return facets;
+    }
+
+    // Products without an author or category form a null bucket, listed after named ties
+    private static List<FacetCount> topValues(List<FacetCount> counts) {
+        counts.sort(Comparator.comparingLong(FacetCount::getCount).reversed()
+                .thenComparing(FacetCount::getValue, Comparator.nullsLast(Comparator.naturalOrder())));
+        return counts.size() > CatalogConfig.SEARCH_FACET_MAX_VALUES
+                ? new ArrayList<>(counts.subList(0, CatalogConfig.SEARCH_FACET_MAX_VALUES))
+                : counts;
+    }
+
+    private static List<BigDecimal> parsePriceBounds(String bounds) {
+        List<BigDecimal> parsed = new ArrayList<>();
+        for (String bound : bounds.split(",")) {
+            if (!bound.trim().isEmpty()) {
+                parsed.add(new BigDecimal(bound.trim()));
+            }
+        }
+        for (int i = 1; i < parsed.size(); i++) {
+            if (parsed.get(i).compareTo(parsed.get(i - 1)) <= 0) {
+                throw new IllegalArgumentException("Facet price bounds must be ascending: " + bounds);
+            }
+        }
+        return Collections.unmodifiableList(parsed);
+    }
+
+    // The <% operator reads its threshold from a setting rather than the query. It is set transaction-local
+    // inside a transaction opened for the statement, so it never outlives it on the pooled connection
+    private static void applySimilarityThreshold(Connection conn, SearchCriteria criteria) throws SQLException {
+        if (!isFuzzy(criteria)) {
+            return;
+        }
+        conn.setAutoCommit(false);
+        double threshold = criteria.getMinSimilarity() != null
+                ? criteria.getMinSimilarity()
+                : CatalogConfig.SEARCH_FUZZY_MIN_SIMILARITY;
+        try (PreparedStatement stmt = conn.prepareStatement(SET_SIMILARITY_THRESHOLD_SQL)) {
+            stmt.setString(1, Double.toString(threshold));
+            stmt.execute();
+        }
+    }
+
+    // Read-only; rolling back ends the transaction and with it the local threshold
+    private static void endSimilarityScope(Connection conn, SearchCriteria criteria) throws SQLException {
+        if (isFuzzy(criteria) && !conn.getAutoCommit()) {
+            conn.rollback();
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private void appendKeywordLike(StringBuilder sql, List<Object> params, SearchCriteria criteria) {
         if (criteria.getKeyword() != null && !criteria.getKeyword().isEmpty()) {
             sql.append(" AND (LOWER(title) LIKE ? OR LOWER(description) LIKE ?)");
             String keyword = "%" + criteria.getKeyword().toLowerCase() + "%";
             params.add(keyword);
             params.add(keyword);
         }
+    }
 
+    private void appendFilters(StringBuilder sql, List<Object> params, SearchCriteria criteria) {
         if (criteria.getCategory() != null && !criteria.getCategory().isEmpty()) {
             sql.append(" AND LOWER(category) = ?");
             params.add(criteria.getCategory().toLowerCase());
@@ -85,65 +526,35 @@ public class ProductDAOImpl implements ProductDAO {
         }
 
         if (criteria.isInStockOnly()) {
-            sql.append(" AND stock_quantity > 0");
+            sql.append(" AND ").append(IN_STOCK);
         }
+    }
 
-        sql.append(" ORDER BY title LIMIT ?");
-        params.add(criteria.getMaxResults());
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
-
-            // Set parameters
-            for (int i = 0; i < params.size(); i++) {
-                Object param = params.get(i);
-                if (param instanceof String) {
-                    stmt.setString(i + 1, (String) param);
-                } else if (param instanceof BigDecimal) {
-                    stmt.setBigDecimal(i + 1, (BigDecimal) param);
-                } else if (param instanceof Integer) {
-                    stmt.setInt(i + 1, (Integer) param);
-                }
-            }
-
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                products.add(mapResultSetToProduct(rs));
+    private void setParameters(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            Object param = params.get(i);
+            if (param instanceof String) {
+                stmt.setString(i + 1, (String) param);
+            } else if (param instanceof BigDecimal) {
+                stmt.setBigDecimal(i + 1, (BigDecimal) param);
+            } else if (param instanceof Integer) {
+                stmt.setInt(i + 1, (Integer) param);
             }
-        } catch (SQLException e) {
-            logger.error("Error searching products", e);
         }
-        return products;
     }
 
     @Override
     public InventoryStatus getInventoryStatus(String productId) {
-        String sql = "SELECT product_id, stock_quantity, reserved_quantity, " +
-                "warehouse_location, restock_date FROM products WHERE product_id = ?";
+        String sql = INVENTORY_STATUS_SQL + "WHERE product_id = ? GROUP BY product_id";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = readConnection(productId);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, productId);
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                InventoryStatus status = new InventoryStatus();
-                status.setProductId(rs.getString("product_id"));
-                int stockQty = rs.getInt("stock_quantity");
-                int reservedQty = rs.getInt("reserved_quantity");
-                status.setAvailableQuantity(stockQty - reservedQty);
-                status.setReservedQuantity(reservedQty);
-                status.setInStock(stockQty > reservedQty);
-                status.setWarehouseLocation(rs.getString("warehouse_location"));
-
-                Date restockDate = rs.getDate("restock_date");
-                if (restockDate != null) {
-                    status.setRestockDate(new java.util.Date(restockDate.getTime()));
-                }
-                status.setLastUpdated(new java.util.Date());
-
-                return status;
+                return mapResultSetToInventoryStatus(rs);
             }
         } catch (SQLException e) {
             logger.error("Error getting inventory status for product: {}", productId, e);
@@ -152,47 +563,90 @@ public class ProductDAOImpl implements ProductDAO {
     }
 
     @Override
-    public boolean updateInventory(String productId, int quantity, String operation) {
-        String sql = "";
-
-        switch (operation) {
-            case "RESERVE":
-                sql = "UPDATE products SET reserved_quantity = reserved_quantity + ? " +
-                        "WHERE product_id = ? AND stock_quantity >= reserved_quantity + ?";
-                break;
-            case "RELEASE":
-                sql = "UPDATE products SET reserved_quantity = GREATEST(0, reserved_quantity - ?) " +
-                        "WHERE product_id = ?";
-                break;
-            case "DEDUCT":
-                sql = "UPDATE products SET stock_quantity = stock_quantity - ?, " +
-                        "reserved_quantity = GREATEST(0, reserved_quantity - ?) " +
-                        "WHERE product_id = ? AND stock_quantity >= ?";
-                break;
-            default:
-                logger.error("Invalid operation: {}", operation);
-                return false;
+    public Map<String, InventoryStatus> getInventoryStatuses(Collection<String> productIds) {
+        Map<String, InventoryStatus> statuses = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return statuses;
         }
+        String sql = INVENTORY_STATUS_SQL + "WHERE product_id = ANY(?) GROUP BY product_id";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = readConnection(productIds);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
+            stmt.setArray(1, conn.createArrayOf("varchar", productIds.toArray()));
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                InventoryStatus status = mapResultSetToInventoryStatus(rs);
+                statuses.put(status.getProductId(), status);
+            }
+        } catch (SQLException e) {
+            logger.error("Error getting inventory status for {} products", productIds.size(), e);
+        }
+        return statuses;
+    }
+
+    @Override
+    public boolean updateInventory(String productId, int quantity, String operation) {
+        InventoryLedger ledger = ledger();
+        if (ledger != null) {
+            Boolean handled = null;
             if (operation.equals("RESERVE")) {
-                stmt.setInt(1, quantity);
-                stmt.setString(2, productId);
-                stmt.setInt(3, quantity);
+                handled = ledger.reserve(Collections.singletonMap(productId, quantity),
+                        new HashMap<>(), new HashMap<>());
             } else if (operation.equals("RELEASE")) {
-                stmt.setInt(1, quantity);
-                stmt.setString(2, productId);
+                handled = ledger.release(productId, quantity);
             } else if (operation.equals("DEDUCT")) {
-                stmt.setInt(1, quantity);
-                stmt.setInt(2, quantity);
-                stmt.setString(3, productId);
-                stmt.setInt(4, quantity);
+                // Stock changes go to the database directly, after the ledger's pending reservations
+                try {
+                    ledger.flush();
+                } catch (SQLException e) {
+                    logger.error("Error flushing inventory ledger before deduct for product: {}", productId, e);
+                    return false;
+                }
+            }
+            if (handled != null) {
+                return handled;
             }
+        }
 
-            int rowsAffected = stmt.executeUpdate();
-            return rowsAffected > 0;
+        if (!operation.equals("RESERVE") && !operation.equals("RELEASE") && !operation.equals("DEDUCT")) {
+            logger.error("Invalid operation: {}", operation);
+            return false;
+        }
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            boolean changed;
+            conn.setAutoCommit(false);
+            try {
+                if (operation.equals("RESERVE")) {
+                    try (PreparedStatement stmt = conn.prepareStatement(RESERVE_SQL)) {
+                        // No id goes back through this operation, so the record stays settleable by product
+                        setReserveParameters(stmt, productId, quantity, false);
+                        changed = stmt.executeQuery().next();
+                    }
+                } else {
+                    changed = releaseReserved(conn, productId, quantity, operation.equals("DEDUCT"));
+                }
+                if (changed) {
+                    conn.commit();
+                } else {
+                    conn.rollback();
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+            if (changed) {
+                if (ledger != null) {
+                    ledger.invalidate(productId);
+                }
+                fireProductChanged(productId);
+            }
+            return changed;
 
         } catch (SQLException e) {
             logger.error("Error updating inventory for product: {}", productId, e);
@@ -200,18 +654,263 @@ public class ProductDAOImpl implements ProductDAO {
         }
     }
 
+    private void setReserveParameters(PreparedStatement stmt, String productId, int quantity, boolean idIssued)
+            throws SQLException {
+        stmt.setInt(1, quantity);
+        stmt.setString(2, productId);
+        stmt.setInt(3, quantity);
+        stmt.setInt(4, quantity);
+        stmt.setLong(5, CatalogConfig.RESERVATION_TTL_MILLIS);
+        stmt.setBoolean(6, idIssued);
+    }
+
+    // RELEASE returns false only if the product has no inventory; DEDUCT also if stock is short.
+    // Records whose id was issued are left to settleReservation, so one order cannot use up another's hold
+    private boolean releaseReserved(Connection conn, String productId, int quantity, boolean deduct)
+            throws SQLException {
+        Map<String, Integer> consumed = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(CONSUME_RESERVATIONS_SQL)) {
+            stmt.setString(1, productId);
+            stmt.setInt(2, quantity);
+            stmt.setInt(3, quantity);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                consumed.put(rs.getString("warehouse_location"), rs.getInt("used"));
+            }
+        }
+
+        int remaining = quantity;
+        int rowsAffected = 0;
+        if (!consumed.isEmpty()) {
+            try (PreparedStatement stmt = conn.prepareStatement(deduct ? DEDUCT_HELD_SQL : RELEASE_HELD_SQL)) {
+                for (Map.Entry<String, Integer> entry : consumed.entrySet()) {
+                    int p = 1;
+                    stmt.setInt(p++, entry.getValue());
+                    if (deduct) {
+                        stmt.setInt(p++, entry.getValue());
+                    }
+                    stmt.setString(p++, productId);
+                    stmt.setString(p, entry.getKey());
+                    rowsAffected += stmt.executeUpdate();
+                    remaining -= entry.getValue();
+                }
+            }
+        }
+
+        if (remaining > 0) {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    deduct ? DEDUCT_UNTRACKED_SQL : RELEASE_UNTRACKED_SQL)) {
+                if (deduct) {
+                    stmt.setInt(1, remaining);
+                    stmt.setInt(2, remaining);
+                    stmt.setString(3, productId);
+                    stmt.setInt(4, remaining);
+                    stmt.setInt(5, remaining);
+                } else {
+                    stmt.setInt(1, remaining);
+                    stmt.setString(2, productId);
+                }
+                int updated = stmt.executeUpdate();
+                if (deduct && updated == 0) {
+                    return false;
+                }
+                rowsAffected += updated;
+            }
+        }
+        return rowsAffected > 0;
+    }
+
+    @Override
+    public boolean settleReservation(long reservationId, String operation) {
+        boolean deduct = operation.equals("DEDUCT");
+        if (!deduct && !operation.equals("RELEASE")) {
+            logger.error("Invalid operation: {}", operation);
+            return false;
+        }
+
+        String productId = null;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            boolean changed = false;
+            conn.setAutoCommit(false);
+            try {
+                String warehouse = null;
+                int quantity = 0;
+                try (PreparedStatement stmt = conn.prepareStatement(TAKE_RESERVATION_SQL)) {
+                    stmt.setLong(1, reservationId);
+                    ResultSet rs = stmt.executeQuery();
+                    if (rs.next()) {
+                        productId = rs.getString("product_id");
+                        warehouse = rs.getString("warehouse_location");
+                        quantity = rs.getInt("quantity");
+                    }
+                }
+                if (productId != null) {
+                    try (PreparedStatement stmt = conn.prepareStatement(deduct ? DEDUCT_HELD_SQL : RELEASE_HELD_SQL)) {
+                        int p = 1;
+                        stmt.setInt(p++, quantity);
+                        if (deduct) {
+                            stmt.setInt(p++, quantity);
+                        }
+                        stmt.setString(p++, productId);
+                        stmt.setString(p, warehouse);
+                        changed = stmt.executeUpdate() > 0;
+                    }
+                }
+                if (changed) {
+                    conn.commit();
+                } else {
+                    conn.rollback();
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+            if (changed) {
+                InventoryLedger ledger = ledger();
+                if (ledger != null) {
+                    ledger.invalidate(productId);
+                }
+                fireProductChanged(productId);
+            }
+            return changed;
+
+        } catch (SQLException e) {
+            logger.error("Error settling reservation {} for product: {}", reservationId, productId, e);
+            return false;
+        }
+    }
+
+    @Override
+    public ReservationResult reserveInventory(List<InventoryLine> lines) {
+        // Merge duplicate lines and lock rows in product_id order so concurrent
+        // multi-line reservations cannot deadlock on each other
+        Map<String, Integer> totals = new TreeMap<>();
+        for (InventoryLine line : lines) {
+            totals.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+        }
+
+        Map<String, ReservationStatus> outcomes = new HashMap<>();
+        Map<String, Integer> available = new HashMap<>();
+        Map<String, Long> reservationIds = new HashMap<>();
+
+        InventoryLedger ledger = ledger();
+        Boolean success = ledger != null ? ledger.reserve(totals, outcomes, available) : null;
+        if (success == null) {
+            outcomes.clear();
+            available.clear();
+            success = reserveInDatabase(totals, outcomes, available, reservationIds);
+            if (success == null) {
+                logger.error("Error reserving inventory for {} lines", lines.size());
+                return null;
+            }
+        }
+
+        List<ReservationLineResult> results = new ArrayList<>(lines.size());
+        for (InventoryLine line : lines) {
+            ReservationLineResult result = new ReservationLineResult(line.getProductId(),
+                    line.getQuantity(), outcomes.get(line.getProductId()));
+            result.setAvailableQuantity(available.get(line.getProductId()));
+            result.setReservationId(reservationIds.get(line.getProductId()));
+            results.add(result);
+        }
+        return new ReservationResult(success, results);
+    }
+
+    // One statement per product rather than a batch, since each returns the id of its record
+    private Boolean reserveInDatabase(Map<String, Integer> totals, Map<String, ReservationStatus> outcomes,
+                                      Map<String, Integer> available, Map<String, Long> reservationIds) {
+        boolean success;
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(RESERVE_SQL)) {
+                List<String> failed = new ArrayList<>();
+                for (Map.Entry<String, Integer> entry : totals.entrySet()) {
+                    setReserveParameters(stmt, entry.getKey(), entry.getValue(), true);
+                    ResultSet rs = stmt.executeQuery();
+                    if (rs.next()) {
+                        outcomes.put(entry.getKey(), ReservationStatus.RESERVED);
+                        reservationIds.put(entry.getKey(), rs.getLong("reservation_id"));
+                    } else {
+                        failed.add(entry.getKey());
+                    }
+                }
+
+                success = failed.isEmpty();
+                if (success) {
+                    conn.commit();
+                } else {
+                    // Work out why each failed line failed before undoing the batch
+                    loadAvailableQuantities(conn, failed, available);
+                    conn.rollback();
+                    reservationIds.clear();
+                    for (String productId : totals.keySet()) {
+                        if (outcomes.get(productId) == ReservationStatus.RESERVED) {
+                            outcomes.put(productId, ReservationStatus.ROLLED_BACK);
+                        } else {
+                            outcomes.put(productId, available.containsKey(productId)
+                                    ? ReservationStatus.INSUFFICIENT_STOCK
+                                    : ReservationStatus.NOT_FOUND);
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.error("Error reserving inventory for {} products", totals.size(), e);
+            return null;
+        }
+
+        if (success) {
+            for (String productId : totals.keySet()) {
+                fireProductChanged(productId);
+            }
+        }
+        return success;
+    }
+
+    private void loadAvailableQuantities(Connection conn, List<String> productIds,
+                                         Map<String, Integer> available) throws SQLException {
+        // The most a single line can still reserve: the best-stocked warehouse's available units
+        String sql = "SELECT product_id, MAX(stock_quantity - reserved_quantity) AS available " +
+                "FROM product_inventory WHERE product_id = ANY(?) GROUP BY product_id";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, conn.createArrayOf("varchar", productIds.toArray()));
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                available.put(rs.getString("product_id"), rs.getInt("available"));
+            }
+        }
+    }
+
     @Override
     public boolean save(Product product) {
         String sql = "INSERT INTO products (product_id, title, author, isbn, description, " +
-                "category, price, currency, stock_quantity, publish_date, image_url) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+                "category, price, currency, publish_date, image_url) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            setProductParameters(stmt, product);
-            int rowsAffected = stmt.executeUpdate();
-            return rowsAffected > 0;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                setProductParameters(stmt, product);
+                stmt.executeUpdate();
+                setStock(conn, product);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            fireProductChanged(product.getProductId());
+            return true;
 
         } catch (SQLException e) {
             logger.error("Error saving product: {}", product.getProductId(), e);
@@ -222,31 +921,49 @@ public class ProductDAOImpl implements ProductDAO {
     @Override
     public boolean update(Product product) {
         String sql = "UPDATE products SET title = ?, author = ?, isbn = ?, description = ?, " +
-                "category = ?, price = ?, currency = ?, stock_quantity = ?, " +
+                "category = ?, price = ?, currency = ?, " +
                 "publish_date = ?, image_url = ? WHERE product_id = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            int rowsAffected;
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, product.getTitle());
+                stmt.setString(2, product.getAuthor());
+                stmt.setString(3, product.getIsbn());
+                stmt.setString(4, product.getDescription());
+                stmt.setString(5, product.getCategory());
+                stmt.setBigDecimal(6, product.getPrice());
+                stmt.setString(7, product.getCurrency());
 
-            stmt.setString(1, product.getTitle());
-            stmt.setString(2, product.getAuthor());
-            stmt.setString(3, product.getIsbn());
-            stmt.setString(4, product.getDescription());
-            stmt.setString(5, product.getCategory());
-            stmt.setBigDecimal(6, product.getPrice());
-            stmt.setString(7, product.getCurrency());
-            stmt.setInt(8, product.getStockQuantity());
+                if (product.getPublishDate() != null) {
+                    stmt.setDate(8, new Date(product.getPublishDate().getTime()));
+                } else {
+                    stmt.setNull(8, Types.DATE);
+                }
 
-            if (product.getPublishDate() != null) {
-                stmt.setDate(9, new Date(product.getPublishDate().getTime()));
-            } else {
-                stmt.setNull(9, Types.DATE);
-            }
+                stmt.setString(9, product.getImageUrl());
+                stmt.setString(10, product.getProductId());
 
-            stmt.setString(10, product.getImageUrl());
-            stmt.setString(11, product.getProductId());
+                rowsAffected = stmt.executeUpdate();
+                if (rowsAffected > 0) {
+                    setStock(conn, product);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
 
-            int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected > 0) {
+                InventoryLedger ledger = ledger();
+                if (ledger != null) {
+                    ledger.invalidate(product.getProductId());
+                }
+                fireProductChanged(product.getProductId());
+            }
             return rowsAffected > 0;
 
         } catch (SQLException e) {
@@ -255,6 +972,17 @@ public class ProductDAOImpl implements ProductDAO {
         }
     }
 
+    // Leaves the inventory row alone when the stock is unchanged
+    private void setStock(Connection conn, Product product) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(SET_STOCK_SQL)) {
+            stmt.setString(1, product.getProductId());
+            stmt.setString(2, CatalogConfig.INVENTORY_DEFAULT_WAREHOUSE);
+            stmt.setInt(3, product.getStockQuantity());
+            stmt.setString(4, product.getProductId());
+            stmt.executeUpdate();
+        }
+    }
+
     @Override
     public boolean delete(String productId) {
         String sql = "DELETE FROM products WHERE product_id = ?";
@@ -264,6 +992,13 @@ public class ProductDAOImpl implements ProductDAO {
 
             stmt.setString(1, productId);
             int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected > 0) {
+                InventoryLedger ledger = ledger();
+                if (ledger != null) {
+                    ledger.invalidate(productId);
+                }
+                fireProductDeleted(productId);
+            }
             return rowsAffected > 0;
 
         } catch (SQLException e) {
@@ -272,6 +1007,79 @@ public class ProductDAOImpl implements ProductDAO {
         }
     }
 
+    private static Connection readConnection() throws SQLException {
+        if (System.currentTimeMillis() < primaryReadsUntil) {
+            return DatabaseConnection.getConnection();
+        }
+        return DatabaseConnection.getReadConnection();
+    }
+
+    private static Connection readConnection(String productId) throws SQLException {
+        return readConnection(Collections.singleton(productId));
+    }
+
+    // Read-your-writes: lookups touching a just-written product go to the primary
+    private static Connection readConnection(Collection<String> productIds) throws SQLException {
+        for (String productId : productIds) {
+            if (recentWrites.get(productId) != null) {
+                return DatabaseConnection.getConnection();
+            }
+        }
+        return readConnection();
+    }
+
+    // Write-behind reservation ledger, or null when reservations go straight to the database
+    private static InventoryLedger ledger() {
+        return InventoryLedger.getInstance(ProductDAOImpl::fireProductChanged);
+    }
+
+    private static void markWritten(String productId) {
+        long lag = DatabaseConnection.getReplicaMaxLagMillis();
+        if (lag > 0) {
+            recentWrites.put(productId, Boolean.TRUE, System.currentTimeMillis() + lag);
+        }
+    }
+
+    // For writers outside this DAO that change a product's inventory
+    public static void notifyProductChanged(String productId) {
+        InventoryLedger ledger = ledger();
+        if (ledger != null) {
+            ledger.invalidate(productId);
+        }
+        fireProductChanged(productId);
+    }
+
+    // For product deletes made outside this DAO
+    public static void notifyProductDeleted(String productId) {
+        InventoryLedger ledger = ledger();
+        if (ledger != null) {
+            ledger.invalidate(productId);
+        }
+        fireProductDeleted(productId);
+    }
+
+    private static void fireProductChanged(String productId) {
+        markWritten(productId);
+        for (ProductChangeListener listener : changeListeners) {
+            try {
+                listener.productChanged(productId);
+            } catch (RuntimeException e) {
+                logger.error("Product change listener failed for product: {}", productId, e);
+            }
+        }
+    }
+
+    private static void fireProductDeleted(String productId) {
+        markWritten(productId);
+        for (ProductChangeListener listener : changeListeners) {
+            try {
+                listener.productDeleted(productId);
+            } catch (RuntimeException e) {
+                logger.error("Product change listener failed for product: {}", productId, e);
+            }
+        }
+    }
+
     private Product mapResultSetToProduct(ResultSet rs) throws SQLException {
         Product product = new Product();
         product.setProductId(rs.getString("product_id"));
@@ -293,6 +1101,40 @@ public class ProductDAOImpl implements ProductDAO {
         return product;
     }
 
+    private ProductSummary mapResultSetToSummary(ResultSet rs) throws SQLException {
+        ProductSummary summary = new ProductSummary();
+        summary.setProductId(rs.getString("product_id"));
+        summary.setTitle(rs.getString("title"));
+        summary.setAuthor(rs.getString("author"));
+        summary.setPrice(rs.getBigDecimal("price"));
+        summary.setCurrency(rs.getString("currency"));
+        summary.setInStock(rs.getBoolean("in_stock"));
+        return summary;
+    }
+
+    private InventoryStatus mapResultSetToInventoryStatus(ResultSet rs) throws SQLException {
+        InventoryStatus status = new InventoryStatus();
+        status.setProductId(rs.getString("product_id"));
+        int stockQty = rs.getInt("stock_quantity");
+        int reservedQty = rs.getInt("reserved_quantity");
+        InventoryLedger ledger = ledger();
+        if (ledger != null) {
+            // Reservations accepted by the ledger but not yet written back
+            reservedQty += ledger.pendingReserved(status.getProductId());
+        }
+        status.setAvailableQuantity(stockQty - reservedQty);
+        status.setReservedQuantity(reservedQty);
+        status.setInStock(stockQty > reservedQty);
+        status.setWarehouseLocation(rs.getString("warehouse_location"));
+
+        Date restockDate = rs.getDate("restock_date");
+        if (restockDate != null) {
+            status.setRestockDate(new java.util.Date(restockDate.getTime()));
+        }
+        status.setLastUpdated(new java.util.Date());
+        return status;
+    }
+
     private void setProductParameters(PreparedStatement stmt, Product product) throws SQLException {
         stmt.setString(1, product.getProductId());
         stmt.setString(2, product.getTitle());
@@ -302,14 +1144,13 @@ public class ProductDAOImpl implements ProductDAO {
         stmt.setString(6, product.getCategory());
         stmt.setBigDecimal(7, product.getPrice());
         stmt.setString(8, product.getCurrency());
-        stmt.setInt(9, product.getStockQuantity());
 
         if (product.getPublishDate() != null) {
-            stmt.setDate(10, new Date(product.getPublishDate().getTime()));
+            stmt.setDate(9, new Date(product.getPublishDate().getTime()));
         } else {
-            stmt.setNull(10, Types.DATE);
+            stmt.setNull(9, Types.DATE);
         }
 
-        stmt.setString(11, product.getImageUrl());
+        stmt.setString(10, product.getImageUrl());
     }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.globalbooks.catalog.importer;
+
+public class ImportError {
+
+    private final long line;
+    private final String productId;
+    private final String message;
+
+    public ImportError(long line, String productId, String message) {
+        this.line = line;
+        this.productId = productId;
+        this.message = message;
+    }
+
+    public long getLine() { return line; }
+
+    public String getProductId() { return productId; }
+
+    public String getMessage() { return message; }
+
+    @Override
+    public String toString() {
+        return "line " + line + (productId != null ? " (" + productId + ")" : "") + ": " + message;
+    }
+}
@@ -0,0 +1,69 @@
+package com.globalbooks.catalog.importer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Running totals for an import; also passed to progress callbacks while the
+ * import is still in flight.
+ */
+public class ImportResult {
+
+    private final int maxErrors;
+    private final List<ImportError> errors = new ArrayList<>();
+    private final long startedAt = System.currentTimeMillis();
+    private long finishedAt;
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsFailed;
+    private String abortReason;
+
+    ImportResult(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    void recordRead() { rowsRead++; }
+
+    void recordImported(long rows) { rowsImported += rows; }
+
+    void recordFailure(ImportError error) {
+        rowsFailed++;
+        // Keep counting past the cap, but stop retaining details
+        if (errors.size() < maxErrors) {
+            errors.add(error);
+        }
+    }
+
+    void abort(String reason) { abortReason = reason; }
+
+    void finish() { finishedAt = System.currentTimeMillis(); }
+
+    public long getRowsRead() { return rowsRead; }
+
+    public long getRowsImported() { return rowsImported; }
+
+    public long getRowsFailed() { return rowsFailed; }
+
+    public List<ImportError> getErrors() { return Collections.unmodifiableList(errors); }
+
+    // Set when the import stopped early on a database failure
+    public String getAbortReason() { return abortReason; }
+
+    public boolean isErrorListTruncated() { return rowsFailed > errors.size(); }
+
+    public long getElapsedMillis() {
+        return (finishedAt > 0 ? finishedAt : System.currentTimeMillis()) - startedAt;
+    }
+
+    public double getRowsPerSecond() {
+        long elapsed = Math.max(1, getElapsedMillis());
+        return rowsImported * 1000.0 / elapsed;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("read=%d, imported=%d, failed=%d, elapsed=%dms, throughput=%.0f rows/s",
+                rowsRead, rowsImported, rowsFailed, getElapsedMillis(), getRowsPerSecond());
+    }
+}
@@ -0,0 +1,369 @@
+package com.globalbooks.catalog.importer;
+
+import com.globalbooks.catalog.config.CatalogConfig;
+import com.globalbooks.catalog.dao.ProductDAOImpl;
+import com.globalbooks.catalog.util.CsvUtil;
+import com.globalbooks.catalog.util.DatabaseConnection;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Bulk product loader for supplier feeds. The CSV is parsed as a stream and
+ * validated row by row; valid rows are loaded in chunks with COPY into a
+ * session-local staging table followed by set-based upserts into products and
+ * product_inventory. A chunk the database rejects is retried row by row so
+ * only the offending rows are reported.
+ *
+ * The header row names the columns; it matches the /export/products CSV, so
+ * an export can be re-imported as is.
+ */
+public class ProductImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImporter.class);
+
+    private static final String[] COLUMNS = {"product_id", "title", "author", "isbn", "description",
+            "category", "price", "currency", "stock_quantity", "publish_date", "image_url"};
+    private static final String[] REQUIRED = {"product_id", "title", "author", "isbn", "category", "price"};
+    private static final int[] MAX_LENGTHS = {50, 255, 255, 20, -1, 100, -1, 3, -1, -1, 500};
+    private static final String COLUMN_LIST = String.join(", ", COLUMNS);
+    // stock_quantity goes to product_inventory, not products
+    private static final int STOCK_COLUMN = 8;
+    private static final String PRODUCT_COLUMN_LIST =
+            "product_id, title, author, isbn, description, category, price, currency, publish_date, image_url";
+
+    private static final String STAGING_DDL =
+            "CREATE TEMP TABLE IF NOT EXISTS products_import (" +
+            "product_id VARCHAR(50), title VARCHAR(255), author VARCHAR(255), isbn VARCHAR(20), " +
+            "description TEXT, category VARCHAR(100), price DECIMAL(10, 2), currency VARCHAR(3), " +
+            "stock_quantity INTEGER, publish_date DATE, image_url VARCHAR(500)" +
+            ") ON COMMIT DELETE ROWS";
+    private static final String COPY_SQL =
+            "COPY products_import (" + COLUMN_LIST + ") FROM STDIN WITH (FORMAT csv)";
+    private static final String UPSERT_SET =
+            " ON CONFLICT (product_id) DO UPDATE SET title = EXCLUDED.title, author = EXCLUDED.author, " +
+            "isbn = EXCLUDED.isbn, description = EXCLUDED.description, category = EXCLUDED.category, " +
+            "price = EXCLUDED.price, currency = EXCLUDED.currency, " +
+            "publish_date = EXCLUDED.publish_date, image_url = EXCLUDED.image_url";
+    private static final String UPSERT_FROM_STAGING_SQL =
+            "INSERT INTO products (" + PRODUCT_COLUMN_LIST + ") SELECT " + PRODUCT_COLUMN_LIST +
+            " FROM products_import" + UPSERT_SET;
+    private static final String UPSERT_ROW_SQL =
+            "INSERT INTO products (" + PRODUCT_COLUMN_LIST + ") VALUES (?, ?, ?, ?, ?, ?, " +
+            "CAST(? AS DECIMAL), ?, CAST(? AS DATE), ?)" + UPSERT_SET;
+
+    // As ProductDAOImpl: stock is set only for products held in at most one warehouse,
+    // and rows whose stock is unchanged are not rewritten
+    private static final String STOCK_SET =
+            " ON CONFLICT (product_id, warehouse_location) DO UPDATE SET stock_quantity = EXCLUDED.stock_quantity " +
+            "WHERE product_inventory.stock_quantity <> EXCLUDED.stock_quantity";
+    private static final String STOCK_FROM_STAGING_SQL =
+            "INSERT INTO product_inventory (product_id, warehouse_location, stock_quantity) " +
+            "SELECT s.product_id, COALESCE(MIN(i.warehouse_location), ?), s.stock_quantity " +
+            "FROM products_import s LEFT JOIN product_inventory i ON i.product_id = s.product_id " +
+            "GROUP BY s.product_id, s.stock_quantity HAVING COUNT(i.product_id) <= 1" + STOCK_SET;
+    private static final String STOCK_ROW_SQL =
+            "INSERT INTO product_inventory (product_id, warehouse_location, stock_quantity) " +
+            "SELECT ?, COALESCE(MIN(warehouse_location), ?), CAST(? AS INTEGER) FROM product_inventory " +
+            "WHERE product_id = ? HAVING COUNT(*) <= 1" + STOCK_SET;
+
+    private final int batchSize;
+    private final Consumer<ImportResult> progressListener;
+
+    public ProductImporter() {
+        this(CatalogConfig.IMPORT_BATCH_SIZE, null);
+    }
+
+    public ProductImporter(int batchSize, Consumer<ImportResult> progressListener) {
+        this.batchSize = batchSize;
+        this.progressListener = progressListener;
+    }
+
+    public ImportResult importCsv(Reader input) throws IOException {
+        ImportResult result = new ImportResult(CatalogConfig.IMPORT_MAX_ERRORS);
+        CsvRecordReader csv = new CsvRecordReader(input);
+
+        List<String> header = csv.next();
+        if (header == null) {
+            result.finish();
+            return result;
+        }
+        int[] columnIndex = mapHeader(header);
+
+        // Keyed by product_id: a later row for the same product replaces an earlier one,
+        // since ON CONFLICT cannot touch the same row twice in one statement
+        Map<String, StagedRow> chunk = new LinkedHashMap<>();
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(STAGING_DDL);
+            }
+            conn.setAutoCommit(false);
+            try {
+                List<String> record;
+                while ((record = csv.next()) != null) {
+                    if (record.size() == 1 && record.get(0).isEmpty()) {
+                        continue;
+                    }
+                    result.recordRead();
+                    long line = csv.getRecordStartLine();
+                    StagedRow row;
+                    try {
+                        row = parseRow(record, columnIndex, line);
+                    } catch (IllegalArgumentException e) {
+                        result.recordFailure(new ImportError(line, field(record, columnIndex, 0), e.getMessage()));
+                        continue;
+                    }
+                    StagedRow replaced = chunk.remove(row.productId);
+                    if (replaced != null) {
+                        result.recordFailure(new ImportError(replaced.line, replaced.productId,
+                                "Superseded by a later row on line " + line));
+                    }
+                    chunk.put(row.productId, row);
+
+                    if (chunk.size() >= batchSize) {
+                        loadChunk(conn, chunk.values(), result);
+                        chunk.clear();
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    loadChunk(conn, chunk.values(), result);
+                }
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.error("Product import aborted after {} rows", result.getRowsRead(), e);
+            result.abort(e.getMessage());
+        }
+
+        result.finish();
+        logger.info("Product import finished: {}", result);
+        if (result.getRowsImported() > 0) {
+            ProductDAOImpl.notifyCatalogReloaded();
+        }
+        return result;
+    }
+
+    private void loadChunk(Connection conn, Collection<StagedRow> rows, ImportResult result)
+            throws SQLException {
+        StringBuilder copyData = new StringBuilder(rows.size() * 256);
+        for (StagedRow row : rows) {
+            for (int i = 0; i < row.values.length; i++) {
+                if (i > 0) {
+                    copyData.append(',');
+                }
+                CsvUtil.appendField(copyData, row.values[i]);
+            }
+            copyData.append('\n');
+        }
+
+        try {
+            CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+            copyManager.copyIn(COPY_SQL, new StringReader(copyData.toString()));
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate(UPSERT_FROM_STAGING_SQL);
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(STOCK_FROM_STAGING_SQL)) {
+                stmt.setString(1, CatalogConfig.INVENTORY_DEFAULT_WAREHOUSE);
+                stmt.executeUpdate();
+            }
+            conn.commit();
+            result.recordImported(rows.size());
+        } catch (SQLException | IOException e) {
+            conn.rollback();
+            logger.warn("Bulk load of {} rows rejected ({}); retrying row by row", rows.size(), e.getMessage());
+            loadRowByRow(conn, rows, result);
+        }
+        reportProgress(result);
+    }
+
+    private void loadRowByRow(Connection conn, Collection<StagedRow> rows, ImportResult result)
+            throws SQLException {
+        long imported = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(UPSERT_ROW_SQL);
+             PreparedStatement stockStmt = conn.prepareStatement(STOCK_ROW_SQL)) {
+            for (StagedRow row : rows) {
+                int parameter = 1;
+                for (int i = 0; i < row.values.length; i++) {
+                    if (i != STOCK_COLUMN) {
+                        stmt.setString(parameter++, row.values[i]);
+                    }
+                }
+                stockStmt.setString(1, row.productId);
+                stockStmt.setString(2, CatalogConfig.INVENTORY_DEFAULT_WAREHOUSE);
+                stockStmt.setString(3, row.values[STOCK_COLUMN]);
+                stockStmt.setString(4, row.productId);
+                Savepoint savepoint = conn.setSavepoint();
+                try {
+                    stmt.executeUpdate();
+                    stockStmt.executeUpdate();
+                    conn.releaseSavepoint(savepoint);
+                    imported++;
+                } catch (SQLException e) {
+                    conn.rollback(savepoint);
+                    result.recordFailure(new ImportError(row.line, row.productId, e.getMessage()));
+                }
+            }
+        }
+        conn.commit();
+        result.recordImported(imported);
+    }
+
+    private void reportProgress(ImportResult result) {
+        if (progressListener != null) {
+            progressListener.accept(result);
+        }
+    }
+
+    private static int[] mapHeader(List<String> header) {
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            positions.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : REQUIRED) {
+            if (!positions.containsKey(required)) {
+                throw new IllegalArgumentException("Missing required column: " + required);
+            }
+        }
+        int[] columnIndex = new int[COLUMNS.length];
+        for (int i = 0; i < COLUMNS.length; i++) {
+            columnIndex[i] = positions.getOrDefault(COLUMNS[i], -1);
+        }
+        return columnIndex;
+    }
+
+    private static StagedRow parseRow(List<String> record, int[] columnIndex, long line) {
+        String[] values = new String[COLUMNS.length];
+        for (int i = 0; i < COLUMNS.length; i++) {
+            String value = field(record, columnIndex, i);
+            if (value != null && MAX_LENGTHS[i] > 0 && value.length() > MAX_LENGTHS[i]) {
+                throw new IllegalArgumentException(COLUMNS[i] + " exceeds " + MAX_LENGTHS[i] + " characters");
+            }
+            values[i] = value;
+        }
+        for (String required : REQUIRED) {
+            int i = indexOf(required);
+            if (values[i] == null) {
+                throw new IllegalArgumentException(required + " is required");
+            }
+        }
+
+        try {
+            BigDecimal price = new BigDecimal(values[6]).setScale(2, RoundingMode.HALF_UP);
+            if (price.signum() < 0 || price.precision() > 10) {
+                throw new IllegalArgumentException("price out of range: " + values[6]);
+            }
+            values[6] = price.toPlainString();
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("price is not a number: " + values[6]);
+        }
+
+        if (values[7] == null) {
+            values[7] = "USD";
+        }
+
+        if (values[8] == null) {
+            values[8] = "0";
+        } else {
+            try {
+                if (Integer.parseInt(values[8]) < 0) {
+                    throw new IllegalArgumentException("stock_quantity cannot be negative");
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("stock_quantity is not an integer: " + values[8]);
+            }
+        }
+
+        if (values[9] != null) {
+            try {
+                LocalDate.parse(values[9]);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("publish_date must be yyyy-MM-dd: " + values[9]);
+            }
+        }
+        return new StagedRow(line, values);
+    }
+
+    private static String field(List<String> record, int[] columnIndex, int column) {
+        int index = columnIndex[column];
+        if (index < 0 || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static int indexOf(String column) {
+        for (int i = 0; i < COLUMNS.length; i++) {
+            if (COLUMNS[i].equals(column)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(column);
+    }
+
+    private static final class StagedRow {
+        final long line;
+        final String productId;
+        final String[] values;
+
+        StagedRow(long line, String[] values) {
+            this.line = line;
+            this.productId = values[0];
+            this.values = values;
+        }
+    }
+
+    // Usage: ProductImporter <feed.csv> [batchSize]
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: ProductImporter <feed.csv> [batchSize]");
+            System.exit(2);
+        }
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : CatalogConfig.IMPORT_BATCH_SIZE;
+        ProductImporter importer = new ProductImporter(batchSize,
+                progress -> System.out.println("Progress: " + progress));
+
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+            ImportResult result = importer.importCsv(reader);
+            System.out.println("Import complete: " + result);
+            for (ImportError error : result.getErrors()) {
+                System.out.println("  " + error);
+            }
+            if (result.isErrorListTruncated()) {
+                System.out.println("  ... " + (result.getRowsFailed() - result.getErrors().size())
+                        + " more errors not shown");
+            }
+            if (result.getAbortReason() != null) {
+                System.out.println("Aborted: " + result.getAbortReason());
+            }
+        } finally {
+            DatabaseConnection.closeDataSource();
+        }
+    }
+}
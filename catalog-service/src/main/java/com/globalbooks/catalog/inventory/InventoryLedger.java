@@ -0,0 +1,672 @@
+package com.globalbooks.catalog.inventory;
+
+import com.globalbooks.catalog.config.CatalogConfig;
+import com.globalbooks.catalog.model.ReservationStatus;
+import com.globalbooks.catalog.util.DatabaseConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind reservation ledger for hot products. Reservations are admitted
+ * against an in-memory available count under a per-stripe lock and recorded
+ * in a local journal; net deltas are written to product_inventory
+ * in one statement per flush interval, together with a checkpoint of the
+ * last journal sequence applied. On startup, journal records past the
+ * checkpoint are applied before the ledger accepts reservations.
+ *
+ * The in-memory counts assume this process is the only writer of
+ * reserved_quantity; run at most one ledger per database.
+ *
+ * Reservations admitted here get no inventory_reservations record: they
+ * carry no reservation id, cannot be settled by id, and are never reclaimed
+ * by ReservationSweeper. Callers release or deduct them by product.
+ */
+public class InventoryLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryLedger.class);
+    private static final int STRIPE_COUNT = 64;
+
+    // Admission is against the best-stocked warehouse, where each flush puts a positive net
+    // delta, so a delta never exceeds the row it lands on. Releases are capped at the units
+    // reserved on the most-reserved warehouse, where a flush puts a negative net delta
+    private static final String LOAD_SQL =
+            "SELECT product_id, MAX(stock_quantity - reserved_quantity) AS available, " +
+            "MAX(reserved_quantity) AS reserved " +
+            "FROM product_inventory WHERE product_id = ANY(?) GROUP BY product_id";
+    // Clamped so one oversold product cannot fail the whole batch on check_inventory_reserved.
+    // The target rows are locked first so the pre-update counts returned are the ones updated,
+    // which lets a clamped delta be detected instead of silently dropping acknowledged units
+    private static final String APPLY_SQL =
+            "WITH target AS (SELECT DISTINCT ON (w.product_id) w.product_id, w.warehouse_location, d.delta " +
+            "FROM unnest(?::varchar[], ?::int[]) AS d(product_id, delta) " +
+            "JOIN product_inventory w ON w.product_id = d.product_id WHERE d.delta <> 0 " +
+            "ORDER BY w.product_id, CASE WHEN d.delta >= 0 THEN w.stock_quantity - w.reserved_quantity " +
+            "ELSE w.reserved_quantity END DESC, w.warehouse_location), " +
+            "locked AS (SELECT i.product_id, i.warehouse_location, i.stock_quantity, i.reserved_quantity, t.delta " +
+            "FROM product_inventory i JOIN target t " +
+            "ON i.product_id = t.product_id AND i.warehouse_location = t.warehouse_location FOR UPDATE OF i) " +
+            "UPDATE product_inventory i " +
+            "SET reserved_quantity = GREATEST(0, LEAST(l.stock_quantity, l.reserved_quantity + l.delta)) " +
+            "FROM locked l WHERE i.product_id = l.product_id AND i.warehouse_location = l.warehouse_location " +
+            "RETURNING i.product_id, l.delta, l.reserved_quantity AS reserved_before, " +
+            "i.reserved_quantity AS reserved_after";
+    private static final String CHECKPOINT_SQL =
+            "INSERT INTO inventory_ledger_checkpoint (ledger_id, last_seq, updated_at) " +
+            "VALUES (?, ?, CURRENT_TIMESTAMP) ON CONFLICT (ledger_id) " +
+            "DO UPDATE SET last_seq = EXCLUDED.last_seq, updated_at = CURRENT_TIMESTAMP";
+
+    private static volatile InventoryLedger instance;
+    private static boolean initializationFailed;
+
+    private final String ledgerId;
+    private final ReservationJournal journal;
+    private final Consumer<String> flushListener;
+    private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+    private final Object flushLock = new Object();
+    private ScheduledExecutorService flusher;
+    private long checkpointSeq;
+    private volatile boolean healthy;
+
+    InventoryLedger(String ledgerId, Path journalDirectory, Consumer<String> flushListener) throws IOException {
+        this.ledgerId = ledgerId;
+        this.flushListener = flushListener;
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.journal = new ReservationJournal(journalDirectory, ledgerId.replaceAll("[^A-Za-z0-9_.-]", "_"));
+    }
+
+    /**
+     * Process-wide ledger, recovered and started on first use. Returns null
+     * when the ledger is disabled, could not recover its journal, or has
+     * stopped accepting work after a journal failure; callers then update
+     * inventory directly.
+     */
+    public static InventoryLedger getInstance(Consumer<String> flushListener) {
+        if (!CatalogConfig.INVENTORY_LEDGER_ENABLED) {
+            return null;
+        }
+        InventoryLedger ledger = instance;
+        if (ledger == null) {
+            ledger = initialize(flushListener);
+        }
+        return ledger != null && ledger.healthy ? ledger : null;
+    }
+
+    private static synchronized InventoryLedger initialize(Consumer<String> flushListener) {
+        if (instance == null && !initializationFailed) {
+            try {
+                InventoryLedger ledger = new InventoryLedger(CatalogConfig.INVENTORY_LEDGER_ID,
+                        Paths.get(CatalogConfig.INVENTORY_JOURNAL_DIR), flushListener);
+                ledger.recover();
+                ledger.start(CatalogConfig.INVENTORY_FLUSH_INTERVAL_MILLIS);
+                instance = ledger;
+            } catch (IOException | SQLException e) {
+                // Journal left in place; the next successful start applies it
+                initializationFailed = true;
+                logger.error("Inventory ledger recovery failed; reserving directly against the database", e);
+            }
+        }
+        return instance;
+    }
+
+    // Writes back pending reservations and closes the journal of the running ledger, if any
+    public static synchronized void shutdownInstance() {
+        if (instance != null) {
+            instance.shutdown();
+            instance = null;
+        }
+    }
+
+    // Applies journal records newer than the database checkpoint
+    void recover() throws IOException, SQLException {
+        long lastSeq;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT last_seq FROM inventory_ledger_checkpoint WHERE ledger_id = ?")) {
+            stmt.setString(1, ledgerId);
+            ResultSet rs = stmt.executeQuery();
+            lastSeq = rs.next() ? rs.getLong("last_seq") : 0;
+        }
+
+        Map<String, Integer> deltas = new TreeMap<>();
+        long maxSeq = lastSeq;
+        List<Path> segments = journal.existingSegments();
+        for (Path segment : segments) {
+            maxSeq = Math.max(maxSeq, ReservationJournal.replay(segment, lastSeq, deltas));
+        }
+
+        if (maxSeq > lastSeq) {
+            applyDeltas(deltas, maxSeq);
+            logger.info("Recovered {} journaled reservation records for {} products (seq {} to {})",
+                    maxSeq - lastSeq, deltas.size(), lastSeq + 1, maxSeq);
+        }
+        for (Path segment : segments) {
+            Files.deleteIfExists(segment);
+        }
+
+        checkpointSeq = maxSeq;
+        journal.open(maxSeq);
+        healthy = true;
+    }
+
+    void start(long flushIntervalMillis) {
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "catalog-inventory-ledger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        logger.info("Inventory ledger {} started (flush every {} ms)", ledgerId, flushIntervalMillis);
+    }
+
+    /**
+     * Atomically reserves every line or none. Fills outcomes (and available
+     * for INSUFFICIENT_STOCK lines) like ProductDAO.reserveInventory; returns
+     * null if the journal could not be written.
+     */
+    public Boolean reserve(Map<String, Integer> totals, Map<String, ReservationStatus> outcomes,
+                           Map<String, Integer> available) {
+        int[] stripeIds = stripesFor(totals.keySet());
+        try {
+            ensureLoaded(totals.keySet(), stripeIds);
+        } catch (SQLException e) {
+            logger.error("Error loading available quantities for {} products", totals.size(), e);
+            return null;
+        }
+
+        long seq;
+        lock(stripeIds);
+        try {
+            boolean success = true;
+            for (Map.Entry<String, Integer> entry : totals.entrySet()) {
+                SkuState state = stateOf(entry.getKey());
+                if (state == null) {
+                    outcomes.put(entry.getKey(), ReservationStatus.NOT_FOUND);
+                    success = false;
+                } else if (state.available < entry.getValue()) {
+                    outcomes.put(entry.getKey(), ReservationStatus.INSUFFICIENT_STOCK);
+                    available.put(entry.getKey(), state.available);
+                    success = false;
+                }
+            }
+            if (!success) {
+                for (String productId : totals.keySet()) {
+                    outcomes.putIfAbsent(productId, ReservationStatus.ROLLED_BACK);
+                }
+                return false;
+            }
+
+            seq = journal.append(totals);
+            for (Map.Entry<String, Integer> entry : totals.entrySet()) {
+                SkuState state = stateOf(entry.getKey());
+                state.available -= entry.getValue();
+                state.pending += entry.getValue();
+                state.touched = true;
+                outcomes.put(entry.getKey(), ReservationStatus.RESERVED);
+            }
+        } catch (IOException e) {
+            markFailed(e);
+            return null;
+        } finally {
+            unlock(stripeIds);
+        }
+
+        // Outside the stripe locks so concurrent reservations share one fsync
+        try {
+            journal.awaitDurable(seq);
+            return true;
+        } catch (IOException e) {
+            // Not acknowledged, so undo it; flushing will not include it
+            adjust(totals, -1);
+            markFailed(e);
+            return null;
+        }
+    }
+
+    /**
+     * True once the release is journaled; false if the product does not exist,
+     * null if the journal failed. Releases no more than the product has
+     * reserved, counting reservations not yet flushed, as the database path
+     * does; releasing more would admit reservations against units that do
+     * not exist.
+     */
+    public Boolean release(String productId, int quantity) {
+        Map<String, Integer> delta = new HashMap<>();
+        int[] stripeIds = stripesFor(Collections.singleton(productId));
+        try {
+            ensureLoaded(Collections.singleton(productId), stripeIds);
+        } catch (SQLException e) {
+            logger.error("Error loading available quantity for product: {}", productId, e);
+            return null;
+        }
+
+        long seq;
+        lock(stripeIds);
+        try {
+            SkuState state = stateOf(productId);
+            if (state == null) {
+                return false;
+            }
+            int released = Math.min(quantity, Math.max(0, state.reserved + state.pending));
+            if (released < quantity) {
+                logger.warn("Release of {} units for product {} capped at the {} reserved",
+                        quantity, productId, released);
+            }
+            if (released == 0) {
+                return true;
+            }
+            delta.put(productId, -released);
+            seq = journal.append(delta);
+            state.available += released;
+            state.pending -= released;
+            state.touched = true;
+        } catch (IOException e) {
+            markFailed(e);
+            return null;
+        } finally {
+            unlock(stripeIds);
+        }
+
+        try {
+            journal.awaitDurable(seq);
+            return true;
+        } catch (IOException e) {
+            adjust(delta, -1);
+            markFailed(e);
+            return null;
+        }
+    }
+
+    // Reserved units admitted but not yet written to product_inventory
+    public int pendingReserved(String productId) {
+        Stripe stripe = stripes[stripeIndex(productId)];
+        stripe.lock.lock();
+        try {
+            SkuState state = stripe.skus.get(productId);
+            return state == null ? 0 : state.pending;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    // Re-reads the available count at the next flush, after stock changed outside the ledger
+    public void invalidate(String productId) {
+        Stripe stripe = stripes[stripeIndex(productId)];
+        stripe.lock.lock();
+        try {
+            SkuState state = stripe.skus.get(productId);
+            if (state != null) {
+                state.refresh = true;
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                for (SkuState state : stripe.skus.values()) {
+                    state.refresh = true;
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes all pending deltas and the journal checkpoint in one transaction.
+     * On failure the deltas are kept for the next attempt.
+     */
+    public void flush() throws SQLException {
+        synchronized (flushLock) {
+            Map<String, Integer> deltas = new TreeMap<>();
+            long cut;
+
+            // Barrier: with every stripe locked no append is in flight, so the
+            // collected deltas are exactly the journal records up to cut
+            int[] all = new int[STRIPE_COUNT];
+            for (int i = 0; i < STRIPE_COUNT; i++) {
+                all[i] = i;
+            }
+            lock(all);
+            try {
+                try {
+                    cut = journal.roll();
+                } catch (IOException e) {
+                    // Every appended record is reflected in memory, so checkpointing
+                    // past all of them keeps a later replay from applying them twice
+                    markFailed(e);
+                    cut = journal.lastSequence();
+                }
+                for (Stripe stripe : stripes) {
+                    for (Map.Entry<String, SkuState> entry : stripe.skus.entrySet()) {
+                        SkuState state = entry.getValue();
+                        if (state.pending != 0 || state.refresh) {
+                            deltas.put(entry.getKey(), state.pending);
+                            state.pending = 0;
+                            state.refresh = false;
+                        }
+                    }
+                }
+            } finally {
+                unlock(all);
+            }
+
+            if (cut == checkpointSeq && deltas.isEmpty()) {
+                evictIdle();
+                return;
+            }
+
+            Map<String, SkuState> current;
+            try {
+                current = applyDeltas(deltas, cut);
+            } catch (SQLException e) {
+                restorePending(deltas);
+                throw e;
+            }
+            checkpointSeq = cut;
+            journal.deleteClosedSegments();
+
+            // Reconcile with the database, keeping reservations admitted since the barrier
+            for (Map.Entry<String, SkuState> entry : current.entrySet()) {
+                Stripe stripe = stripes[stripeIndex(entry.getKey())];
+                stripe.lock.lock();
+                try {
+                    SkuState state = stripe.skus.get(entry.getKey());
+                    if (state != null) {
+                        state.available = entry.getValue().available - state.pending;
+                        state.reserved = entry.getValue().reserved;
+                    }
+                } finally {
+                    stripe.lock.unlock();
+                }
+            }
+            evictIdle();
+
+            for (String productId : deltas.keySet()) {
+                flushListener.accept(productId);
+            }
+        }
+    }
+
+    public void shutdown() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        flushQuietly();
+        try {
+            journal.close();
+        } catch (IOException e) {
+            logger.error("Error closing inventory journal", e);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (SQLException | RuntimeException e) {
+            logger.error("Inventory ledger flush failed; will retry", e);
+        }
+    }
+
+    // Returns the resulting available and reserved quantities of each updated product
+    private Map<String, SkuState> applyDeltas(Map<String, Integer> deltas, long lastSeq) throws SQLException {
+        Map<String, SkuState> current = new HashMap<>();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                if (!deltas.isEmpty()) {
+                    try (PreparedStatement stmt = conn.prepareStatement(APPLY_SQL)) {
+                        Array ids = conn.createArrayOf("varchar", deltas.keySet().toArray());
+                        Array amounts = conn.createArrayOf("integer", deltas.values().toArray());
+                        stmt.setArray(1, ids);
+                        stmt.setArray(2, amounts);
+                        Map<String, Integer> unapplied = new HashMap<>(deltas);
+                        ResultSet rs = stmt.executeQuery();
+                        while (rs.next()) {
+                            String productId = rs.getString("product_id");
+                            unapplied.remove(productId);
+                            reportClamped(productId, rs.getInt("delta"),
+                                    rs.getInt("reserved_after") - rs.getInt("reserved_before"));
+                        }
+                        for (Map.Entry<String, Integer> entry : unapplied.entrySet()) {
+                            // No inventory row left to carry the delta, e.g. the product was deleted
+                            reportClamped(entry.getKey(), entry.getValue(), 0);
+                        }
+                    }
+                    current.putAll(loadState(conn, deltas.keySet()));
+                }
+                try (PreparedStatement stmt = conn.prepareStatement(CHECKPOINT_SQL)) {
+                    stmt.setString(1, ledgerId);
+                    stmt.setLong(2, lastSeq);
+                    stmt.executeUpdate();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        return current;
+    }
+
+    // Loads available counts for products the ledger is not tracking yet
+    private void ensureLoaded(Collection<String> productIds, int[] stripeIds) throws SQLException {
+        while (true) {
+            List<String> missing = new ArrayList<>();
+            long[] epochs = new long[stripeIds.length];
+            lock(stripeIds);
+            try {
+                for (int i = 0; i < stripeIds.length; i++) {
+                    epochs[i] = stripes[stripeIds[i]].epoch;
+                }
+                for (String productId : productIds) {
+                    if (stateOf(productId) == null) {
+                        missing.add(productId);
+                    }
+                }
+            } finally {
+                unlock(stripeIds);
+            }
+            if (missing.isEmpty()) {
+                return;
+            }
+
+            Map<String, SkuState> loaded = loadAvailable(missing);
+
+            lock(stripeIds);
+            try {
+                boolean unchanged = true;
+                for (int i = 0; i < stripeIds.length; i++) {
+                    unchanged &= epochs[i] == stripes[stripeIds[i]].epoch;
+                }
+                // An eviction in between may have dropped newer state; read again
+                if (unchanged) {
+                    for (Map.Entry<String, SkuState> entry : loaded.entrySet()) {
+                        stripes[stripeIndex(entry.getKey())].skus.putIfAbsent(entry.getKey(), entry.getValue());
+                    }
+                    return;
+                }
+            } finally {
+                unlock(stripeIds);
+            }
+        }
+    }
+
+    private Map<String, SkuState> loadAvailable(List<String> productIds) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return loadState(conn, productIds);
+        }
+    }
+
+    private static Map<String, SkuState> loadState(Connection conn, Collection<String> productIds)
+            throws SQLException {
+        Map<String, SkuState> states = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(LOAD_SQL)) {
+            stmt.setArray(1, conn.createArrayOf("varchar", productIds.toArray()));
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                states.put(rs.getString("product_id"), new SkuState(rs.getInt("available"), rs.getInt("reserved")));
+            }
+        }
+        return states;
+    }
+
+    /**
+     * A flushed delta that did not land in full means reservations or releases
+     * already acknowledged to callers were not recorded, because stock or
+     * reserved units changed outside the ledger. The reload after the flush
+     * brings the in-memory counts back in line with the database.
+     */
+    private void reportClamped(String productId, int delta, int applied) {
+        if (applied != delta) {
+            logger.error("Inventory ledger {} flushed a reserved delta of {} for product {} but only {} applied; "
+                    + "{} acknowledged units were dropped", ledgerId, delta, productId, applied,
+                    Math.abs(delta - applied));
+        }
+    }
+
+    // Drops products with nothing pending and no activity since the last flush
+    private void evictIdle() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                Iterator<SkuState> it = stripe.skus.values().iterator();
+                boolean evicted = false;
+                while (it.hasNext()) {
+                    SkuState state = it.next();
+                    if (!state.touched && state.pending == 0 && !state.refresh) {
+                        it.remove();
+                        evicted = true;
+                    } else {
+                        state.touched = false;
+                    }
+                }
+                if (evicted) {
+                    stripe.epoch++;
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    // Puts deltas from a failed flush back; their reservations are already counted in available
+    private void restorePending(Map<String, Integer> deltas) {
+        for (Map.Entry<String, Integer> entry : deltas.entrySet()) {
+            Stripe stripe = stripes[stripeIndex(entry.getKey())];
+            stripe.lock.lock();
+            try {
+                SkuState state = stripe.skus.get(entry.getKey());
+                if (state != null) {
+                    state.pending += entry.getValue();
+                    state.refresh = true;
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    private void adjust(Map<String, Integer> deltas, int sign) {
+        for (Map.Entry<String, Integer> entry : deltas.entrySet()) {
+            Stripe stripe = stripes[stripeIndex(entry.getKey())];
+            stripe.lock.lock();
+            try {
+                SkuState state = stripe.skus.get(entry.getKey());
+                if (state != null) {
+                    state.pending += sign * entry.getValue();
+                    state.available -= sign * entry.getValue();
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    private void markFailed(IOException e) {
+        healthy = false;
+        logger.error("Inventory journal write failed; ledger disabled until restart", e);
+    }
+
+    private SkuState stateOf(String productId) {
+        return stripes[stripeIndex(productId)].skus.get(productId);
+    }
+
+    private static int stripeIndex(String productId) {
+        int h = productId.hashCode();
+        h ^= (h >>> 16);
+        return h & (STRIPE_COUNT - 1);
+    }
+
+    // Sorted, distinct stripe indexes; locking in this order avoids deadlock
+    private static int[] stripesFor(Collection<String> productIds) {
+        TreeSet<Integer> ids = new TreeSet<>();
+        for (String productId : productIds) {
+            ids.add(stripeIndex(productId));
+        }
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private void lock(int[] stripeIds) {
+        for (int id : stripeIds) {
+            stripes[id].lock.lock();
+        }
+    }
+
+    private void unlock(int[] stripeIds) {
+        for (int i = stripeIds.length - 1; i >= 0; i--) {
+            stripes[stripeIds[i]].lock.unlock();
+        }
+    }
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<String, SkuState> skus = new HashMap<>();
+        long epoch;
+    }
+
+    private static final class SkuState {
+        int available;
+        // reserved_quantity of the row releases come out of, as of the last load or flush
+        int reserved;
+        int pending;
+        boolean touched = true;
+        boolean refresh;
+
+        SkuState(int available, int reserved) {
+            this.available = available;
+            this.reserved = reserved;
+        }
+    }
+}
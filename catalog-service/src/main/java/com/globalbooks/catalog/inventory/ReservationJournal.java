@@ -0,0 +1,202 @@
+package com.globalbooks.catalog.inventory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of reservation deltas, split into segment files that
+ * are rolled at each flush. A record is one line, "seq TAB productId TAB
+ * delta TAB crc32"; a torn or corrupt line (only possible for a record that
+ * was never acknowledged) is skipped on replay.
+ *
+ * Durability uses group commit: appends only write to the OS, and
+ * {@link #awaitDurable} forces the file once on behalf of every caller
+ * waiting at that moment.
+ */
+class ReservationJournal {
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final String prefix;
+    private final Object writeLock = new Object();
+    private final Object syncLock = new Object();
+
+    private volatile FileChannel current;
+    private long currentFirstSeq;
+    private final List<Path> closedSegments = new ArrayList<>();
+    private volatile long lastAppended;
+    private long durable;
+
+    ReservationJournal(Path directory, String ledgerId) throws IOException {
+        this.directory = directory;
+        this.prefix = "ledger-" + ledgerId + "-";
+        Files.createDirectories(directory);
+    }
+
+    // Segments written by a previous run, oldest first
+    List<Path> existingSegments() throws IOException {
+        Map<Long, Path> segments = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                String first = name.substring(prefix.length(), name.length() - SEGMENT_SUFFIX.length());
+                segments.put(Long.parseLong(first), path);
+            }
+        }
+        return new ArrayList<>(segments.values());
+    }
+
+    // Sums deltas per product over records after the given sequence; returns the highest sequence seen
+    static long replay(Path segment, long afterSeq, Map<String, Integer> deltas) throws IOException {
+        long maxSeq = afterSeq;
+        try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t");
+                if (fields.length != 4) {
+                    continue;
+                }
+                String body = fields[0] + "\t" + fields[1] + "\t" + fields[2];
+                try {
+                    if (crc(body) != Long.parseLong(fields[3])) {
+                        continue;
+                    }
+                    long seq = Long.parseLong(fields[0]);
+                    if (seq > afterSeq) {
+                        deltas.merge(fields[1], Integer.parseInt(fields[2]), Integer::sum);
+                        maxSeq = Math.max(maxSeq, seq);
+                    }
+                } catch (NumberFormatException e) {
+                    // Torn record
+                }
+            }
+        }
+        return maxSeq;
+    }
+
+    // Starts appending after lastSeq, the highest sequence already applied or replayed
+    void open(long lastSeq) throws IOException {
+        synchronized (syncLock) {
+            synchronized (writeLock) {
+                lastAppended = lastSeq;
+                durable = lastSeq;
+                current = openSegment(lastSeq + 1);
+            }
+        }
+    }
+
+    long lastSequence() {
+        return lastAppended;
+    }
+
+    /**
+     * Writes one record per delta as a single write and returns the sequence
+     * of the last one. Callers serialize appends per product themselves.
+     */
+    long append(Map<String, Integer> deltas) throws IOException {
+        synchronized (writeLock) {
+            long seq = lastAppended;
+            StringBuilder sb = new StringBuilder(deltas.size() * 48);
+            for (Map.Entry<String, Integer> entry : deltas.entrySet()) {
+                String body = (++seq) + "\t" + entry.getKey() + "\t" + entry.getValue();
+                sb.append(body).append('\t').append(crc(body)).append('\n');
+            }
+            ByteBuffer buffer = StandardCharsets.UTF_8.encode(sb.toString());
+            while (buffer.hasRemaining()) {
+                current.write(buffer);
+            }
+            lastAppended = seq;
+            return seq;
+        }
+    }
+
+    // Blocks until every record up to seq is on disk
+    void awaitDurable(long seq) throws IOException {
+        synchronized (syncLock) {
+            if (durable >= seq) {
+                return;
+            }
+            long target = lastAppended;
+            current.force(false);
+            durable = Math.max(durable, target);
+        }
+    }
+
+    /**
+     * Closes the current segment and starts a new one. Returns the last
+     * sequence in the closed segments; they can be deleted once a checkpoint
+     * at or beyond that sequence is committed. Callers must stop appends
+     * (the ledger holds all stripe locks) while rolling.
+     */
+    long roll() throws IOException {
+        synchronized (syncLock) {
+            synchronized (writeLock) {
+                if (lastAppended < currentFirstSeq) {
+                    // Nothing written since the last roll; keep the empty segment
+                    return lastAppended;
+                }
+                current.force(false);
+                current.close();
+                durable = lastAppended;
+                closedSegments.add(segmentPath(currentFirstSeq));
+                current = openSegment(lastAppended + 1);
+                return lastAppended;
+            }
+        }
+    }
+
+    void deleteClosedSegments() {
+        synchronized (writeLock) {
+            for (Path path : closedSegments) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    // Harmless: replay skips records at or below the checkpoint
+                }
+            }
+            closedSegments.clear();
+        }
+    }
+
+    void close() throws IOException {
+        synchronized (syncLock) {
+            synchronized (writeLock) {
+                if (current != null) {
+                    current.force(false);
+                    current.close();
+                    current = null;
+                }
+            }
+        }
+    }
+
+    private FileChannel openSegment(long firstSeq) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(firstSeq),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        currentFirstSeq = firstSeq;
+        return channel;
+    }
+
+    private Path segmentPath(long firstSeq) {
+        return directory.resolve(prefix + String.format("%019d", firstSeq) + SEGMENT_SUFFIX);
+    }
+
+    private static long crc(String body) {
+        CRC32 crc = new CRC32();
+        crc.update(body.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+}
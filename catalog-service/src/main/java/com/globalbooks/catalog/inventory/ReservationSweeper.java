@@ -0,0 +1,112 @@
+package com.globalbooks.catalog.inventory;
+
+import com.globalbooks.catalog.util.DatabaseConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Returns expired reservations to stock. Each batch deletes up to batchSize
+ * expired inventory_reservations rows and subtracts them from
+ * product_inventory.reserved_quantity in one statement. Rows are claimed with
+ * FOR UPDATE SKIP LOCKED, so every catalog node can run a sweeper and
+ * concurrent sweeps split the backlog instead of queueing on it.
+ */
+public class ReservationSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationSweeper.class);
+
+    // Inventory rows are locked in key order, as multi-line reservations lock them
+    private static final String SWEEP_SQL =
+            "WITH expired AS (DELETE FROM inventory_reservations WHERE reservation_id IN (" +
+            "SELECT reservation_id FROM inventory_reservations WHERE expires_at <= CURRENT_TIMESTAMP " +
+            "ORDER BY expires_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING product_id, warehouse_location, quantity), " +
+            "totals AS (SELECT product_id, warehouse_location, SUM(quantity) AS quantity FROM expired " +
+            "GROUP BY product_id, warehouse_location), " +
+            "locked AS MATERIALIZED (SELECT i.product_id, i.warehouse_location, t.quantity " +
+            "FROM product_inventory i JOIN totals t " +
+            "ON t.product_id = i.product_id AND t.warehouse_location = i.warehouse_location " +
+            "ORDER BY i.product_id, i.warehouse_location FOR UPDATE OF i), " +
+            "reclaimed AS (UPDATE product_inventory i " +
+            "SET reserved_quantity = GREATEST(0, i.reserved_quantity - l.quantity) FROM locked l " +
+            "WHERE i.product_id = l.product_id AND i.warehouse_location = l.warehouse_location " +
+            "RETURNING i.product_id) " +
+            "SELECT DISTINCT r.product_id, e.reservations FROM reclaimed r " +
+            "CROSS JOIN (SELECT COUNT(*) AS reservations FROM expired) e";
+
+    private final int batchSize;
+    private final Consumer<String> reclaimListener;
+    private ScheduledExecutorService scheduler;
+
+    public ReservationSweeper(int batchSize, Consumer<String> reclaimListener) {
+        this.batchSize = batchSize;
+        this.reclaimListener = reclaimListener;
+    }
+
+    public void start(long intervalMillis) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "catalog-reservation-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sweepQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        logger.info("Reservation sweeper started (every {} ms, batches of {})", intervalMillis, batchSize);
+    }
+
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Reclaims expired reservations batch by batch until a batch comes back
+     * short. Returns the number of reservations reclaimed.
+     */
+    public int sweep() throws SQLException {
+        int total = 0;
+        while (true) {
+            List<String> productIds = new ArrayList<>();
+            int reclaimed = 0;
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(SWEEP_SQL)) {
+                stmt.setInt(1, batchSize);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    productIds.add(rs.getString("product_id"));
+                    reclaimed = rs.getInt("reservations");
+                }
+            }
+
+            for (String productId : productIds) {
+                reclaimListener.accept(productId);
+            }
+            total += reclaimed;
+            if (reclaimed < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            logger.info("Reclaimed {} expired inventory reservations", total);
+        }
+        return total;
+    }
+
+    private void sweepQuietly() {
+        try {
+            sweep();
+        } catch (SQLException | RuntimeException e) {
+            logger.error("Reservation sweep failed; will retry", e);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.globalbooks.catalog.metrics;
+
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide registry for catalog database metrics. DAO proxies record
+ * per-operation latency and tag the current thread with the operation name,
+ * so statement timings and row counts recorded by the JDBC layer are
+ * attributed to the DAO method that issued them.
+ */
+public final class CatalogMetrics implements CatalogMetricsMXBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogMetrics.class);
+    private static final CatalogMetrics INSTANCE = new CatalogMetrics();
+    private static final ThreadLocal<String> currentOperation = new ThreadLocal<>();
+
+    public static final String OBJECT_NAME = "com.globalbooks.catalog:type=CatalogMetrics";
+    public static final String UNATTRIBUTED = "unattributed";
+
+    private final Map<String, LatencyHistogram> operationLatency = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> queryLatency = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> rowsReturned = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> poolAcquireLatency = new ConcurrentHashMap<>();
+    private final Map<String, HikariPoolMXBean> pools = new ConcurrentHashMap<>();
+    private final LongAdder slowQueries = new LongAdder();
+    private final Map<String, LongAdder> readRoutes = new ConcurrentHashMap<>();
+    private volatile long replicaLagMillis = -1;
+    private volatile boolean mbeanRegistered;
+
+    private CatalogMetrics() {}
+
+    public static CatalogMetrics get() {
+        return INSTANCE;
+    }
+
+    // Tags the calling thread; returns the previous tag for exitOperation
+    public static String enterOperation(String operation) {
+        String previous = currentOperation.get();
+        currentOperation.set(operation);
+        return previous;
+    }
+
+    public static void exitOperation(String previous) {
+        if (previous == null) {
+            currentOperation.remove();
+        } else {
+            currentOperation.set(previous);
+        }
+    }
+
+    public static String currentOperation() {
+        String operation = currentOperation.get();
+        return operation != null ? operation : UNATTRIBUTED;
+    }
+
+    public void recordOperation(String operation, long nanos) {
+        operationLatency.computeIfAbsent(operation, k -> new LatencyHistogram()).record(nanos);
+    }
+
+    public void recordQuery(String operation, long nanos) {
+        queryLatency.computeIfAbsent(operation, k -> new LatencyHistogram()).record(nanos);
+    }
+
+    public void recordRows(String operation, long rows) {
+        rowCounter(operation).add(rows);
+    }
+
+    public LongAdder rowCounter(String operation) {
+        return rowsReturned.computeIfAbsent(operation, k -> new LongAdder());
+    }
+
+    public void recordPoolAcquire(String pool, long nanos) {
+        poolAcquireLatency.computeIfAbsent(pool, k -> new LatencyHistogram()).record(nanos);
+    }
+
+    public void recordSlowQuery() {
+        slowQueries.increment();
+    }
+
+    public void recordReadRoute(String pool) {
+        readRoutes.computeIfAbsent(pool, k -> new LongAdder()).increment();
+    }
+
+    public void recordReplicaLag(long lagMillis) {
+        replicaLagMillis = lagMillis;
+    }
+
+    public void registerPool(String name, HikariPoolMXBean pool) {
+        pools.put(name, pool);
+    }
+
+    public synchronized void registerMBean() {
+        if (mbeanRegistered) {
+            return;
+        }
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            }
+            mbeanRegistered = true;
+        } catch (Exception e) {
+            logger.warn("Could not register catalog metrics MBean", e);
+        }
+    }
+
+    // Live histograms for exporters that need bucket counts
+    public Map<String, LatencyHistogram> operationHistograms() {
+        return Collections.unmodifiableMap(operationLatency);
+    }
+
+    public Map<String, LatencyHistogram> queryHistograms() {
+        return Collections.unmodifiableMap(queryLatency);
+    }
+
+    public Map<String, LatencyHistogram> poolAcquireHistograms() {
+        return Collections.unmodifiableMap(poolAcquireLatency);
+    }
+
+    @Override
+    public Map<String, HistogramSnapshot> getOperationLatency() {
+        return snapshot(operationLatency);
+    }
+
+    @Override
+    public Map<String, HistogramSnapshot> getQueryLatency() {
+        return snapshot(queryLatency);
+    }
+
+    @Override
+    public Map<String, Long> getRowsReturned() {
+        Map<String, Long> rows = new TreeMap<>();
+        rowsReturned.forEach((operation, adder) -> rows.put(operation, adder.sum()));
+        return rows;
+    }
+
+    @Override
+    public Map<String, HistogramSnapshot> getPoolAcquireLatency() {
+        return snapshot(poolAcquireLatency);
+    }
+
+    @Override
+    public Map<String, PoolStats> getPools() {
+        Map<String, PoolStats> stats = new TreeMap<>();
+        pools.forEach((name, pool) -> stats.put(name, new PoolStats(pool.getActiveConnections(),
+                pool.getIdleConnections(), pool.getThreadsAwaitingConnection(), pool.getTotalConnections())));
+        return stats;
+    }
+
+    @Override
+    public long getSlowQueryCount() {
+        return slowQueries.sum();
+    }
+
+    @Override
+    public Map<String, Long> getReadRoutes() {
+        Map<String, Long> routes = new TreeMap<>();
+        readRoutes.forEach((pool, adder) -> routes.put(pool, adder.sum()));
+        return routes;
+    }
+
+    @Override
+    public long getReplicaLagMillis() {
+        return replicaLagMillis;
+    }
+
+    private static Map<String, HistogramSnapshot> snapshot(Map<String, LatencyHistogram> histograms) {
+        Map<String, HistogramSnapshot> snapshots = new TreeMap<>();
+        histograms.forEach((name, histogram) -> snapshots.put(name, histogram.snapshot()));
+        return snapshots;
+    }
+}
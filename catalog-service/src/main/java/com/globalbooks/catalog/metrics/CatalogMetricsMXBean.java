@@ -0,0 +1,27 @@
+package com.globalbooks.catalog.metrics;
+
+import java.util.Map;
+
+public interface CatalogMetricsMXBean {
+
+    // Wall time of each DAO method, keyed by operation
+    Map<String, HistogramSnapshot> getOperationLatency();
+
+    // Statement execution time, keyed by the DAO operation that issued it
+    Map<String, HistogramSnapshot> getQueryLatency();
+
+    Map<String, Long> getRowsReturned();
+
+    // Time spent waiting for a pooled connection, keyed by pool
+    Map<String, HistogramSnapshot> getPoolAcquireLatency();
+
+    Map<String, PoolStats> getPools();
+
+    long getSlowQueryCount();
+
+    // Read connections handed out, keyed by the pool that served them
+    Map<String, Long> getReadRoutes();
+
+    // Last measured replica replay lag; -1 if unknown or no replica is configured
+    long getReplicaLagMillis();
+}
@@ -0,0 +1,43 @@
+package com.globalbooks.catalog.metrics;
+
+import java.beans.ConstructorProperties;
+
+// Point-in-time view of a LatencyHistogram; exposed over JMX as CompositeData
+public class HistogramSnapshot {
+
+    private final long count;
+    private final double totalMillis;
+    private final double maxMillis;
+    private final double p50Millis;
+    private final double p95Millis;
+    private final double p99Millis;
+
+    @ConstructorProperties({"count", "totalMillis", "maxMillis", "p50Millis", "p95Millis", "p99Millis"})
+    public HistogramSnapshot(long count, double totalMillis, double maxMillis,
+                             double p50Millis, double p95Millis, double p99Millis) {
+        this.count = count;
+        this.totalMillis = totalMillis;
+        this.maxMillis = maxMillis;
+        this.p50Millis = p50Millis;
+        this.p95Millis = p95Millis;
+        this.p99Millis = p99Millis;
+    }
+
+    public long getCount() { return count; }
+
+    public double getTotalMillis() { return totalMillis; }
+
+    public double getMaxMillis() { return maxMillis; }
+
+    public double getP50Millis() { return p50Millis; }
+
+    public double getP95Millis() { return p95Millis; }
+
+    public double getP99Millis() { return p99Millis; }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, p50=%.2fms, p95=%.2fms, p99=%.2fms, max=%.2fms",
+                count, p50Millis, p95Millis, p99Millis, maxMillis);
+    }
+}
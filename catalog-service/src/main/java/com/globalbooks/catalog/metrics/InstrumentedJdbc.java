@@ -0,0 +1,163 @@
+package com.globalbooks.catalog.metrics;
+
+import com.globalbooks.catalog.config.CatalogConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JDBC proxies that time statement execution, count rows read and log slow
+ * statements together with their bind parameters. Everything else is passed
+ * straight through, including unwrap() to the driver connection.
+ */
+public final class InstrumentedJdbc {
+
+    private static final Logger slowQueryLog = LoggerFactory.getLogger("com.globalbooks.catalog.SlowQuery");
+    private static final long SLOW_QUERY_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(CatalogConfig.SLOW_QUERY_THRESHOLD_MILLIS);
+    private static final int MAX_BIND_LENGTH = 100;
+
+    private InstrumentedJdbc() {}
+
+    public static Connection wrap(Connection connection) {
+        return proxy(Connection.class, new ConnectionHandler(connection));
+    }
+
+    private static <T> T proxy(Class<T> iface, InvocationHandler handler) {
+        return iface.cast(Proxy.newProxyInstance(InstrumentedJdbc.class.getClassLoader(),
+                new Class<?>[]{iface}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "prepareStatement":
+                case "prepareCall":
+                case "createStatement":
+                    Object statement = InstrumentedJdbc.invoke(target, method, args);
+                    String sql = method.getName().equals("createStatement") ? null : (String) args[0];
+                    return proxy(method.getReturnType().asSubclass(Statement.class),
+                            new StatementHandler((Statement) statement, sql));
+                default:
+                    return InstrumentedJdbc.invoke(target, method, args);
+            }
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String sql;
+        private final Map<Integer, Object> binds = new TreeMap<>();
+        private int batchSize;
+
+        StatementHandler(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                binds.put((Integer) args[0], name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                binds.clear();
+            } else if (name.equals("addBatch")) {
+                batchSize++;
+            } else if (name.equals("clearBatch")) {
+                batchSize = 0;
+            } else if (name.startsWith("execute")) {
+                return execute(method, args);
+            } else if (name.equals("getResultSet")) {
+                return wrapResultSet((ResultSet) InstrumentedJdbc.invoke(target, method, args),
+                        CatalogMetrics.currentOperation());
+            } else if (name.equals("equals")) {
+                return proxy == args[0];
+            } else if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            return InstrumentedJdbc.invoke(target, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            String operation = CatalogMetrics.currentOperation();
+            long start = System.nanoTime();
+            try {
+                Object result = InstrumentedJdbc.invoke(target, method, args);
+                return result instanceof ResultSet ? wrapResultSet((ResultSet) result, operation) : result;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                CatalogMetrics.get().recordQuery(operation, elapsed);
+                if (elapsed >= SLOW_QUERY_NANOS) {
+                    CatalogMetrics.get().recordSlowQuery();
+                    String statementSql = sql != null ? sql : (args != null && args.length > 0 ? String.valueOf(args[0]) : "?");
+                    slowQueryLog.warn("Slow query in {} took {} ms{}: {} binds={}", operation,
+                            TimeUnit.NANOSECONDS.toMillis(elapsed),
+                            method.getName().equals("executeBatch") ? " (batch of " + batchSize + ")" : "",
+                            statementSql, formatBinds());
+                }
+                if (method.getName().equals("executeBatch")) {
+                    batchSize = 0;
+                }
+            }
+        }
+
+        private String formatBinds() {
+            StringBuilder sb = new StringBuilder("[");
+            for (Map.Entry<Integer, Object> entry : binds.entrySet()) {
+                if (sb.length() > 1) {
+                    sb.append(", ");
+                }
+                String value = String.valueOf(entry.getValue());
+                if (value.length() > MAX_BIND_LENGTH) {
+                    value = value.substring(0, MAX_BIND_LENGTH) + "...";
+                }
+                sb.append(entry.getKey()).append('=').append(value);
+            }
+            return sb.append(']').toString();
+        }
+    }
+
+    private static ResultSet wrapResultSet(ResultSet resultSet, String operation) {
+        if (resultSet == null) {
+            return null;
+        }
+        LongAdder rows = CatalogMetrics.get().rowCounter(operation);
+        return proxy(ResultSet.class, (proxy, method, args) -> {
+            Object result = invoke(resultSet, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                rows.increment();
+            }
+            return result;
+        });
+    }
+}
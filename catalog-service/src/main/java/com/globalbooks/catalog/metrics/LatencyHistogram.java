@@ -0,0 +1,87 @@
+package com.globalbooks.catalog.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram over fixed bucket bounds from 50us to 10s.
+ * Recording is a bucket search plus a few LongAdder increments, cheap enough
+ * to sit on every JDBC call.
+ */
+public class LatencyHistogram {
+
+    // Upper bounds in microseconds; the last bucket is +Inf
+    static final long[] BOUNDS_MICROS = {
+            50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000,
+            100_000, 250_000, 500_000, 1_000_000, 2_500_000, 5_000_000, 10_000_000
+    };
+
+    private final LongAdder[] buckets = new LongAdder[BOUNDS_MICROS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        int i = 0;
+        while (i < BOUNDS_MICROS.length && micros > BOUNDS_MICROS[i]) {
+            i++;
+        }
+        buckets[i].increment();
+        count.increment();
+        sumNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    public long getCount() { return count.sum(); }
+
+    public long getSumNanos() { return sumNanos.sum(); }
+
+    public long getMaxNanos() { return maxNanos.get(); }
+
+    // Per-bucket (non-cumulative) counts, one longer than BOUNDS_MICROS
+    public long[] getBucketCounts() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    public HistogramSnapshot snapshot() {
+        long[] counts = getBucketCounts();
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        long max = getMaxNanos();
+        return new HistogramSnapshot(total, getSumNanos() / 1e6, max / 1e6,
+                percentileMillis(counts, total, 0.50, max),
+                percentileMillis(counts, total, 0.95, max),
+                percentileMillis(counts, total, 0.99, max));
+    }
+
+    // Upper bound of the bucket holding the requested rank, capped at the observed max
+    private static double percentileMillis(long[] counts, long total, double p, long maxNanos) {
+        if (total == 0) {
+            return 0.0;
+        }
+        long rank = (long) Math.ceil(p * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                double bound = i < BOUNDS_MICROS.length ? BOUNDS_MICROS[i] / 1e3 : Double.MAX_VALUE;
+                return Math.min(bound, maxNanos / 1e6);
+            }
+        }
+        return maxNanos / 1e6;
+    }
+}
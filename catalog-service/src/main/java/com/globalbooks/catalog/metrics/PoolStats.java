@@ -0,0 +1,28 @@
+package com.globalbooks.catalog.metrics;
+
+import java.beans.ConstructorProperties;
+
+// Connection counts of one pool at a point in time
+public class PoolStats {
+
+    private final int active;
+    private final int idle;
+    private final int pending;
+    private final int total;
+
+    @ConstructorProperties({"active", "idle", "pending", "total"})
+    public PoolStats(int active, int idle, int pending, int total) {
+        this.active = active;
+        this.idle = idle;
+        this.pending = pending;
+        this.total = total;
+    }
+
+    public int getActive() { return active; }
+
+    public int getIdle() { return idle; }
+
+    public int getPending() { return pending; }
+
+    public int getTotal() { return total; }
+}
@@ -0,0 +1,52 @@
+package com.globalbooks.catalog.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Wraps an interface implementation so every call is timed into
+ * {@link CatalogMetrics} under "Interface.method", with the thread tagged
+ * for the duration so JDBC activity is attributed to that operation.
+ */
+public final class TimingProxy implements InvocationHandler {
+
+    private final Object target;
+    private final Map<Method, String> operationNames = new HashMap<>();
+
+    private TimingProxy(Class<?> iface, Object target) {
+        this.target = target;
+        for (Method method : iface.getMethods()) {
+            operationNames.put(method, iface.getSimpleName() + "." + method.getName());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> T wrap(Class<T> iface, T target) {
+        return (T) Proxy.newProxyInstance(iface.getClassLoader(), new Class<?>[]{iface},
+                new TimingProxy(iface, target));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String operation = operationNames.get(method);
+        if (operation == null) {
+            // equals, hashCode, toString
+            return method.invoke(target, args);
+        }
+
+        String previous = CatalogMetrics.enterOperation(operation);
+        long start = System.nanoTime();
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        } finally {
+            CatalogMetrics.get().recordOperation(operation, System.nanoTime() - start);
+            CatalogMetrics.exitOperation(previous);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.globalbooks.catalog.model;
+
+import javax.xml.bind.annotation.*;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+@XmlRootElement(name = "CartQuote")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class CartQuote {
+
+    // One per requested item, in request order
+    @XmlElement(name = "line")
+    private List<PriceQuoteResult> lines = new ArrayList<>();
+
+    // Totals cover the lines that were found
+    @XmlElement(required = true)
+    private BigDecimal subtotal;
+
+    @XmlElement(required = true)
+    private BigDecimal discount;
+
+    @XmlElement(required = true)
+    private BigDecimal tax;
+
+    @XmlElement(required = true)
+    private BigDecimal total;
+
+    // Absent when no line was found
+    @XmlElement
+    private String currency;
+
+    // Earliest validUntil of the lines
+    @XmlElement
+    @XmlSchemaType(name = "dateTime")
+    private Date validUntil;
+
+    // Default constructor
+    public CartQuote() {}
+
+    // Getters and Setters
+    public List<PriceQuoteResult> getLines() { return lines; }
+    public void setLines(List<PriceQuoteResult> lines) { this.lines = lines; }
+
+    public BigDecimal getSubtotal() { return subtotal; }
+    public void setSubtotal(BigDecimal subtotal) { this.subtotal = subtotal; }
+
+    public BigDecimal getDiscount() { return discount; }
+    public void setDiscount(BigDecimal discount) { this.discount = discount; }
+
+    public BigDecimal getTax() { return tax; }
+    public void setTax(BigDecimal tax) { this.tax = tax; }
+
+    public BigDecimal getTotal() { return total; }
+    public void setTotal(BigDecimal total) { this.total = total; }
+
+    public String getCurrency() { return currency; }
+    public void setCurrency(String currency) { this.currency = currency; }
+
+    public Date getValidUntil() { return validUntil; }
+    public void setValidUntil(Date validUntil) { this.validUntil = validUntil; }
+}
@@ -0,0 +1,29 @@
+package com.globalbooks.catalog.model;
+
+import javax.xml.bind.annotation.*;
+
+@XmlRootElement(name = "FacetCount")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class FacetCount {
+
+    @XmlElement(required = true)
+    private String value;
+
+    @XmlElement(required = true)
+    private long count;
+
+    // Default constructor
+    public FacetCount() {}
+
+    public FacetCount(String value, long count) {
+        this.value = value;
+        this.count = count;
+    }
+
+    // Getters and Setters
+    public String getValue() { return value; }
+    public void setValue(String value) { this.value = value; }
+
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+}
@@ -0,0 +1,31 @@
+package com.globalbooks.catalog.model;
+
+import javax.xml.bind.annotation.*;
+import java.util.ArrayList;
+import java.util.List;
+
+@XmlRootElement(name = "FacetedSearchResult")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class FacetedSearchResult {
+
+    @XmlElement(name = "product")
+    private List<Product> products = new ArrayList<>();
+
+    @XmlElement(required = true)
+    private SearchFacets facets;
+
+    // Default constructor
+    public FacetedSearchResult() {}
+
+    public FacetedSearchResult(List<Product> products, SearchFacets facets) {
+        this.products = products;
+        this.facets = facets;
+    }
+
+    // Getters and Setters
+    public List<Product> getProducts() { return products; }
+    public void setProducts(List<Product> products) { this.products = products; }
+
+    public SearchFacets getFacets() { return facets; }
+    public void setFacets(SearchFacets facets) { this.facets = facets; }
+}
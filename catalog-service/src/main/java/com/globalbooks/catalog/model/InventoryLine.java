@@ -0,0 +1,29 @@
+package com.globalbooks.catalog.model;
+
+import javax.xml.bind.annotation.*;
+
+@XmlRootElement(name = "InventoryLine")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class InventoryLine {
+
+    @XmlElement(required = true)
+    private String productId;
+
+    @XmlElement(required = true)
+    private int quantity;
+
+    // Default constructor
+    public InventoryLine() {}
+
+    public InventoryLine(String productId, int quantity) {
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+
+    // Getters and Setters
+    public String getProductId() { return productId; }
+    public void setProductId(String productId) { this.productId = productId; }
+
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+}
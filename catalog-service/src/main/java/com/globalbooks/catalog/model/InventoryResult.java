@@ -0,0 +1,37 @@
+package com.globalbooks.catalog.model;
+
+import javax.xml.bind.annotation.*;
+
+@XmlRootElement(name = "InventoryResult")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class InventoryResult {
+
+    @XmlElement(required = true)
+    private String productId;
+
+    @XmlElement(required = true)
+    private boolean found;
+
+    // Absent when not found
+    @XmlElement
+    private InventoryStatus inventoryStatus;
+
+    // Default constructor
+    public InventoryResult() {}
+
+    public InventoryResult(String productId, InventoryStatus inventoryStatus) {
+        this.productId = productId;
+        this.inventoryStatus = inventoryStatus;
+        this.found = inventoryStatus != null;
+    }
+
+    // Getters and Setters
+    public String getProductId() { return productId; }
+    public void setProductId(String productId) { this.productId = productId; }
+
+    public boolean isFound() { return found; }
+    public void setFound(boolean found) { this.found = found; }
+
+    public InventoryStatus getInventoryStatus() { return inventoryStatus; }
+    public void setInventoryStatus(InventoryStatus inventoryStatus) { this.inventoryStatus = inventoryStatus; }
+}
@@ -39,36 +39,6 @@ public class PriceQuote {
     // Default constructor
     public PriceQuote() {}
 
-    // Calculation constructor
-    public PriceQuote(String productId, BigDecimal unitPrice, int quantity) {
-        this.productId = productId;
-        this.unitPrice = unitPrice;
-        this.quantity = quantity;
-        calculateTotals();
-    }
-
-    private void calculateTotals() {
-        this.subtotal = unitPrice.multiply(BigDecimal.valueOf(quantity));
-
-        // Apply discount for bulk orders
-        if (quantity >= 100) {
-            this.discount = subtotal.multiply(BigDecimal.valueOf(0.15)); // 15% discount
-        } else if (quantity >= 50) {
-            this.discount = subtotal.multiply(BigDecimal.valueOf(0.10)); // 10% discount
-        } else if (quantity >= 10) {
-            this.discount = subtotal.multiply(BigDecimal.valueOf(0.05)); // 5% discount
-        } else {
-            this.discount = BigDecimal.ZERO;
-        }
-
-        BigDecimal afterDiscount = subtotal.subtract(discount);
-        this.tax = afterDiscount.multiply(BigDecimal.valueOf(0.08)); // 8% tax
-        this.total = afterDiscount.add(tax);
-
-        // Quote valid for 7 days
-        this.validUntil = new Date(System.currentTimeMillis() + (7 * 24 * 60 * 60 * 1000));
-    }
-
     // Getters and Setters
     public String getProductId() { return productId; }
     public void setProductId(String productId) { this.productId = productId; }
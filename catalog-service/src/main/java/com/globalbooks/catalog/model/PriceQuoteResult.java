@@ -0,0 +1,37 @@
+package com.globalbooks.catalog.model;
+
+import javax.xml.bind.annotation.*;
+
+@XmlRootElement(name = "PriceQuoteResult")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class PriceQuoteResult {
+
+    @XmlElement(required = true)
+    private String productId;
+
+    @XmlElement(required = true)
+    private boolean found;
+
+    // Absent when not found
+    @XmlElement
+    private PriceQuote priceQuote;
+
+    // Default constructor
+    public PriceQuoteResult() {}
+
+    public PriceQuoteResult(String productId, PriceQuote priceQuote) {
+        this.productId = productId;
+        this.priceQuote = priceQuote;
+        this.found = priceQuote != null;
+    }
+
+    // Getters and Setters
+    public String getProductId() { return productId; }
+    public void setProductId(String productId) { this.productId = productId; }
+
+    public boolean isFound() { return found; }
+    public void setFound(boolean found) { this.found = found; }
+
+    public PriceQuote getPriceQuote() { return priceQuote; }
+    public void setPriceQuote(PriceQuote priceQuote) { this.priceQuote = priceQuote; }
+}
@@ -0,0 +1,38 @@
+package com.globalbooks.catalog.model;
+
+import javax.xml.bind.annotation.*;
+import java.math.BigDecimal;
+
+// Products priced at least minPrice and below maxPrice; either bound is absent on the open-ended ranges
+@XmlRootElement(name = "PriceRangeCount")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class PriceRangeCount {
+
+    @XmlElement
+    private BigDecimal minPrice;
+
+    @XmlElement
+    private BigDecimal maxPrice;
+
+    @XmlElement(required = true)
+    private long count;
+
+    // Default constructor
+    public PriceRangeCount() {}
+
+    public PriceRangeCount(BigDecimal minPrice, BigDecimal maxPrice, long count) {
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.count = count;
+    }
+
+    // Getters and Setters
+    public BigDecimal getMinPrice() { return minPrice; }
+    public void setMinPrice(BigDecimal minPrice) { this.minPrice = minPrice; }
+
+    public BigDecimal getMaxPrice() { return maxPrice; }
+    public void setMaxPrice(BigDecimal maxPrice) { this.maxPrice = maxPrice; }
+
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+}
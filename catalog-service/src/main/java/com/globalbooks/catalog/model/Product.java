@@ -59,6 +59,21 @@ public class Product {
         this.stockQuantity = stockQuantity;
     }
 
+    // Copy constructor
+    public Product(Product other) {
+        this.productId = other.productId;
+        this.title = other.title;
+        this.author = other.author;
+        this.isbn = other.isbn;
+        this.description = other.description;
+        this.category = other.category;
+        this.price = other.price;
+        this.currency = other.currency;
+        this.stockQuantity = other.stockQuantity;
+        this.publishDate = other.publishDate == null ? null : new Date(other.publishDate.getTime());
+        this.imageUrl = other.imageUrl;
+    }
+
     // Getters and Setters
     public String getProductId() { return productId; }
     public void setProductId(String productId) { this.productId = productId; }
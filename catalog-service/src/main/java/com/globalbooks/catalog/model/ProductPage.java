@@ -0,0 +1,32 @@
+package com.globalbooks.catalog.model;
+
+import javax.xml.bind.annotation.*;
+import java.util.ArrayList;
+import java.util.List;
+
+@XmlRootElement(name = "ProductPage")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class ProductPage {
+
+    @XmlElement(name = "product")
+    private List<Product> products = new ArrayList<>();
+
+    // Absent on the last page
+    @XmlElement
+    private String nextPageToken;
+
+    // Default constructor
+    public ProductPage() {}
+
+    public ProductPage(List<Product> products, String nextPageToken) {
+        this.products = products;
+        this.nextPageToken = nextPageToken;
+    }
+
+    // Getters and Setters
+    public List<Product> getProducts() { return products; }
+    public void setProducts(List<Product> products) { this.products = products; }
+
+    public String getNextPageToken() { return nextPageToken; }
+    public void setNextPageToken(String nextPageToken) { this.nextPageToken = nextPageToken; }
+}
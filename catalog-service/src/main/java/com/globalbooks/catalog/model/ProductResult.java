@@ -0,0 +1,37 @@
+package com.globalbooks.catalog.model;
+
+import javax.xml.bind.annotation.*;
+
+@XmlRootElement(name = "ProductResult")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class ProductResult {
+
+    @XmlElement(required = true)
+    private String productId;
+
+    @XmlElement(required = true)
+    private boolean found;
+
+    // Absent when not found
+    @XmlElement
+    private Product product;
+
+    // Default constructor
+    public ProductResult() {}
+
+    public ProductResult(String productId, Product product) {
+        this.productId = productId;
+        this.product = product;
+        this.found = product != null;
+    }
+
+    // Getters and Setters
+    public String getProductId() { return productId; }
+    public void setProductId(String productId) { this.productId = productId; }
+
+    public boolean isFound() { return found; }
+    public void setFound(boolean found) { this.found = found; }
+
+    public Product getProduct() { return product; }
+    public void setProduct(Product product) { this.product = product; }
+}
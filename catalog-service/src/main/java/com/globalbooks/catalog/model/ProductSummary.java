@@ -0,0 +1,61 @@
+package com.globalbooks.catalog.model;
+
+import javax.xml.bind.annotation.*;
+import java.math.BigDecimal;
+
+// Listing projection of Product: no description, image or inventory detail
+@XmlRootElement(name = "ProductSummary")
+@XmlType(propOrder = {"productId", "title", "author", "price", "currency", "inStock"})
+@XmlAccessorType(XmlAccessType.FIELD)
+public class ProductSummary {
+
+    @XmlElement(required = true)
+    private String productId;
+
+    @XmlElement(required = true)
+    private String title;
+
+    @XmlElement(required = true)
+    private String author;
+
+    @XmlElement(required = true)
+    private BigDecimal price;
+
+    @XmlElement(defaultValue = "USD")
+    private String currency = "USD";
+
+    @XmlElement(required = true)
+    private boolean inStock;
+
+    // Default constructor
+    public ProductSummary() {}
+
+    // Projection of a fully loaded product
+    public ProductSummary(Product product) {
+        this.productId = product.getProductId();
+        this.title = product.getTitle();
+        this.author = product.getAuthor();
+        this.price = product.getPrice();
+        this.currency = product.getCurrency();
+        this.inStock = product.getStockQuantity() > 0;
+    }
+
+    // Getters and Setters
+    public String getProductId() { return productId; }
+    public void setProductId(String productId) { this.productId = productId; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getAuthor() { return author; }
+    public void setAuthor(String author) { this.author = author; }
+
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+
+    public String getCurrency() { return currency; }
+    public void setCurrency(String currency) { this.currency = currency; }
+
+    public boolean isInStock() { return inStock; }
+    public void setInStock(boolean inStock) { this.inStock = inStock; }
+}
@@ -0,0 +1,51 @@
+package com.globalbooks.catalog.model;
+
+import javax.xml.bind.annotation.*;
+
+@XmlRootElement(name = "ReservationLineResult")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class ReservationLineResult {
+
+    @XmlElement(required = true)
+    private String productId;
+
+    @XmlElement(required = true)
+    private int quantity;
+
+    @XmlElement(required = true)
+    private ReservationStatus status;
+
+    // Unreserved stock at the time of the attempt; reported for failed lines
+    @XmlElement
+    private Integer availableQuantity;
+
+    // Settles this line with settleReservation; absent when the line was not reserved, or was
+    // admitted by the write-behind ledger, whose reservations carry no record and do not expire
+    @XmlElement
+    private Long reservationId;
+
+    // Default constructor
+    public ReservationLineResult() {}
+
+    public ReservationLineResult(String productId, int quantity, ReservationStatus status) {
+        this.productId = productId;
+        this.quantity = quantity;
+        this.status = status;
+    }
+
+    // Getters and Setters
+    public String getProductId() { return productId; }
+    public void setProductId(String productId) { this.productId = productId; }
+
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+
+    public ReservationStatus getStatus() { return status; }
+    public void setStatus(ReservationStatus status) { this.status = status; }
+
+    public Integer getAvailableQuantity() { return availableQuantity; }
+    public void setAvailableQuantity(Integer availableQuantity) { this.availableQuantity = availableQuantity; }
+
+    public Long getReservationId() { return reservationId; }
+    public void setReservationId(Long reservationId) { this.reservationId = reservationId; }
+}
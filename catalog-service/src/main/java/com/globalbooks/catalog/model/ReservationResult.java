@@ -0,0 +1,32 @@
+package com.globalbooks.catalog.model;
+
+import javax.xml.bind.annotation.*;
+import java.util.ArrayList;
+import java.util.List;
+
+@XmlRootElement(name = "ReservationResult")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class ReservationResult {
+
+    // True only if every line was reserved; otherwise nothing was reserved
+    @XmlElement(required = true)
+    private boolean success;
+
+    @XmlElement(name = "line")
+    private List<ReservationLineResult> lines = new ArrayList<>();
+
+    // Default constructor
+    public ReservationResult() {}
+
+    public ReservationResult(boolean success, List<ReservationLineResult> lines) {
+        this.success = success;
+        this.lines = lines;
+    }
+
+    // Getters and Setters
+    public boolean isSuccess() { return success; }
+    public void setSuccess(boolean success) { this.success = success; }
+
+    public List<ReservationLineResult> getLines() { return lines; }
+    public void setLines(List<ReservationLineResult> lines) { this.lines = lines; }
+}
@@ -0,0 +1,17 @@
+package com.globalbooks.catalog.model;
+
+import javax.xml.bind.annotation.XmlEnum;
+import javax.xml.bind.annotation.XmlType;
+
+@XmlType(name = "ReservationStatus")
+@XmlEnum
+public enum ReservationStatus {
+    // Line reserved and committed
+    RESERVED,
+    // Not enough unreserved stock for this line
+    INSUFFICIENT_STOCK,
+    // No such product
+    NOT_FOUND,
+    // Line was reservable but another line failed, so nothing was committed
+    ROLLED_BACK
+}
@@ -28,6 +28,17 @@ public class SearchCriteria {
     @XmlElement(defaultValue = "100")
     private int maxResults = 100;
 
+    @XmlElement(defaultValue = "LIKE")
+    private SearchMode searchMode = SearchMode.LIKE;
+
+    // Continuation token from a previous ProductPage; paged searches only
+    @XmlElement
+    private String pageToken;
+
+    // FUZZY mode only: how close (0 to 1) a keyword must be to a word run in the title or author
+    @XmlElement
+    private Double minSimilarity;
+
     // Default constructor
     public SearchCriteria() {}
 
@@ -52,4 +63,13 @@ public class SearchCriteria {
 
     public int getMaxResults() { return maxResults; }
     public void setMaxResults(int maxResults) { this.maxResults = maxResults; }
+
+    public SearchMode getSearchMode() { return searchMode; }
+    public void setSearchMode(SearchMode searchMode) { this.searchMode = searchMode; }
+
+    public String getPageToken() { return pageToken; }
+    public void setPageToken(String pageToken) { this.pageToken = pageToken; }
+
+    public Double getMinSimilarity() { return minSimilarity; }
+    public void setMinSimilarity(Double minSimilarity) { this.minSimilarity = minSimilarity; }
 }
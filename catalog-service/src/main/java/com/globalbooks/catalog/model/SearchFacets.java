@@ -0,0 +1,43 @@
+package com.globalbooks.catalog.model;
+
+import javax.xml.bind.annotation.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts over every product matching a search, not just the returned page.
+ * Categories and authors are ordered by count and capped at the configured
+ * number of values; price ranges are in ascending order, empty ones omitted.
+ */
+@XmlRootElement(name = "SearchFacets")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class SearchFacets {
+
+    @XmlElement(required = true)
+    private long totalMatches;
+
+    @XmlElement(name = "category")
+    private List<FacetCount> categories = new ArrayList<>();
+
+    @XmlElement(name = "author")
+    private List<FacetCount> authors = new ArrayList<>();
+
+    @XmlElement(name = "priceRange")
+    private List<PriceRangeCount> priceRanges = new ArrayList<>();
+
+    // Default constructor
+    public SearchFacets() {}
+
+    // Getters and Setters
+    public long getTotalMatches() { return totalMatches; }
+    public void setTotalMatches(long totalMatches) { this.totalMatches = totalMatches; }
+
+    public List<FacetCount> getCategories() { return categories; }
+    public void setCategories(List<FacetCount> categories) { this.categories = categories; }
+
+    public List<FacetCount> getAuthors() { return authors; }
+    public void setAuthors(List<FacetCount> authors) { this.authors = authors; }
+
+    public List<PriceRangeCount> getPriceRanges() { return priceRanges; }
+    public void setPriceRanges(List<PriceRangeCount> priceRanges) { this.priceRanges = priceRanges; }
+}
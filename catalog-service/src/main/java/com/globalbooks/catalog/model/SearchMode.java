@@ -0,0 +1,17 @@
+package com.globalbooks.catalog.model;
+
+import javax.xml.bind.annotation.XmlEnum;
+import javax.xml.bind.annotation.XmlType;
+
+@XmlType(name = "SearchMode")
+@XmlEnum
+public enum SearchMode {
+    // Substring match on title/description, ordered by title
+    LIKE,
+    // PostgreSQL full-text match on title/author/description, ordered by relevance
+    FULL_TEXT,
+    // In-memory inverted index and filter bitmaps; relevance order with a keyword, title order without
+    INDEXED,
+    // Trigram word similarity on title/author (pg_trgm), tolerant of misspellings; ordered by similarity
+    FUZZY
+}
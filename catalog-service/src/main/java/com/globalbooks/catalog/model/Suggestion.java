@@ -0,0 +1,45 @@
+package com.globalbooks.catalog.model;
+
+import javax.xml.bind.annotation.*;
+
+@XmlRootElement(name = "Suggestion")
+@XmlType(propOrder = {"text", "type", "productId", "score"})
+@XmlAccessorType(XmlAccessType.FIELD)
+public class Suggestion {
+
+    @XmlElement(required = true)
+    private String text;
+
+    @XmlElement(required = true)
+    private SuggestionType type;
+
+    @XmlElement
+    private String productId;
+
+    // Popularity weight the suggestions are ranked by; only meaningful relative to each other
+    @XmlElement(required = true)
+    private long score;
+
+    // Default constructor
+    public Suggestion() {}
+
+    public Suggestion(String text, SuggestionType type, String productId, long score) {
+        this.text = text;
+        this.type = type;
+        this.productId = productId;
+        this.score = score;
+    }
+
+    // Getters and Setters
+    public String getText() { return text; }
+    public void setText(String text) { this.text = text; }
+
+    public SuggestionType getType() { return type; }
+    public void setType(SuggestionType type) { this.type = type; }
+
+    public String getProductId() { return productId; }
+    public void setProductId(String productId) { this.productId = productId; }
+
+    public long getScore() { return score; }
+    public void setScore(long score) { this.score = score; }
+}
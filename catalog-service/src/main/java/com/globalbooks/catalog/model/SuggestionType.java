@@ -0,0 +1,15 @@
+package com.globalbooks.catalog.model;
+
+import javax.xml.bind.annotation.XmlEnum;
+import javax.xml.bind.annotation.XmlType;
+
+@XmlType(name = "SuggestionType")
+@XmlEnum
+public enum SuggestionType {
+    // A product's title; productId identifies the book
+    TITLE,
+    // An author; stands for all of their products, so productId is absent
+    AUTHOR,
+    // A product's ISBN, matched with or without hyphens
+    ISBN
+}
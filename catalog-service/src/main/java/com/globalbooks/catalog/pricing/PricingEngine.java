@@ -0,0 +1,280 @@
+package com.globalbooks.catalog.pricing;
+
+import com.globalbooks.catalog.cache.BoundedCache;
+import com.globalbooks.catalog.config.CatalogConfig;
+import com.globalbooks.catalog.dao.ProductChangeListener;
+import com.globalbooks.catalog.dao.ProductDAO;
+import com.globalbooks.catalog.model.CartQuote;
+import com.globalbooks.catalog.model.PriceQuote;
+import com.globalbooks.catalog.model.PriceQuoteRequest;
+import com.globalbooks.catalog.model.PriceQuoteResult;
+import com.globalbooks.catalog.model.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Price quotes from in-memory pricing tables. For each product and discount
+ * tier the unit price, discount and tax rates, rounding and validity are
+ * resolved once and cached; a quote for a cached (product, tier) needs no
+ * product lookup, only the per-quantity arithmetic. Cache entries never
+ * outlive the validUntil they hand out, are dropped when the product changes,
+ * and are all dropped when a table refresh brings different rates.
+ */
+public class PricingEngine implements ProductChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PricingEngine.class);
+
+    private final ProductDAO productDAO;
+    private final BoundedCache<String, QuoteTemplate> quoteCache;
+    private final long cacheTtlMillis;
+    private final long quoteValidityMillis;
+    private volatile PricingTables tables = PricingTables.defaults();
+    private ScheduledExecutorService refresher;
+
+    public PricingEngine(ProductDAO productDAO) {
+        this(productDAO, CatalogConfig.PRICING_QUOTE_CACHE_MAX_SIZE, CatalogConfig.PRICING_QUOTE_CACHE_TTL_MILLIS,
+                CatalogConfig.PRICING_QUOTE_VALIDITY_MILLIS);
+    }
+
+    public PricingEngine(ProductDAO productDAO, int cacheMaxSize, long cacheTtlMillis, long quoteValidityMillis) {
+        this.productDAO = productDAO;
+        this.quoteCache = new BoundedCache<>(cacheMaxSize, cacheTtlMillis);
+        this.cacheTtlMillis = cacheTtlMillis;
+        this.quoteValidityMillis = quoteValidityMillis;
+    }
+
+    public synchronized void start(long refreshIntervalMillis) {
+        if (refresher != null) {
+            return;
+        }
+        refresh();
+        refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "catalog-pricing-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refresh, refreshIntervalMillis, refreshIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void shutdown() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+            refresher = null;
+        }
+    }
+
+    // Reloads the pricing tables; returns false and keeps the current ones on failure
+    public boolean refresh() {
+        try {
+            PricingTables loaded = PricingTables.load();
+            if (!loaded.sameAs(tables)) {
+                tables = loaded;
+                quoteCache.invalidateAll();
+                logger.info("Pricing tables loaded: {}", loaded);
+            }
+            return true;
+        } catch (Exception e) {
+            logger.error("Failed to refresh pricing tables; keeping {}", tables, e);
+            return false;
+        }
+    }
+
+    // Null if the product does not exist
+    public PriceQuote quote(String productId, int quantity) {
+        PricingTables current = tables;
+        String key = cacheKey(productId, current.bucketOf(quantity));
+        QuoteTemplate template = quoteCache.get(key);
+        if (template == null) {
+            long generation = quoteCache.generation(key);
+            Product product = productDAO.findById(productId);
+            if (product == null) {
+                return null;
+            }
+            template = cacheTemplate(key, product, current.bucketOf(quantity), current, generation);
+        }
+        return template.quote(quantity);
+    }
+
+    // One quote per item in request order, null where the product does not exist
+    public List<PriceQuote> quote(List<PriceQuoteRequest> items) {
+        PricingTables current = tables;
+        QuoteTemplate[] templates = new QuoteTemplate[items.size()];
+        long[] generations = new long[templates.length];
+        Set<String> missing = new LinkedHashSet<>();
+        for (int i = 0; i < templates.length; i++) {
+            PriceQuoteRequest item = items.get(i);
+            if (isBlank(item.getProductId())) {
+                continue;
+            }
+            String key = cacheKey(item.getProductId(), current.bucketOf(item.getQuantity()));
+            templates[i] = quoteCache.get(key);
+            if (templates[i] == null) {
+                generations[i] = quoteCache.generation(key);
+                missing.add(item.getProductId());
+            }
+        }
+
+        Map<String, Product> products = missing.isEmpty() ? null : productDAO.findByIds(missing);
+        List<PriceQuote> quotes = new ArrayList<>(templates.length);
+        for (int i = 0; i < templates.length; i++) {
+            PriceQuoteRequest item = items.get(i);
+            QuoteTemplate template = templates[i];
+            if (template == null && products != null) {
+                Product product = products.get(item.getProductId());
+                if (product != null) {
+                    int bucket = current.bucketOf(item.getQuantity());
+                    template = cacheTemplate(cacheKey(item.getProductId(), bucket), product, bucket, current,
+                            generations[i]);
+                }
+            }
+            quotes.add(template == null ? null : template.quote(item.getQuantity()));
+        }
+        return quotes;
+    }
+
+    /**
+     * Quotes every line and totals the ones found. Lines are priced on their
+     * own quantities; the cart is valid until its earliest line expires.
+     * Throws IllegalArgumentException if the products are priced in more
+     * than one currency.
+     */
+    public CartQuote quoteCart(List<PriceQuoteRequest> items) {
+        List<PriceQuote> quotes = quote(items);
+        CartQuote cart = new CartQuote();
+        BigDecimal subtotal = BigDecimal.ZERO;
+        BigDecimal discount = BigDecimal.ZERO;
+        BigDecimal tax = BigDecimal.ZERO;
+        BigDecimal total = BigDecimal.ZERO;
+        String currency = null;
+        Date validUntil = null;
+
+        for (int i = 0; i < quotes.size(); i++) {
+            PriceQuote quote = quotes.get(i);
+            cart.getLines().add(new PriceQuoteResult(items.get(i).getProductId(), quote));
+            if (quote == null) {
+                continue;
+            }
+            if (currency == null) {
+                currency = quote.getCurrency();
+            } else if (!currency.equals(quote.getCurrency())) {
+                throw new IllegalArgumentException("Cart mixes " + currency + " and " + quote.getCurrency()
+                        + " prices");
+            }
+            subtotal = subtotal.add(quote.getSubtotal());
+            discount = discount.add(quote.getDiscount());
+            tax = tax.add(quote.getTax());
+            total = total.add(quote.getTotal());
+            if (validUntil == null || quote.getValidUntil().before(validUntil)) {
+                validUntil = quote.getValidUntil();
+            }
+        }
+
+        cart.setSubtotal(subtotal);
+        cart.setDiscount(discount);
+        cart.setTax(tax);
+        cart.setTotal(total);
+        cart.setCurrency(currency);
+        cart.setValidUntil(validUntil);
+        return cart;
+    }
+
+    // Not stored if the product changed, or the tables were replaced, while it was being loaded
+    private QuoteTemplate cacheTemplate(String key, Product product, int bucket, PricingTables current,
+                                        long generation) {
+        PricingTables.CurrencyRule rule = current.currency(product.getCurrency());
+        long now = System.currentTimeMillis();
+        QuoteTemplate template = new QuoteTemplate(product.getProductId(), product.getPrice(),
+                product.getCurrency(), current.discountRate(bucket), rule.getTaxRate(),
+                rule.getFractionDigits(), now + quoteValidityMillis);
+        // A template is only served while the validUntil it stamps on quotes is still ahead
+        // A refresh between reading the tables and taking the generation is only visible as a swapped reference
+        if (current == tables) {
+            quoteCache.putIfCurrent(key, template, generation, Math.min(now + cacheTtlMillis, template.validUntil));
+        }
+        return template;
+    }
+
+    private static boolean isBlank(String productId) {
+        return productId == null || productId.trim().isEmpty();
+    }
+
+    private String cacheKey(String productId, int bucket) {
+        return productId + '#' + bucket;
+    }
+
+    @Override
+    public void productChanged(String productId) {
+        int buckets = tables.bucketCount();
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            quoteCache.invalidate(cacheKey(productId, bucket));
+        }
+    }
+
+    @Override
+    public void productDeleted(String productId) {
+        productChanged(productId);
+    }
+
+    @Override
+    public void catalogReloaded() {
+        quoteCache.invalidateAll();
+    }
+
+    public BoundedCache<String, ?> getQuoteCache() {
+        return quoteCache;
+    }
+
+    // Everything about a quote except the quantity
+    private static final class QuoteTemplate {
+        final String productId;
+        final BigDecimal unitPrice;
+        final String currency;
+        final BigDecimal discountRate;
+        final BigDecimal taxRate;
+        final int scale;
+        final long validUntil;
+
+        QuoteTemplate(String productId, BigDecimal unitPrice, String currency, BigDecimal discountRate,
+                      BigDecimal taxRate, int scale, long validUntil) {
+            this.productId = productId;
+            this.unitPrice = unitPrice;
+            this.currency = currency != null ? currency : "USD";
+            this.discountRate = discountRate;
+            this.taxRate = taxRate;
+            this.scale = scale;
+            this.validUntil = validUntil;
+        }
+
+        PriceQuote quote(int quantity) {
+            BigDecimal subtotal = unitPrice.multiply(BigDecimal.valueOf(quantity)).setScale(scale, RoundingMode.HALF_UP);
+            BigDecimal discount = discountRate.signum() == 0 ? BigDecimal.ZERO.setScale(scale)
+                    : subtotal.multiply(discountRate).setScale(scale, RoundingMode.HALF_UP);
+            BigDecimal net = subtotal.subtract(discount);
+            BigDecimal tax = net.multiply(taxRate).setScale(scale, RoundingMode.HALF_UP);
+
+            PriceQuote quote = new PriceQuote();
+            quote.setProductId(productId);
+            quote.setUnitPrice(unitPrice);
+            quote.setQuantity(quantity);
+            quote.setSubtotal(subtotal);
+            quote.setDiscount(discount);
+            quote.setTax(tax);
+            quote.setTotal(net.add(tax));
+            quote.setCurrency(currency);
+            quote.setValidUntil(new Date(validUntil));
+            return quote;
+        }
+    }
+}
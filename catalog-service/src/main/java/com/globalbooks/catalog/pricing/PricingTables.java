@@ -0,0 +1,144 @@
+package com.globalbooks.catalog.pricing;
+
+import com.globalbooks.catalog.config.CatalogConfig;
+import com.globalbooks.catalog.util.DatabaseConnection;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the pricing tables: quantity discount tiers
+ * (pricing_discount_tiers) and, per currency, the sales tax rate and the
+ * number of minor-unit digits amounts are rounded to (pricing_currencies).
+ */
+public final class PricingTables {
+
+    private static final String TIERS_SQL =
+            "SELECT min_quantity, discount_rate FROM pricing_discount_tiers ORDER BY min_quantity";
+    private static final String CURRENCIES_SQL =
+            "SELECT currency, tax_rate, fraction_digits FROM pricing_currencies";
+
+    // Ascending; bucket 0 is the no-discount tier from quantity 1 unless a row starts at 1
+    private final int[] tierMinimums;
+    private final BigDecimal[] tierRates;
+    private final Map<String, CurrencyRule> currencies;
+    private final CurrencyRule defaultCurrency;
+
+    private PricingTables(int[] tierMinimums, BigDecimal[] tierRates, Map<String, CurrencyRule> currencies) {
+        this.tierMinimums = tierMinimums;
+        this.tierRates = tierRates;
+        this.currencies = currencies;
+        this.defaultCurrency = new CurrencyRule(new BigDecimal(CatalogConfig.PRICING_DEFAULT_TAX_RATE), 2);
+    }
+
+    // The rates quotes used before the tables existed
+    public static PricingTables defaults() {
+        Map<String, CurrencyRule> currencies = new HashMap<>();
+        currencies.put("USD", new CurrencyRule(new BigDecimal("0.08"), 2));
+        return new PricingTables(new int[] {1, 10, 50, 100},
+                new BigDecimal[] {BigDecimal.ZERO, new BigDecimal("0.05"), new BigDecimal("0.10"),
+                        new BigDecimal("0.15")},
+                Collections.unmodifiableMap(currencies));
+    }
+
+    public static PricingTables load() throws SQLException {
+        List<Integer> minimums = new ArrayList<>();
+        List<BigDecimal> rates = new ArrayList<>();
+        Map<String, CurrencyRule> currencies = new HashMap<>();
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery(TIERS_SQL)) {
+                while (rs.next()) {
+                    minimums.add(rs.getInt("min_quantity"));
+                    rates.add(rs.getBigDecimal("discount_rate"));
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery(CURRENCIES_SQL)) {
+                while (rs.next()) {
+                    currencies.put(rs.getString("currency"),
+                            new CurrencyRule(rs.getBigDecimal("tax_rate"), rs.getInt("fraction_digits")));
+                }
+            }
+        }
+
+        if (minimums.isEmpty() || minimums.get(0) > 1) {
+            minimums.add(0, 1);
+            rates.add(0, BigDecimal.ZERO);
+        }
+        int[] tierMinimums = new int[minimums.size()];
+        for (int i = 0; i < tierMinimums.length; i++) {
+            tierMinimums[i] = minimums.get(i);
+        }
+        return new PricingTables(tierMinimums, rates.toArray(new BigDecimal[0]),
+                Collections.unmodifiableMap(currencies));
+    }
+
+    public int bucketCount() {
+        return tierMinimums.length;
+    }
+
+    // Discount tier a quantity falls in; quotes for quantities in one bucket share a cache entry
+    public int bucketOf(int quantity) {
+        int index = Arrays.binarySearch(tierMinimums, quantity);
+        return index >= 0 ? index : Math.max(0, -index - 2);
+    }
+
+    public BigDecimal discountRate(int bucket) {
+        return tierRates[bucket];
+    }
+
+    // Currencies without a row use catalog.pricing.defaultTaxRate and two digits
+    public CurrencyRule currency(String code) {
+        CurrencyRule rule = code == null ? null : currencies.get(code);
+        return rule != null ? rule : defaultCurrency;
+    }
+
+    public boolean sameAs(PricingTables other) {
+        return Arrays.equals(tierMinimums, other.tierMinimums)
+                && Arrays.equals(tierRates, other.tierRates)
+                && currencies.equals(other.currencies);
+    }
+
+    @Override
+    public String toString() {
+        return "PricingTables{tiers=" + Arrays.toString(tierMinimums) + ", rates=" + Arrays.toString(tierRates)
+                + ", currencies=" + currencies.keySet() + "}";
+    }
+
+    public static final class CurrencyRule {
+        private final BigDecimal taxRate;
+        private final int fractionDigits;
+
+        CurrencyRule(BigDecimal taxRate, int fractionDigits) {
+            this.taxRate = taxRate;
+            this.fractionDigits = fractionDigits;
+        }
+
+        public BigDecimal getTaxRate() { return taxRate; }
+
+        public int getFractionDigits() { return fractionDigits; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof CurrencyRule)) {
+                return false;
+            }
+            CurrencyRule other = (CurrencyRule) o;
+            return taxRate.compareTo(other.taxRate) == 0 && fractionDigits == other.fractionDigits;
+        }
+
+        @Override
+        public int hashCode() {
+            return taxRate.stripTrailingZeros().hashCode() * 31 + fractionDigits;
+        }
+    }
+}
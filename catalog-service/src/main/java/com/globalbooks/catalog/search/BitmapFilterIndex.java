@@ -0,0 +1,211 @@
+package com.globalbooks.catalog.search;
+
+import com.globalbooks.catalog.model.SearchCriteria;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Structured-filter index keyed by doc ordinal: one bitmap per category value,
+ * one for in-stock products, and a sorted primitive array for price ranges.
+ * Not thread-safe; {@link ProductSearchEngine} guards access.
+ */
+final class BitmapFilterIndex {
+
+    private final Map<String, BitSet> byCategory = new HashMap<>();
+    private final BitSet inStock = new BitSet();
+
+    // Parallel arrays sorted by (cents, doc), so a price range is one contiguous slice
+    private long[] priceCents = new long[16];
+    private int[] priceDocs = new int[16];
+    private int priceCount;
+
+    void add(int doc, String category, BigDecimal price, boolean stocked) {
+        addBitmaps(doc, category, stocked);
+        if (price != null) {
+            insertPrice(toCents(price, RoundingMode.HALF_UP), doc);
+        }
+    }
+
+    // Bulk build: append unsorted, then call finishBulkLoad once
+    void append(int doc, String category, BigDecimal price, boolean stocked) {
+        addBitmaps(doc, category, stocked);
+        if (price != null) {
+            ensurePriceCapacity();
+            priceCents[priceCount] = toCents(price, RoundingMode.HALF_UP);
+            priceDocs[priceCount++] = doc;
+        }
+    }
+
+    void finishBulkLoad() {
+        sortPrices(0, priceCount);
+    }
+
+    void remove(int doc, String category, BigDecimal price) {
+        if (category != null) {
+            BitSet bits = byCategory.get(category);
+            if (bits != null) {
+                bits.clear(doc);
+                if (bits.isEmpty()) {
+                    byCategory.remove(category);
+                }
+            }
+        }
+        inStock.clear(doc);
+        if (price != null) {
+            removePrice(toCents(price, RoundingMode.HALF_UP), doc);
+        }
+    }
+
+    /**
+     * ANDs the bitmaps selected by the criteria. Returns null when the criteria
+     * carry no structured filter, meaning every document is allowed.
+     */
+    BitSet filter(SearchCriteria criteria) {
+        BitSet result = null;
+
+        if (criteria.getCategory() != null && !criteria.getCategory().isEmpty()) {
+            BitSet bits = byCategory.get(criteria.getCategory().toLowerCase());
+            if (bits == null) {
+                return new BitSet();
+            }
+            result = (BitSet) bits.clone();
+        }
+
+        if (criteria.isInStockOnly()) {
+            result = and(result, inStock);
+        }
+
+        if (criteria.getMinPrice() != null || criteria.getMaxPrice() != null) {
+            result = and(result, priceRange(criteria.getMinPrice(), criteria.getMaxPrice()));
+        }
+        return result;
+    }
+
+    BitSet priceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        long lowCents = minPrice == null ? Long.MIN_VALUE : toCents(minPrice, RoundingMode.CEILING);
+        long highCents = maxPrice == null ? Long.MAX_VALUE : toCents(maxPrice, RoundingMode.FLOOR);
+
+        int from = lowerBound(lowCents, Integer.MIN_VALUE);
+        BitSet bits = new BitSet();
+        for (int i = from; i < priceCount && priceCents[i] <= highCents; i++) {
+            bits.set(priceDocs[i]);
+        }
+        return bits;
+    }
+
+    private void addBitmaps(int doc, String category, boolean stocked) {
+        if (category != null) {
+            byCategory.computeIfAbsent(category, k -> new BitSet()).set(doc);
+        }
+        inStock.set(doc, stocked);
+    }
+
+    private static BitSet and(BitSet current, BitSet other) {
+        if (current == null) {
+            return (BitSet) other.clone();
+        }
+        current.and(other);
+        return current;
+    }
+
+    private static long toCents(BigDecimal price, RoundingMode mode) {
+        return price.movePointRight(2).setScale(0, mode).longValue();
+    }
+
+    // First position whose (cents, doc) is not below the given pair
+    private int lowerBound(long cents, int doc) {
+        int low = 0;
+        int high = priceCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(mid, cents, doc) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void insertPrice(long cents, int doc) {
+        int pos = lowerBound(cents, doc);
+        if (pos < priceCount && compare(pos, cents, doc) == 0) {
+            return;
+        }
+        ensurePriceCapacity();
+        System.arraycopy(priceCents, pos, priceCents, pos + 1, priceCount - pos);
+        System.arraycopy(priceDocs, pos, priceDocs, pos + 1, priceCount - pos);
+        priceCents[pos] = cents;
+        priceDocs[pos] = doc;
+        priceCount++;
+    }
+
+    private void removePrice(long cents, int doc) {
+        int pos = lowerBound(cents, doc);
+        if (pos < priceCount && compare(pos, cents, doc) == 0) {
+            System.arraycopy(priceCents, pos + 1, priceCents, pos, priceCount - pos - 1);
+            System.arraycopy(priceDocs, pos + 1, priceDocs, pos, priceCount - pos - 1);
+            priceCount--;
+        }
+    }
+
+    private void ensurePriceCapacity() {
+        if (priceCount == priceCents.length) {
+            priceCents = Arrays.copyOf(priceCents, priceCents.length * 2);
+            priceDocs = Arrays.copyOf(priceDocs, priceDocs.length * 2);
+        }
+    }
+
+    private int compare(int pos, long cents, int doc) {
+        int byCents = Long.compare(priceCents[pos], cents);
+        return byCents != 0 ? byCents : Integer.compare(priceDocs[pos], doc);
+    }
+
+    // Quicksort of [from, to) on both arrays; the (cents, doc) pairs are distinct
+    private void sortPrices(int from, int to) {
+        while (to - from > 16) {
+            int mid = (from + to) >>> 1;
+            long pivotCents = priceCents[mid];
+            int pivotDoc = priceDocs[mid];
+            int i = from;
+            int j = to - 1;
+            while (i <= j) {
+                while (compare(i, pivotCents, pivotDoc) < 0) {
+                    i++;
+                }
+                while (compare(j, pivotCents, pivotDoc) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swapPrices(i++, j--);
+                }
+            }
+            // Recurse into the smaller side, loop on the larger
+            if (j - from < to - i) {
+                sortPrices(from, j + 1);
+                from = i;
+            } else {
+                sortPrices(i, to);
+                to = j + 1;
+            }
+        }
+        for (int i = from + 1; i < to; i++) {
+            for (int j = i; j > from && compare(j - 1, priceCents[j], priceDocs[j]) > 0; j--) {
+                swapPrices(j - 1, j);
+            }
+        }
+    }
+
+    private void swapPrices(int a, int b) {
+        long cents = priceCents[a];
+        priceCents[a] = priceCents[b];
+        priceCents[b] = cents;
+        int doc = priceDocs[a];
+        priceDocs[a] = priceDocs[b];
+        priceDocs[b] = doc;
+    }
+}
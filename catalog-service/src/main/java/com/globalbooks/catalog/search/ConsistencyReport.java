@@ -0,0 +1,43 @@
+package com.globalbooks.catalog.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ConsistencyReport {
+
+    private final List<String> missing = new ArrayList<>();
+    private final List<String> stale = new ArrayList<>();
+    private final List<String> orphaned = new ArrayList<>();
+    private int indexedCount;
+    private int databaseCount;
+
+    public boolean isConsistent() {
+        return missing.isEmpty() && stale.isEmpty() && orphaned.isEmpty();
+    }
+
+    void addMissing(String productId) { missing.add(productId); }
+    void addStale(String productId) { stale.add(productId); }
+    void addOrphaned(String productId) { orphaned.add(productId); }
+
+    // In the database but not in the index
+    public List<String> getMissing() { return missing; }
+
+    // Indexed with content that differs from the database
+    public List<String> getStale() { return stale; }
+
+    // Indexed but no longer in the database
+    public List<String> getOrphaned() { return orphaned; }
+
+    public int getIndexedCount() { return indexedCount; }
+    void setIndexedCount(int indexedCount) { this.indexedCount = indexedCount; }
+
+    public int getDatabaseCount() { return databaseCount; }
+    void setDatabaseCount(int databaseCount) { this.databaseCount = databaseCount; }
+
+    @Override
+    public String toString() {
+        return "indexed=" + indexedCount + ", database=" + databaseCount +
+                ", missing=" + missing.size() + ", stale=" + stale.size() +
+                ", orphaned=" + orphaned.size();
+    }
+}
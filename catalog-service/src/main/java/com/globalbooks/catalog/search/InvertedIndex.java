@@ -0,0 +1,128 @@
+package com.globalbooks.catalog.search;
+
+import com.globalbooks.catalog.model.Product;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.IntPredicate;
+
+/**
+ * Term to posting-list map over product title, author and description.
+ * Not thread-safe; {@link ProductSearchEngine} guards access.
+ */
+final class InvertedIndex {
+
+    static final float TITLE_WEIGHT = 3.0f;
+    static final float AUTHOR_WEIGHT = 2.0f;
+    static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    private static final Comparator<ScoredDoc> BY_SCORE =
+            Comparator.comparingDouble((ScoredDoc d) -> d.score).thenComparingInt(d -> -d.doc);
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+
+    // Indexes the product under the given ordinal and returns the distinct terms added
+    String[] add(int doc, Product product) {
+        Map<String, Float> termWeights = new HashMap<>();
+        accumulate(termWeights, product.getTitle(), TITLE_WEIGHT);
+        accumulate(termWeights, product.getAuthor(), AUTHOR_WEIGHT);
+        accumulate(termWeights, product.getDescription(), DESCRIPTION_WEIGHT);
+
+        for (Map.Entry<String, Float> entry : termWeights.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), k -> new PostingList())
+                    .add(doc, entry.getValue());
+        }
+        return termWeights.keySet().toArray(new String[0]);
+    }
+
+    void remove(int doc, String[] terms) {
+        for (String term : terms) {
+            PostingList list = postings.get(term);
+            if (list != null && list.remove(doc) && list.size() == 0) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    int termCount() {
+        return postings.size();
+    }
+
+    /**
+     * Conjunctive query: returns up to {@code limit} docs containing every term
+     * and accepted by the filter, best score first.
+     */
+    List<ScoredDoc> search(List<String> terms, int totalDocs, IntPredicate accept, int limit) {
+        if (terms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        List<PostingList> lists = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            PostingList list = postings.get(term);
+            if (list == null) {
+                return Collections.emptyList();
+            }
+            lists.add(list);
+        }
+        // Drive the intersection from the rarest term
+        lists.sort(Comparator.comparingInt(PostingList::size));
+
+        int n = lists.size();
+        float[] idf = new float[n];
+        for (int j = 0; j < n; j++) {
+            idf[j] = (float) Math.log(1.0 + (double) totalDocs / lists.get(j).size());
+        }
+
+        PriorityQueue<ScoredDoc> top = new PriorityQueue<>(limit + 1, BY_SCORE);
+        int[] cursor = new int[n];
+        PostingList lead = lists.get(0);
+
+        outer:
+        for (int i = 0; i < lead.size(); i++) {
+            int doc = lead.docAt(i);
+            float score = lead.weightAt(i) * idf[0];
+            for (int j = 1; j < n; j++) {
+                PostingList other = lists.get(j);
+                cursor[j] = other.advance(cursor[j], doc);
+                if (cursor[j] >= other.size()) {
+                    break outer;
+                }
+                if (other.docAt(cursor[j]) != doc) {
+                    continue outer;
+                }
+                score += other.weightAt(cursor[j]) * idf[j];
+            }
+            if (!accept.test(doc)) {
+                continue;
+            }
+            top.offer(new ScoredDoc(doc, score));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<ScoredDoc> results = new ArrayList<>(top);
+        results.sort(BY_SCORE.reversed());
+        return results;
+    }
+
+    private static void accumulate(Map<String, Float> termWeights, String text, float weight) {
+        for (String token : Tokenizer.tokenize(text)) {
+            termWeights.merge(token, weight, Float::sum);
+        }
+    }
+
+    static final class ScoredDoc {
+        final int doc;
+        final float score;
+
+        ScoredDoc(int doc, float score) {
+            this.doc = doc;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.globalbooks.catalog.search;
+
+import java.util.Arrays;
+
+/**
+ * Doc ordinals containing a term, kept sorted ascending, with a parallel
+ * array of per-document term weights.
+ */
+final class PostingList {
+
+    private int[] docs = new int[4];
+    private float[] weights = new float[4];
+    private int size;
+
+    int size() { return size; }
+
+    int docAt(int index) { return docs[index]; }
+
+    float weightAt(int index) { return weights[index]; }
+
+    void add(int doc, float weight) {
+        // New ordinals are always the largest, so this is almost always an append
+        if (size == 0 || docs[size - 1] < doc) {
+            ensureCapacity(size + 1);
+            docs[size] = doc;
+            weights[size] = weight;
+            size++;
+            return;
+        }
+        int pos = Arrays.binarySearch(docs, 0, size, doc);
+        if (pos >= 0) {
+            weights[pos] = weight;
+            return;
+        }
+        int insertAt = -pos - 1;
+        ensureCapacity(size + 1);
+        System.arraycopy(docs, insertAt, docs, insertAt + 1, size - insertAt);
+        System.arraycopy(weights, insertAt, weights, insertAt + 1, size - insertAt);
+        docs[insertAt] = doc;
+        weights[insertAt] = weight;
+        size++;
+    }
+
+    boolean remove(int doc) {
+        int pos = Arrays.binarySearch(docs, 0, size, doc);
+        if (pos < 0) {
+            return false;
+        }
+        System.arraycopy(docs, pos + 1, docs, pos, size - pos - 1);
+        System.arraycopy(weights, pos + 1, weights, pos, size - pos - 1);
+        size--;
+        return true;
+    }
+
+    // Smallest index >= from whose doc is >= target, or size if none
+    int advance(int from, int target) {
+        if (from >= size || docs[from] >= target) {
+            return from;
+        }
+        // Gallop forward, then binary search inside the bracket
+        int step = 1;
+        int lo = from;
+        int hi = from + 1;
+        while (hi < size && docs[hi] < target) {
+            lo = hi;
+            step <<= 1;
+            hi = from + step;
+        }
+        hi = Math.min(hi, size);
+        int pos = Arrays.binarySearch(docs, lo, hi, target);
+        return pos >= 0 ? pos : -pos - 1;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > docs.length) {
+            int newCapacity = Math.max(capacity, docs.length + (docs.length >> 1));
+            docs = Arrays.copyOf(docs, newCapacity);
+            weights = Arrays.copyOf(weights, newCapacity);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.globalbooks.catalog.search;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Product detail views seen by this process, the popularity signal for
+ * suggestions. Recorded wherever a single product is served, including
+ * responses answered from the SOAP response cache; decayed by the reader.
+ */
+public final class ProductPopularity {
+
+    private static final Map<String, LongAdder> views = new ConcurrentHashMap<>();
+
+    private ProductPopularity() {}
+
+    public static void recordView(String productId) {
+        views.computeIfAbsent(productId, id -> new LongAdder()).increment();
+    }
+
+    public static long getViews(String productId) {
+        LongAdder count = views.get(productId);
+        return count == null ? 0 : count.sum();
+    }
+
+    // Halves every count so older views weigh less than recent ones
+    public static void decay() {
+        for (LongAdder count : views.values()) {
+            long sum = count.sumThenReset();
+            count.add(sum / 2);
+        }
+        views.values().removeIf(count -> count.sum() == 0);
+    }
+
+    public static void remove(String productId) {
+        views.remove(productId);
+    }
+}
@@ -0,0 +1,373 @@
+package com.globalbooks.catalog.search;
+
+import com.globalbooks.catalog.dao.ProductChangeListener;
+import com.globalbooks.catalog.dao.ProductDAO;
+import com.globalbooks.catalog.model.Product;
+import com.globalbooks.catalog.model.SearchCriteria;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process search over the catalog: an inverted index for keywords plus
+ * bitmap filters for category, stock and price. Built from a
+ * {@link ProductDAO#streamAll} pass over the primary and kept current from
+ * product change notifications; all index maintenance runs on a single
+ * background thread so updates apply in order. A rebuild whose read fails
+ * keeps the previous index.
+ */
+public class ProductSearchEngine implements ProductChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchEngine.class);
+    private static final int COMPACTION_SLACK = 1000;
+
+    private final ProductDAO source;
+    private final ScheduledExecutorService indexer;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private InvertedIndex invertedIndex = new InvertedIndex();
+    private BitmapFilterIndex filterIndex = new BitmapFilterIndex();
+    private Map<String, Integer> ordinals = new HashMap<>();
+    private List<IndexedDoc> docs = new ArrayList<>();
+    private int liveDocs;
+
+    private volatile boolean ready;
+
+    public ProductSearchEngine(ProductDAO source) {
+        this.source = source;
+        this.indexer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "catalog-search-indexer");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public void start(long verifyIntervalMillis) {
+        indexer.execute(this::rebuild);
+        if (verifyIntervalMillis > 0) {
+            indexer.scheduleWithFixedDelay(this::verifyAndRepair,
+                    verifyIntervalMillis, verifyIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void shutdown() {
+        indexer.shutdownNow();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns matching product IDs. With a keyword every token must appear in the
+     * title, author or description and results are ordered by relevance; without
+     * one, results are ordered by title. Structured filters are resolved against
+     * the bitmap index before any document is visited.
+     */
+    public List<String> search(SearchCriteria criteria) {
+        List<String> terms = Tokenizer.uniqueTokens(criteria.getKeyword());
+        String author = lowerOrNull(criteria.getAuthor());
+        List<String> ids = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            List<IndexedDoc> snapshot = docs;
+            BitSet allowed = filterIndex.filter(criteria);
+
+            if (terms.isEmpty()) {
+                for (int doc : topByTitle(snapshot, allowed, author, criteria.getMaxResults())) {
+                    ids.add(snapshot.get(doc).productId);
+                }
+                return ids;
+            }
+
+            IntPredicate accept = doc -> (allowed == null || allowed.get(doc))
+                    && matchesAuthor(snapshot.get(doc), author);
+            List<InvertedIndex.ScoredDoc> hits = invertedIndex.search(terms, liveDocs,
+                    accept, criteria.getMaxResults());
+            for (InvertedIndex.ScoredDoc hit : hits) {
+                ids.add(snapshot.get(hit.doc).productId);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ids;
+    }
+
+    @Override
+    public void productChanged(String productId) {
+        indexer.execute(() -> refresh(productId));
+    }
+
+    @Override
+    public void productDeleted(String productId) {
+        indexer.execute(() -> {
+            lock.writeLock().lock();
+            try {
+                removeLocked(productId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    @Override
+    public void catalogReloaded() {
+        indexer.execute(this::rebuild);
+    }
+
+    /**
+     * Compares the index with the current contents of the primary, which
+     * already has every change the index has been notified of.
+     */
+    public ConsistencyReport verifyConsistency() {
+        Map<String, Integer> expected = new HashMap<>();
+        source.streamAll(product -> expected.put(product.getProductId(), fingerprint(product)));
+
+        ConsistencyReport report = new ConsistencyReport();
+        lock.readLock().lock();
+        try {
+            Set<String> seen = new HashSet<>();
+            for (Map.Entry<String, Integer> entry : ordinals.entrySet()) {
+                IndexedDoc doc = docs.get(entry.getValue());
+                Integer dbFingerprint = expected.get(entry.getKey());
+                if (dbFingerprint == null) {
+                    report.addOrphaned(entry.getKey());
+                } else if (dbFingerprint != doc.fingerprint) {
+                    report.addStale(entry.getKey());
+                }
+                seen.add(entry.getKey());
+            }
+            for (String productId : expected.keySet()) {
+                if (!seen.contains(productId)) {
+                    report.addMissing(productId);
+                }
+            }
+            report.setIndexedCount(liveDocs);
+            report.setDatabaseCount(expected.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+        return report;
+    }
+
+    void rebuild() {
+        long start = System.currentTimeMillis();
+        try {
+            // Throws rather than yielding an empty catalog, so a failed read never replaces the index
+            List<Product> snapshot = new ArrayList<>();
+            source.streamAll(snapshot::add);
+
+            InvertedIndex newIndex = new InvertedIndex();
+            BitmapFilterIndex newFilterIndex = new BitmapFilterIndex();
+            Map<String, Integer> newOrdinals = new HashMap<>(snapshot.size() * 2);
+            List<IndexedDoc> newDocs = new ArrayList<>(snapshot.size());
+            for (Product product : snapshot) {
+                int ordinal = newDocs.size();
+                IndexedDoc doc = new IndexedDoc(product, newIndex.add(ordinal, product));
+                newFilterIndex.append(ordinal, doc.category, doc.price, doc.stockQuantity > 0);
+                newDocs.add(doc);
+                newOrdinals.put(product.getProductId(), ordinal);
+            }
+            newFilterIndex.finishBulkLoad();
+
+            lock.writeLock().lock();
+            try {
+                invertedIndex = newIndex;
+                filterIndex = newFilterIndex;
+                ordinals = newOrdinals;
+                docs = newDocs;
+                liveDocs = newDocs.size();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            ready = true;
+            logger.info("Search index built: {} products, {} terms in {} ms",
+                    newDocs.size(), newIndex.termCount(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            logger.error("Failed to build search index", e);
+        }
+    }
+
+    private void verifyAndRepair() {
+        try {
+            ConsistencyReport report = verifyConsistency();
+            if (report.isConsistent()) {
+                logger.debug("Search index consistent: {}", report);
+            } else {
+                logger.warn("Search index inconsistent, rebuilding: {}", report);
+                rebuild();
+            }
+        } catch (RuntimeException e) {
+            logger.error("Search index consistency check failed", e);
+        }
+    }
+
+    private void refresh(String productId) {
+        Product product = source.findById(productId);
+        boolean compact;
+        lock.writeLock().lock();
+        try {
+            Integer existing = ordinals.get(productId);
+            if (product != null && existing != null
+                    && docs.get(existing).textFingerprint == textFingerprint(product)) {
+                // Only stock, price or category moved (e.g. updateInventory): keep the
+                // ordinal and postings, just re-point the filter bitmaps
+                IndexedDoc previous = docs.get(existing);
+                IndexedDoc updated = new IndexedDoc(product, previous.terms);
+                filterIndex.remove(existing, previous.category, previous.price);
+                filterIndex.add(existing, updated.category, updated.price, updated.stockQuantity > 0);
+                docs.set(existing, updated);
+                return;
+            }
+
+            removeLocked(productId);
+            if (product != null) {
+                // Changed products get a fresh ordinal so posting lists stay append-only
+                int ordinal = docs.size();
+                IndexedDoc doc = new IndexedDoc(product, invertedIndex.add(ordinal, product));
+                filterIndex.add(ordinal, doc.category, doc.price, doc.stockQuantity > 0);
+                docs.add(doc);
+                ordinals.put(productId, ordinal);
+                liveDocs++;
+            }
+            compact = docs.size() > 2 * liveDocs + COMPACTION_SLACK;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (compact) {
+            // Too many retired ordinals; a rebuild renumbers the documents densely
+            rebuild();
+        }
+    }
+
+    private void removeLocked(String productId) {
+        Integer ordinal = ordinals.remove(productId);
+        if (ordinal != null) {
+            IndexedDoc doc = docs.get(ordinal);
+            invertedIndex.remove(ordinal, doc.terms);
+            filterIndex.remove(ordinal, doc.category, doc.price);
+            docs.set(ordinal, IndexedDoc.REMOVED);
+            liveDocs--;
+        }
+    }
+
+    private static List<Integer> topByTitle(List<IndexedDoc> snapshot, BitSet allowed,
+                                            String author, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        // Max-heap on title keeps the first `limit` titles in sort order
+        Comparator<Integer> byTitle = Comparator.comparing((Integer doc) -> snapshot.get(doc).title)
+                .thenComparing(doc -> snapshot.get(doc).productId);
+        PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, byTitle.reversed());
+
+        if (allowed == null) {
+            for (int doc = 0; doc < snapshot.size(); doc++) {
+                offerIfMatching(top, snapshot, doc, author, limit);
+            }
+        } else {
+            for (int doc = allowed.nextSetBit(0); doc >= 0; doc = allowed.nextSetBit(doc + 1)) {
+                offerIfMatching(top, snapshot, doc, author, limit);
+            }
+        }
+
+        List<Integer> result = new ArrayList<>(top);
+        result.sort(byTitle);
+        return result;
+    }
+
+    private static void offerIfMatching(PriorityQueue<Integer> top, List<IndexedDoc> snapshot,
+                                        int doc, String author, int limit) {
+        IndexedDoc indexed = snapshot.get(doc);
+        if (indexed == IndexedDoc.REMOVED || !matchesAuthor(indexed, author)) {
+            return;
+        }
+        top.offer(doc);
+        if (top.size() > limit) {
+            top.poll();
+        }
+    }
+
+    private static boolean matchesAuthor(IndexedDoc doc, String author) {
+        // Substring match, as in the SQL path; there is no bitmap for free-text authors
+        return author == null || (doc.author != null && doc.author.contains(author));
+    }
+
+    private static String lowerOrNull(String value) {
+        return value == null || value.isEmpty() ? null : value.toLowerCase();
+    }
+
+    private static int textFingerprint(Product product) {
+        return Objects.hash(product.getTitle(), product.getAuthor(), product.getDescription());
+    }
+
+    private static int fingerprint(Product product) {
+        return Objects.hash(product.getTitle(), product.getAuthor(), product.getDescription(),
+                product.getCategory(), product.getPrice(), product.getStockQuantity());
+    }
+
+    private static final class IndexedDoc {
+        static final IndexedDoc REMOVED = new IndexedDoc();
+
+        final String productId;
+        final String title;
+        final String category;
+        final String author;
+        final BigDecimal price;
+        final int stockQuantity;
+        final int textFingerprint;
+        final int fingerprint;
+        final String[] terms;
+
+        private IndexedDoc() {
+            this.productId = null;
+            this.title = "";
+            this.category = null;
+            this.author = null;
+            this.price = null;
+            this.stockQuantity = 0;
+            this.textFingerprint = 0;
+            this.fingerprint = 0;
+            this.terms = new String[0];
+        }
+
+        IndexedDoc(Product product, String[] terms) {
+            this.productId = product.getProductId();
+            this.title = product.getTitle() == null ? "" : product.getTitle();
+            this.category = lowerOrNull(product.getCategory());
+            this.author = lowerOrNull(product.getAuthor());
+            this.price = product.getPrice();
+            this.stockQuantity = product.getStockQuantity();
+            this.textFingerprint = textFingerprint(product);
+            this.fingerprint = fingerprint(product);
+            this.terms = terms;
+        }
+    }
+}
@@ -0,0 +1,493 @@
+package com.globalbooks.catalog.search;
+
+import com.globalbooks.catalog.dao.ProductChangeListener;
+import com.globalbooks.catalog.dao.ProductDAO;
+import com.globalbooks.catalog.model.Product;
+import com.globalbooks.catalog.model.Suggestion;
+import com.globalbooks.catalog.model.SuggestionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typeahead over titles, authors and ISBNs. Every word start of a normalized
+ * title or author, and the ISBN without separators, is a key in a sorted
+ * array; a prefix is one binary search plus a scan of the matching range,
+ * ranked by popularity. Queries read an immutable snapshot and never touch
+ * the database.
+ *
+ * Writes arrive as product change notifications and are applied on a single
+ * background thread: the product's entries go into a small sorted delta that
+ * shadows the base array, and the two are merged in one linear pass once
+ * the delta grows. A load whose read fails keeps the previous entries and
+ * is retried at the next reweight.
+ * Popularity is the product's recent views ({@link ProductPopularity},
+ * halved at each reweight) plus one for being in stock; an author scores
+ * the sum of their products.
+ */
+public class ProductSuggester implements ProductChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSuggester.class);
+    private static final int DELTA_MAX_ENTRIES = 2048;
+    private static final int MAX_KEY_WORDS = 8;
+
+    private final ProductDAO source;
+    private final ScheduledExecutorService indexer;
+
+    // Indexer thread only
+    private final Map<String, IndexedProduct> products = new HashMap<>();
+    private final Map<String, Set<String>> productsByAuthor = new HashMap<>();
+    private boolean loadFailed;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile boolean ready;
+
+    public ProductSuggester(ProductDAO source) {
+        this.source = source;
+        this.indexer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "catalog-suggest-indexer");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public void start(long reweightIntervalMillis) {
+        indexer.execute(this::load);
+        if (reweightIntervalMillis > 0) {
+            indexer.scheduleWithFixedDelay(this::reweight,
+                    reweightIntervalMillis, reweightIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void shutdown() {
+        indexer.shutdownNow();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Up to limit suggestions whose title or author has a word starting with
+     * the prefix, or whose ISBN starts with it, most popular first. A product
+     * or author appears at most once.
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String normalized = Tokenizer.normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        Snapshot current = snapshot;
+        Map<String, Entry> best = new HashMap<>();
+        collect(current, normalized, limit, best);
+        // "978-0-13" normalizes to "978 0 13"; ISBN keys have no separators
+        String compact = normalized.replace(" ", "");
+        if (!compact.equals(normalized)) {
+            collect(current, compact, limit, best);
+        }
+
+        List<Entry> ranked = new ArrayList<>(best.values());
+        ranked.sort(Entry.BY_RANK);
+        List<Suggestion> suggestions = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (Entry entry : ranked.subList(0, Math.min(limit, ranked.size()))) {
+            suggestions.add(new Suggestion(entry.text, entry.type, entry.productId, entry.weight));
+        }
+        return suggestions;
+    }
+
+    /**
+     * Adds the heaviest limit distinct identities under the prefix. The base
+     * range is visited best-first (take the heaviest entry of a sub-range,
+     * split around it) so a short prefix matching most of the catalog costs
+     * O(limit log n), not a scan; the small delta is scanned.
+     */
+    private static void collect(Snapshot current, String prefix, int limit, Map<String, Entry> best) {
+        Entry[] base = current.base;
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> base[a[2]].weight != base[b[2]].weight
+                ? Long.compare(base[b[2]].weight, base[a[2]].weight)
+                : Integer.compare(a[2], b[2]));
+        offerRange(current, ranges, lowerBound(base, prefix), lowerBound(base, prefix + Character.MAX_VALUE));
+        int found = 0;
+        while (found < limit && !ranges.isEmpty()) {
+            int[] range = ranges.poll();
+            Entry entry = base[range[2]];
+            if (!current.shadowed.contains(entry.identity) && best.putIfAbsent(entry.identity, entry) == null) {
+                found++;
+            }
+            offerRange(current, ranges, range[0], range[2]);
+            offerRange(current, ranges, range[2] + 1, range[1]);
+        }
+
+        Entry[] delta = current.delta;
+        for (int i = lowerBound(delta, prefix); i < delta.length && delta[i].key.startsWith(prefix); i++) {
+            best.putIfAbsent(delta[i].identity, delta[i]);
+        }
+    }
+
+    private static void offerRange(Snapshot current, PriorityQueue<int[]> ranges, int from, int to) {
+        if (from < to) {
+            ranges.add(new int[] {from, to, current.heaviest(from, to)});
+        }
+    }
+
+    private static int lowerBound(Entry[] entries, String key) {
+        int low = 0;
+        int high = entries.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entries[mid].key.compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public void productChanged(String productId) {
+        indexer.execute(() -> {
+            try {
+                Product product = source.findById(productId);
+                apply(productId, product == null ? null : new IndexedProduct(product));
+            } catch (RuntimeException e) {
+                logger.error("Failed to update suggestions for product {}", productId, e);
+            }
+        });
+    }
+
+    @Override
+    public void productDeleted(String productId) {
+        indexer.execute(() -> {
+            ProductPopularity.remove(productId);
+            apply(productId, null);
+        });
+    }
+
+    @Override
+    public void catalogReloaded() {
+        indexer.execute(this::load);
+    }
+
+    private void load() {
+        long start = System.currentTimeMillis();
+        try {
+            // Read in full before the current entries are cleared; a failure keeps them
+            List<Product> all = new ArrayList<>();
+            source.streamAll(all::add);
+            products.clear();
+            productsByAuthor.clear();
+            for (Product product : all) {
+                IndexedProduct indexed = new IndexedProduct(product);
+                products.put(indexed.productId, indexed);
+                productsByAuthor.computeIfAbsent(indexed.authorKey, a -> new HashSet<>()).add(indexed.productId);
+            }
+            rebuild();
+            loadFailed = false;
+            ready = true;
+            logger.info("Suggest index built: {} products, {} keys in {} ms",
+                    products.size(), snapshot.base.length, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            loadFailed = true;
+            logger.error("Failed to build suggest index", e);
+        }
+    }
+
+    // Replaces one product's entries and those of the authors it moved between
+    private void apply(String productId, IndexedProduct updated) {
+        IndexedProduct previous = updated == null ? products.remove(productId) : products.put(productId, updated);
+        Set<String> authors = new LinkedHashSet<>();
+        if (previous != null) {
+            authors.add(previous.authorKey);
+            Set<String> ids = productsByAuthor.get(previous.authorKey);
+            if (ids != null) {
+                ids.remove(productId);
+                if (ids.isEmpty()) {
+                    productsByAuthor.remove(previous.authorKey);
+                }
+            }
+        }
+        if (updated != null) {
+            authors.add(updated.authorKey);
+            productsByAuthor.computeIfAbsent(updated.authorKey, a -> new HashSet<>()).add(productId);
+        }
+        if (previous == null && updated == null) {
+            return;
+        }
+
+        Set<String> identities = new HashSet<>();
+        identities.add(titleIdentity(productId));
+        identities.add(isbnIdentity(productId));
+        List<Entry> replacements = new ArrayList<>();
+        if (updated != null) {
+            addProductEntries(updated, replacements);
+        }
+        for (String author : authors) {
+            identities.add(authorIdentity(author));
+            addAuthorEntries(author, replacements);
+        }
+
+        Snapshot current = snapshot;
+        List<Entry> delta = new ArrayList<>(current.delta.length + replacements.size());
+        for (Entry entry : current.delta) {
+            if (!identities.contains(entry.identity)) {
+                delta.add(entry);
+            }
+        }
+        delta.addAll(replacements);
+        Set<String> shadowed = new HashSet<>(current.shadowed);
+        shadowed.addAll(identities);
+        delta.sort(Entry.BY_KEY);
+        if (delta.size() > DELTA_MAX_ENTRIES || shadowed.size() > DELTA_MAX_ENTRIES) {
+            snapshot = merge(current.withDelta(delta.toArray(new Entry[0]), shadowed));
+            return;
+        }
+        snapshot = current.withDelta(delta.toArray(new Entry[0]), shadowed);
+    }
+
+    // Weights change but keys do not, so entries keep their order and nothing is re-sorted
+    private void reweight() {
+        if (loadFailed) {
+            load();
+            return;
+        }
+        try {
+            Map<String, Long> authorWeights = new HashMap<>(productsByAuthor.size() * 2);
+            for (Map.Entry<String, Set<String>> author : productsByAuthor.entrySet()) {
+                long weight = 0;
+                for (String id : author.getValue()) {
+                    weight += weight(products.get(id));
+                }
+                authorWeights.put(authorIdentity(author.getKey()), weight);
+            }
+
+            Entry[] base = merge(snapshot).base;
+            Entry[] reweighted = new Entry[base.length];
+            for (int i = 0; i < base.length; i++) {
+                Entry entry = base[i];
+                long weight = entry.type == SuggestionType.AUTHOR
+                        ? authorWeights.get(entry.identity)
+                        : weight(products.get(entry.productId));
+                reweighted[i] = new Entry(entry.key, entry.identity, entry.text, entry.type, entry.productId, weight);
+            }
+            snapshot = new Snapshot(reweighted, new Entry[0], Collections.emptySet());
+            ProductPopularity.decay();
+        } catch (RuntimeException e) {
+            logger.error("Suggest index reweight failed", e);
+        }
+    }
+
+    // Folds the delta into the base in one linear pass, dropping the base entries it shadows
+    private static Snapshot merge(Snapshot current) {
+        Entry[] base = current.base;
+        Entry[] delta = current.delta;
+        Entry[] merged = new Entry[base.length + delta.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < base.length || j < delta.length) {
+            if (i < base.length && current.shadowed.contains(base[i].identity)) {
+                i++;
+            } else if (j == delta.length || (i < base.length && base[i].key.compareTo(delta[j].key) <= 0)) {
+                merged[size++] = base[i++];
+            } else {
+                merged[size++] = delta[j++];
+            }
+        }
+        return new Snapshot(Arrays.copyOf(merged, size), new Entry[0], Collections.emptySet());
+    }
+
+    // Full sorted array from the in-memory model; no database access
+    private void rebuild() {
+        List<Entry> entries = new ArrayList<>(products.size() * 8);
+        for (IndexedProduct product : products.values()) {
+            addProductEntries(product, entries);
+        }
+        for (String author : productsByAuthor.keySet()) {
+            addAuthorEntries(author, entries);
+        }
+        Entry[] base = entries.toArray(new Entry[0]);
+        Arrays.sort(base, Entry.BY_KEY);
+        snapshot = new Snapshot(base, new Entry[0], Collections.emptySet());
+    }
+
+    private void addProductEntries(IndexedProduct product, List<Entry> entries) {
+        long weight = weight(product);
+        String titleIdentity = titleIdentity(product.productId);
+        for (String key : wordStarts(product.titleKey)) {
+            entries.add(new Entry(key, titleIdentity, product.title, SuggestionType.TITLE, product.productId, weight));
+        }
+        if (!product.isbnKey.isEmpty()) {
+            entries.add(new Entry(product.isbnKey, isbnIdentity(product.productId), product.isbn,
+                    SuggestionType.ISBN, product.productId, weight));
+        }
+    }
+
+    private void addAuthorEntries(String authorKey, List<Entry> entries) {
+        Set<String> ids = productsByAuthor.get(authorKey);
+        if (ids == null || ids.isEmpty() || authorKey.isEmpty()) {
+            return;
+        }
+        long weight = 0;
+        String display = null;
+        for (String id : ids) {
+            IndexedProduct product = products.get(id);
+            weight += weight(product);
+            if (display == null || product.author.compareTo(display) < 0) {
+                display = product.author;
+            }
+        }
+        String identity = authorIdentity(authorKey);
+        for (String key : wordStarts(authorKey)) {
+            entries.add(new Entry(key, identity, display, SuggestionType.AUTHOR, null, weight));
+        }
+    }
+
+    private long weight(IndexedProduct product) {
+        return ProductPopularity.getViews(product.productId) + (product.inStock ? 1 : 0);
+    }
+
+    private static List<String> wordStarts(String normalized) {
+        List<String> keys = new ArrayList<>();
+        if (normalized.isEmpty()) {
+            return keys;
+        }
+        keys.add(normalized);
+        int space = normalized.indexOf(' ');
+        while (space >= 0 && keys.size() < MAX_KEY_WORDS) {
+            keys.add(normalized.substring(space + 1));
+            space = normalized.indexOf(' ', space + 1);
+        }
+        return keys;
+    }
+
+    private static String titleIdentity(String productId) {
+        return "T:" + productId;
+    }
+
+    private static String isbnIdentity(String productId) {
+        return "I:" + productId;
+    }
+
+    private static String authorIdentity(String authorKey) {
+        return "A:" + authorKey;
+    }
+
+    private static final class IndexedProduct {
+        final String productId;
+        final String title;
+        final String titleKey;
+        final String author;
+        final String authorKey;
+        final String isbn;
+        final String isbnKey;
+        final boolean inStock;
+
+        IndexedProduct(Product product) {
+            this.productId = product.getProductId();
+            this.title = product.getTitle() == null ? "" : product.getTitle();
+            this.titleKey = Tokenizer.normalize(title);
+            this.author = product.getAuthor() == null ? "" : product.getAuthor();
+            this.authorKey = Tokenizer.normalize(author);
+            this.isbn = product.getIsbn() == null ? "" : product.getIsbn();
+            this.isbnKey = Tokenizer.normalize(isbn).replace(" ", "");
+            this.inStock = product.getStockQuantity() > 0;
+        }
+    }
+
+    private static final class Entry {
+        static final Comparator<Entry> BY_KEY = Comparator.comparing((Entry e) -> e.key);
+        static final Comparator<Entry> BY_RANK = Comparator.comparingLong((Entry e) -> e.weight).reversed()
+                .thenComparing(e -> e.text);
+
+        final String key;
+        final String identity;
+        final String text;
+        final SuggestionType type;
+        final String productId;
+        final long weight;
+
+        Entry(String key, String identity, String text, SuggestionType type, String productId, long weight) {
+            this.key = key;
+            this.identity = identity;
+            this.text = text;
+            this.type = type;
+            this.productId = productId;
+            this.weight = weight;
+        }
+    }
+
+    // Base entries whose identity is shadowed have been superseded by the delta
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new Entry[0], new Entry[0], Collections.emptySet());
+
+        final Entry[] base;
+        final Entry[] delta;
+        final Set<String> shadowed;
+        // Segment tree over base: each node holds the index of its heaviest entry
+        private final int[] heaviest;
+
+        Snapshot(Entry[] base, Entry[] delta, Set<String> shadowed) {
+            this.base = base;
+            this.delta = delta;
+            this.shadowed = shadowed;
+            this.heaviest = new int[2 * base.length];
+            for (int i = 0; i < base.length; i++) {
+                heaviest[base.length + i] = i;
+            }
+            for (int node = base.length - 1; node > 0; node--) {
+                heaviest[node] = heavier(heaviest[2 * node], heaviest[2 * node + 1]);
+            }
+        }
+
+        private Snapshot(Snapshot current, Entry[] delta, Set<String> shadowed) {
+            this.base = current.base;
+            this.delta = delta;
+            this.shadowed = shadowed;
+            this.heaviest = current.heaviest;
+        }
+
+        // Same base and tree, so a single product write costs O(delta), not O(catalog)
+        Snapshot withDelta(Entry[] delta, Set<String> shadowed) {
+            return new Snapshot(this, delta, shadowed);
+        }
+
+        // Index of the heaviest base entry in [from, to)
+        int heaviest(int from, int to) {
+            int result = -1;
+            for (from += base.length, to += base.length; from < to; from >>= 1, to >>= 1) {
+                if ((from & 1) == 1) {
+                    result = heavier(result, heaviest[from++]);
+                }
+                if ((to & 1) == 1) {
+                    result = heavier(result, heaviest[--to]);
+                }
+            }
+            return result;
+        }
+
+        private int heavier(int a, int b) {
+            if (a < 0) {
+                return b;
+            }
+            if (base[a].weight != base[b].weight) {
+                return base[a].weight > base[b].weight ? a : b;
+            }
+            return Math.min(a, b);
+        }
+    }
+}
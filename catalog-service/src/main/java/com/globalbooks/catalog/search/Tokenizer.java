@@ -0,0 +1,72 @@
+package com.globalbooks.catalog.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+public final class Tokenizer {
+
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "a", "an", "and", "are", "as", "at", "by", "for", "from", "in",
+            "is", "of", "on", "or", "the", "to", "with"));
+
+    private Tokenizer() {}
+
+    // Lower-cased alphanumeric runs, stop words removed, in document order
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(Character.toLowerCase(c));
+            } else if (current.length() > 0) {
+                addToken(tokens, current);
+            }
+        }
+        if (current.length() > 0) {
+            addToken(tokens, current);
+        }
+        return tokens;
+    }
+
+    // Lower-cased alphanumeric runs joined by single spaces, stop words kept; for prefix matching
+    public static String normalize(String text) {
+        StringBuilder normalized = new StringBuilder();
+        if (text == null) {
+            return "";
+        }
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace) {
+                    normalized.append(' ');
+                    pendingSpace = false;
+                }
+                normalized.append(Character.toLowerCase(c));
+            } else if (normalized.length() > 0) {
+                pendingSpace = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    public static List<String> uniqueTokens(String text) {
+        return new ArrayList<>(new LinkedHashSet<>(tokenize(text)));
+    }
+
+    private static void addToken(List<String> tokens, StringBuilder current) {
+        String token = current.toString();
+        current.setLength(0);
+        if (!STOP_WORDS.contains(token)) {
+            tokens.add(token);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.globalbooks.catalog.security;
+
+import com.globalbooks.catalog.config.SecurityConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Signed bearer tokens for the JSON API. A token is
+ * base64url(username:expiresAtMillis) "." base64url(HMAC-SHA256), so checking
+ * one is a MAC over a few bytes plus a credential cache lookup; nothing is
+ * stored per token. The role comes from the credential cache at check time,
+ * so removing or demoting a user takes effect at the next credential refresh.
+ *
+ * Nodes that should accept each other's tokens must share
+ * catalog.security.apiTokenSecret; without it each JVM signs with a random key.
+ */
+public final class ApiTokens {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiTokens.class);
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final SecretKeySpec KEY = new SecretKeySpec(loadSecret(), ALGORITHM);
+    private static final ThreadLocal<Mac> MAC = ThreadLocal.withInitial(ApiTokens::newMac);
+
+    private ApiTokens() {}
+
+    public static String issue(SecurityConfig.UserInfo user) {
+        long expiresAt = System.currentTimeMillis() + SecurityConfig.TOKEN_EXPIRATION_TIME;
+        byte[] claims = (user.getUsername() + ':' + expiresAt).getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(claims) + '.' + ENCODER.encodeToString(sign(claims));
+    }
+
+    // The token's user, or null if it is malformed, forged, expired or the user no longer exists
+    public static SecurityConfig.UserInfo verify(String token) {
+        int dot = token == null ? -1 : token.indexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        byte[] claims;
+        byte[] signature;
+        try {
+            claims = Base64.getUrlDecoder().decode(token.substring(0, dot));
+            signature = Base64.getUrlDecoder().decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(sign(claims), signature)) {
+            return null;
+        }
+
+        String decoded = new String(claims, StandardCharsets.UTF_8);
+        int colon = decoded.lastIndexOf(':');
+        try {
+            if (colon < 0 || Long.parseLong(decoded.substring(colon + 1)) < System.currentTimeMillis()) {
+                return null;
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return CredentialCache.getInstance().getUser(decoded.substring(0, colon));
+    }
+
+    public static long getExpirationSeconds() {
+        return SecurityConfig.TOKEN_EXPIRATION_TIME / 1000;
+    }
+
+    private static byte[] sign(byte[] claims) {
+        return MAC.get().doFinal(claims);
+    }
+
+    private static Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(KEY);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " not available", e);
+        }
+    }
+
+    private static byte[] loadSecret() {
+        String secret = SecurityConfig.API_TOKEN_SECRET;
+        if (secret != null && !secret.isEmpty()) {
+            return secret.getBytes(StandardCharsets.UTF_8);
+        }
+        logger.warn("catalog.security.apiTokenSecret is not set; API tokens are valid on this node until restart only");
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        return random;
+    }
+}
@@ -0,0 +1,193 @@
+package com.globalbooks.catalog.security;
+
+import com.globalbooks.catalog.config.SecurityConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory snapshot of the credential store. Password bytes, legacy SHA-1
+ * digests and roles are prepared when the snapshot is loaded, so verifying a
+ * request is a map lookup plus a constant-time comparison. A background task
+ * swaps in a fresh snapshot periodically; if a reload fails the previous one
+ * stays in use.
+ */
+public class CredentialCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CredentialCache.class);
+
+    private static volatile CredentialCache instance;
+
+    // Compared against for unknown users so lookups take the same time either way
+    private static final Entry UNKNOWN_USER = newUnknownUserEntry();
+
+    private static final ThreadLocal<MessageDigest> SHA1 = ThreadLocal.withInitial(CredentialCache::newSha1);
+
+    private final CredentialStore store;
+    private volatile Map<String, Entry> entries = Collections.emptyMap();
+    private ScheduledExecutorService refresher;
+
+    public CredentialCache(CredentialStore store) {
+        this.store = store;
+    }
+
+    // Process-wide cache over the store selected by SecurityConfig.CREDENTIAL_STORE
+    public static CredentialCache getInstance() {
+        CredentialCache cache = instance;
+        if (cache == null) {
+            synchronized (CredentialCache.class) {
+                cache = instance;
+                if (cache == null) {
+                    cache = new CredentialCache(createConfiguredStore());
+                    cache.start(SecurityConfig.CREDENTIAL_REFRESH_INTERVAL);
+                    instance = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    // Stops the refresher of the process-wide cache, if one was created
+    public static synchronized void shutdownInstance() {
+        if (instance != null) {
+            instance.shutdown();
+            instance = null;
+        }
+    }
+
+    private static CredentialStore createConfiguredStore() {
+        if ("file".equalsIgnoreCase(SecurityConfig.CREDENTIAL_STORE)) {
+            logger.info("Using file credential store {}", SecurityConfig.CREDENTIAL_FILE);
+            return new FileCredentialStore(SecurityConfig.CREDENTIAL_FILE);
+        }
+        logger.info("Using database credential store");
+        return new DatabaseCredentialStore();
+    }
+
+    public synchronized void start(long refreshIntervalMillis) {
+        if (refresher != null) {
+            return;
+        }
+        refresh();
+        refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "catalog-credential-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refresh, refreshIntervalMillis, refreshIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void shutdown() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+            refresher = null;
+        }
+    }
+
+    // Reloads the snapshot from the store; returns false and keeps the old one on failure
+    public boolean refresh() {
+        try {
+            List<StoredCredential> credentials = store.loadAll();
+            Map<String, Entry> loaded = new HashMap<>(credentials.size() * 2);
+            for (StoredCredential credential : credentials) {
+                byte[] password = credential.getPassword().getBytes(StandardCharsets.UTF_8);
+                loaded.put(credential.getUsername(), new Entry(
+                        new SecurityConfig.UserInfo(credential.getUsername(), credential.getRole()),
+                        password, SHA1.get().digest(password)));
+            }
+            entries = Collections.unmodifiableMap(loaded);
+            logger.debug("Loaded {} credentials", loaded.size());
+            return true;
+        } catch (Exception e) {
+            logger.error("Failed to refresh credentials; keeping {} cached entries", entries.size(), e);
+            return false;
+        }
+    }
+
+    // PasswordText
+    public SecurityConfig.UserInfo authenticate(String username, String password) {
+        Entry entry = lookup(username);
+        boolean match = MessageDigest.isEqual(entry.password, password.getBytes(StandardCharsets.UTF_8));
+        return match ? entry.user : null;
+    }
+
+    // Legacy PasswordDigest without a nonce: SHA-1(password)
+    public SecurityConfig.UserInfo authenticateDigest(String username, byte[] digest) {
+        Entry entry = lookup(username);
+        return MessageDigest.isEqual(entry.legacyDigest, digest) ? entry.user : null;
+    }
+
+    // UsernameToken Profile PasswordDigest: SHA-1(nonce + created + password)
+    public SecurityConfig.UserInfo authenticateDigest(String username, byte[] nonce, String created, byte[] digest) {
+        Entry entry = lookup(username);
+        MessageDigest sha1 = SHA1.get();
+        sha1.update(nonce);
+        sha1.update(created.getBytes(StandardCharsets.UTF_8));
+        sha1.update(entry.password);
+        return MessageDigest.isEqual(sha1.digest(), digest) ? entry.user : null;
+    }
+
+    public SecurityConfig.UserInfo getUser(String username) {
+        Entry entry = username == null ? null : entries.get(username);
+        return entry == null ? null : entry.user;
+    }
+
+    public boolean hasRole(String username, SecurityConfig.UserRole... roles) {
+        SecurityConfig.UserInfo user = getUser(username);
+        if (user == null) {
+            return false;
+        }
+        for (SecurityConfig.UserRole role : roles) {
+            if (user.getRole() == role) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private Entry lookup(String username) {
+        Entry entry = username == null ? null : entries.get(username);
+        return entry != null ? entry : UNKNOWN_USER;
+    }
+
+    private static MessageDigest newSha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+    }
+
+    private static Entry newUnknownUserEntry() {
+        byte[] password = new byte[16];
+        new SecureRandom().nextBytes(password);
+        return new Entry(null, password, newSha1().digest(password));
+    }
+
+    private static final class Entry {
+        final SecurityConfig.UserInfo user;
+        final byte[] password;
+        final byte[] legacyDigest;
+
+        Entry(SecurityConfig.UserInfo user, byte[] password, byte[] legacyDigest) {
+            this.user = user;
+            this.password = password;
+            this.legacyDigest = legacyDigest;
+        }
+    }
+}
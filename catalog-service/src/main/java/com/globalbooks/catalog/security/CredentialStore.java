@@ -0,0 +1,12 @@
+package com.globalbooks.catalog.security;
+
+import java.util.List;
+
+/**
+ * Source of catalog user credentials. Implementations are read in bulk by
+ * {@link CredentialCache}; they are never queried on the request path.
+ */
+public interface CredentialStore {
+
+    List<StoredCredential> loadAll() throws Exception;
+}
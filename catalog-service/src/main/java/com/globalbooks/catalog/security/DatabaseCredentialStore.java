@@ -0,0 +1,33 @@
+package com.globalbooks.catalog.security;
+
+import com.globalbooks.catalog.config.SecurityConfig;
+import com.globalbooks.catalog.util.DatabaseConnection;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Reads enabled users from the catalog_users table
+public class DatabaseCredentialStore implements CredentialStore {
+
+    @Override
+    public List<StoredCredential> loadAll() throws SQLException {
+        String sql = "SELECT username, password, role FROM catalog_users WHERE enabled";
+        List<StoredCredential> credentials = new ArrayList<>();
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                credentials.add(new StoredCredential(
+                        rs.getString("username"),
+                        rs.getString("password"),
+                        SecurityConfig.UserRole.fromRole(rs.getString("role"))));
+            }
+        }
+        return credentials;
+    }
+}
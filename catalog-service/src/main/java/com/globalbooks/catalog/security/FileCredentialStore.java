@@ -0,0 +1,60 @@
+package com.globalbooks.catalog.security;
+
+import com.globalbooks.catalog.config.SecurityConfig;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Local stand-in for the database store. Each property is
+ * {@code username=password,role}; the location is a filesystem path, falling
+ * back to a classpath resource of the same name.
+ */
+public class FileCredentialStore implements CredentialStore {
+
+    private final String location;
+
+    public FileCredentialStore(String location) {
+        this.location = location;
+    }
+
+    @Override
+    public List<StoredCredential> loadAll() throws IOException {
+        Properties props = new Properties();
+        try (Reader reader = new InputStreamReader(open(), StandardCharsets.UTF_8)) {
+            props.load(reader);
+        }
+
+        List<StoredCredential> credentials = new ArrayList<>();
+        for (String username : props.stringPropertyNames()) {
+            String value = props.getProperty(username);
+            int comma = value.lastIndexOf(',');
+            if (comma < 0) {
+                throw new IOException("Expected password,role for user " + username + " in " + location);
+            }
+            credentials.add(new StoredCredential(username, value.substring(0, comma),
+                    SecurityConfig.UserRole.fromRole(value.substring(comma + 1).trim())));
+        }
+        return credentials;
+    }
+
+    private InputStream open() throws IOException {
+        Path path = Paths.get(location);
+        if (Files.isRegularFile(path)) {
+            return Files.newInputStream(path);
+        }
+        InputStream input = FileCredentialStore.class.getClassLoader().getResourceAsStream(location);
+        if (input == null) {
+            throw new IOException("Unable to find " + location);
+        }
+        return input;
+    }
+}
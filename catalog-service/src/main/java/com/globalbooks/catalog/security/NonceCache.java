@@ -0,0 +1,89 @@
+package com.globalbooks.catalog.security;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers recently seen UsernameToken nonces so a captured digest cannot be
+ * replayed. Entries only need to outlive the Created freshness window; after
+ * that the token is rejected as stale anyway. A nonce is never forgotten
+ * inside that window: while the cache is full of live entries, new nonces
+ * are refused, so the check fails closed instead of reopening a replay.
+ */
+public class NonceCache {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Map<String, Long> nonces = new ConcurrentHashMap<>();
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final LongAdder overflows = new LongAdder();
+
+    public NonceCache(int maxSize, long ttlMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be greater than zero");
+        }
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Records the nonce. Returns false if it was already seen within the TTL,
+     * or if the cache holds maxSize live nonces and cannot remember another.
+     */
+    public boolean register(String nonce, long now) {
+        purge(now);
+        Long seen = nonces.get(nonce);
+        if (seen != null && seen > now) {
+            return false;
+        }
+        if (nonces.size() >= maxSize) {
+            overflows.increment();
+            return false;
+        }
+
+        long expiresAt = now + ttlMillis;
+        Long previous = nonces.putIfAbsent(nonce, expiresAt);
+        if (previous != null) {
+            if (previous > now) {
+                return false;
+            }
+            // Expired entry that purge has not reached yet
+            if (!nonces.replace(nonce, previous, expiresAt)) {
+                return false;
+            }
+        }
+        insertionOrder.add(new Entry(nonce, expiresAt));
+        return true;
+    }
+
+    public int size() {
+        return nonces.size();
+    }
+
+    // Nonces refused because the cache was full
+    public long getOverflowCount() {
+        return overflows.sum();
+    }
+
+    private void purge(long now) {
+        Entry head;
+        while ((head = insertionOrder.peek()) != null && head.expiresAt <= now) {
+            if (insertionOrder.remove(head)) {
+                nonces.remove(head.nonce, head.expiresAt);
+            }
+        }
+    }
+
+    private static final class Entry {
+        final String nonce;
+        final long expiresAt;
+
+        Entry(String nonce, long expiresAt) {
+            this.nonce = nonce;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
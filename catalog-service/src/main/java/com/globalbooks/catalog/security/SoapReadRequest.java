@@ -0,0 +1,123 @@
+package com.globalbooks.catalog.security;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A SOAP 1.1 request with one operation whose parameters are all simple text
+ * elements and whose only header is wsse:Security, read with StAX ahead of
+ * the JAX-WS runtime. Used to answer repeated reads from a response cache
+ * without handing the envelope to the service; anything more elaborate is
+ * not recognised and goes through the normal stack.
+ */
+public final class SoapReadRequest {
+
+    private static final String SOAP_ENV_NS = "http://schemas.xmlsoap.org/soap/envelope/";
+    private static final XMLInputFactory FACTORY = newFactory();
+
+    private final String namespace;
+    private final String operation;
+    private final Map<String, String> parameters;
+    private final UsernameToken token;
+
+    private SoapReadRequest(String namespace, String operation, Map<String, String> parameters,
+                            UsernameToken token) {
+        this.namespace = namespace;
+        this.operation = operation;
+        this.parameters = Collections.unmodifiableMap(parameters);
+        this.token = token;
+    }
+
+    // Returns null when the envelope is malformed or not of the simple shape described above
+    public static SoapReadRequest parse(byte[] envelope) {
+        try {
+            XMLStreamReader reader = FACTORY.createXMLStreamReader(new ByteArrayInputStream(envelope));
+            try {
+                return read(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            return null;
+        }
+    }
+
+    private static SoapReadRequest read(XMLStreamReader reader) throws XMLStreamException {
+        if (reader.nextTag() != XMLStreamConstants.START_ELEMENT || !isSoapElement(reader, "Envelope")) {
+            return null;
+        }
+
+        UsernameToken token = null;
+        reader.nextTag();
+        if (isSoapElement(reader, "Header")) {
+            while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                if (token != null || !"Security".equals(reader.getLocalName())
+                        || !UsernameToken.WSSE_NS.equals(reader.getNamespaceURI())) {
+                    return null;
+                }
+                token = UsernameToken.parse(reader);
+                if (token == null) {
+                    return null;
+                }
+            }
+            reader.nextTag();
+        }
+        if (reader.getEventType() != XMLStreamConstants.START_ELEMENT || !isSoapElement(reader, "Body")) {
+            return null;
+        }
+
+        if (reader.nextTag() != XMLStreamConstants.START_ELEMENT) {
+            return null;
+        }
+        String namespace = reader.getNamespaceURI();
+        String operation = reader.getLocalName();
+        Map<String, String> parameters = new HashMap<>();
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            // getElementText rejects nested elements, so structured parameters fail the parse
+            if (parameters.put(reader.getLocalName(), reader.getElementText()) != null) {
+                return null;
+            }
+        }
+
+        // A second body element is not a single operation
+        if (reader.nextTag() != XMLStreamConstants.END_ELEMENT) {
+            return null;
+        }
+        return new SoapReadRequest(namespace, operation, parameters, token);
+    }
+
+    private static boolean isSoapElement(XMLStreamReader reader, String localName) {
+        return localName.equals(reader.getLocalName()) && SOAP_ENV_NS.equals(reader.getNamespaceURI());
+    }
+
+    /**
+     * Verifies the UsernameToken exactly as WSSecurityHandler would, including
+     * nonce registration, so a request answered without the JAX-WS stack is
+     * held to the same rules.
+     */
+    public boolean authenticate() {
+        return token != null && UsernameTokenValidator.validate(token);
+    }
+
+    private static XMLInputFactory newFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    // Getters
+    public String getNamespace() { return namespace; }
+
+    public String getOperation() { return operation; }
+
+    public Map<String, String> getParameters() { return parameters; }
+
+    public String getUsername() { return token != null ? token.getUsername() : null; }
+}
@@ -0,0 +1,29 @@
+package com.globalbooks.catalog.security;
+
+import com.globalbooks.catalog.config.SecurityConfig;
+
+// A user record as held by a CredentialStore
+public class StoredCredential {
+
+    private final String username;
+    private final String password;
+    private final SecurityConfig.UserRole role;
+
+    public StoredCredential(String username, String password, SecurityConfig.UserRole role) {
+        this.username = username;
+        this.password = password;
+        this.role = role;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public SecurityConfig.UserRole getRole() {
+        return role;
+    }
+}
@@ -0,0 +1,88 @@
+package com.globalbooks.catalog.security;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * UsernameToken read straight off the wsse:Security header stream. Only the
+ * Security subtree is consumed; the rest of the envelope is never touched.
+ */
+class UsernameToken {
+
+    static final String WSSE_NS = "http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-wssecurity-secext-1.0.xsd";
+    static final String WSU_NS = "http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-wssecurity-utility-1.0.xsd";
+
+    private String username;
+    private String password;
+    private String passwordType;
+    private String nonce;
+    private String created;
+
+    // Returns the first UsernameToken inside the Security element, or null if there is none
+    static UsernameToken parse(XMLStreamReader reader) throws XMLStreamException {
+        if (reader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+            reader.nextTag();
+        }
+
+        UsernameToken token = null;
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if (token == null && isElement(reader, WSSE_NS, "UsernameToken")) {
+                token = readToken(reader);
+            } else {
+                skipElement(reader);
+            }
+        }
+        return token;
+    }
+
+    private static UsernameToken readToken(XMLStreamReader reader) throws XMLStreamException {
+        UsernameToken token = new UsernameToken();
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if (isElement(reader, WSSE_NS, "Username")) {
+                token.username = reader.getElementText().trim();
+            } else if (isElement(reader, WSSE_NS, "Password")) {
+                token.passwordType = reader.getAttributeValue(null, "Type");
+                token.password = reader.getElementText();
+            } else if (isElement(reader, WSSE_NS, "Nonce")) {
+                token.nonce = reader.getElementText().trim();
+            } else if (isElement(reader, WSU_NS, "Created")) {
+                token.created = reader.getElementText().trim();
+            } else {
+                skipElement(reader);
+            }
+        }
+        return token;
+    }
+
+    private static boolean isElement(XMLStreamReader reader, String namespace, String localName) {
+        return localName.equals(reader.getLocalName()) && namespace.equals(reader.getNamespaceURI());
+    }
+
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    boolean isDigest() {
+        return passwordType != null && passwordType.contains("PasswordDigest");
+    }
+
+    // Getters
+    String getUsername() { return username; }
+
+    String getPassword() { return password; }
+
+    String getPasswordType() { return passwordType; }
+
+    String getNonce() { return nonce; }
+
+    String getCreated() { return created; }
+}
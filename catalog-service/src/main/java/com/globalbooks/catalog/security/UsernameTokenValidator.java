@@ -0,0 +1,79 @@
+package com.globalbooks.catalog.security;
+
+import com.globalbooks.catalog.config.SecurityConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Checks a UsernameToken against the credential cache: plain passwords,
+ * legacy nonce-less digests and UsernameToken Profile digests with a fresh
+ * Created timestamp and an unseen nonce.
+ */
+final class UsernameTokenValidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsernameTokenValidator.class);
+
+    // Shared by every caller so a nonce cannot be replayed against another endpoint or transport
+    private static final NonceCache nonceCache =
+            new NonceCache(SecurityConfig.NONCE_CACHE_SIZE, SecurityConfig.NONCE_TTL);
+
+    private UsernameTokenValidator() {}
+
+    static boolean validate(UsernameToken token) {
+        if (token.getUsername() == null || token.getPassword() == null) {
+            return false;
+        }
+        if (token.isDigest()) {
+            return validateDigestPassword(token);
+        } else {
+            return CredentialCache.getInstance().authenticate(token.getUsername(), token.getPassword()) != null;
+        }
+    }
+
+    private static boolean validateDigestPassword(UsernameToken token) {
+        CredentialCache credentialCache = CredentialCache.getInstance();
+        try {
+            byte[] supplied = Base64.getDecoder().decode(token.getPassword().trim());
+
+            if (token.getNonce() == null) {
+                // Legacy clients send Base64(SHA-1(password)) without a nonce
+                return credentialCache.authenticateDigest(token.getUsername(), supplied) != null;
+            }
+
+            // UsernameToken Profile: Base64(SHA-1(nonce + created + password))
+            if (token.getCreated() == null || !isFresh(token.getCreated())) {
+                logger.warn("Stale or missing Created timestamp for user: {}", token.getUsername());
+                return false;
+            }
+            byte[] nonce = Base64.getDecoder().decode(token.getNonce());
+            if (credentialCache.authenticateDigest(token.getUsername(), nonce, token.getCreated(), supplied) == null) {
+                return false;
+            }
+
+            // Only remember nonces of tokens that verified, so forged requests cannot fill the cache
+            if (!nonceCache.register(token.getNonce(), System.currentTimeMillis())) {
+                logger.warn("Nonce rejected for user: {} (replayed, or {} refused so far with the cache full)",
+                        token.getUsername(), nonceCache.getOverflowCount());
+                return false;
+            }
+            return true;
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid Base64 in UsernameToken for user: {}", token.getUsername());
+            return false;
+        }
+    }
+
+    private static boolean isFresh(String created) {
+        try {
+            long createdAt = Instant.parse(created).toEpochMilli();
+            long now = System.currentTimeMillis();
+            return createdAt <= now + SecurityConfig.CLOCK_SKEW_ALLOWANCE
+                    && now - createdAt <= SecurityConfig.NONCE_TTL;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+}
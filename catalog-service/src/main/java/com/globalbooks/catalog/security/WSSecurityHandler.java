@@ -1,182 +1,109 @@
 package com.globalbooks.catalog.security;
 
+import com.sun.xml.ws.api.handler.MessageHandler;
+import com.sun.xml.ws.api.handler.MessageHandlerContext;
+import com.sun.xml.ws.api.message.Header;
+import com.sun.xml.ws.api.message.Message;
 import javax.xml.namespace.QName;
 import javax.xml.soap.*;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.ws.handler.MessageContext;
-import javax.xml.ws.handler.soap.SOAPHandler;
-import javax.xml.ws.handler.soap.SOAPMessageContext;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
+import javax.xml.ws.soap.SOAPFaultException;
+import java.util.Collections;
 import java.util.Set;
-import java.util.HashSet;
-import java.util.Base64;
-import java.security.MessageDigest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class WSSecurityHandler implements SOAPHandler<SOAPMessageContext> {
+/**
+ * Validates the WS-Security UsernameToken on inbound requests. Runs as a
+ * JAX-WS RI message handler so only the Security header is read, as a
+ * stream, instead of materialising the whole envelope as a SAAJ DOM.
+ */
+public class WSSecurityHandler implements MessageHandler<MessageHandlerContext> {
 
     private static final Logger logger = LoggerFactory.getLogger(WSSecurityHandler.class);
-    private static final String WSSE_NS = "http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-wssecurity-secext-1.0.xsd";
-    private static final String WSU_NS = "http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-wssecurity-utility-1.0.xsd";
     private static final String WSSE_PREFIX = "wsse";
-    private static final String WSU_PREFIX = "wsu";
+    private static final QName SECURITY_HEADER = new QName(UsernameToken.WSSE_NS, "Security", WSSE_PREFIX);
+    private static final String SECURITY_FAULT_NS = "http://globalbooks.com/security";
 
     @Override
-    public boolean handleMessage(SOAPMessageContext context) {
+    public boolean handleMessage(MessageHandlerContext context) {
         Boolean outbound = (Boolean) context.get(MessageContext.MESSAGE_OUTBOUND_PROPERTY);
 
         if (!outbound) {
             // Inbound message - validate security
-            try {
-                SOAPMessage message = context.getMessage();
-                SOAPHeader header = message.getSOAPHeader();
-
-                if (header == null) {
-                    logger.error("No SOAP header found in request");
-                    generateSOAPFault(message, "Missing SOAP header");
-                    return false;
-                }
-
-                // Check for Security element
-                NodeList securityNodes = header.getElementsByTagNameNS(WSSE_NS, "Security");
-                if (securityNodes.getLength() == 0) {
-                    logger.error("No WS-Security header found");
-                    generateSOAPFault(message, "Missing WS-Security header");
-                    return false;
-                }
-
-                Element securityElement = (Element) securityNodes.item(0);
-
-                // Check for UsernameToken
-                NodeList usernameTokenNodes = securityElement.getElementsByTagNameNS(WSSE_NS, "UsernameToken");
-                if (usernameTokenNodes.getLength() == 0) {
-                    logger.error("No UsernameToken found in Security header");
-                    generateSOAPFault(message, "Missing UsernameToken");
-                    return false;
-                }
-
-                Element usernameToken = (Element) usernameTokenNodes.item(0);
-
-                // Extract username and password
-                NodeList usernameNodes = usernameToken.getElementsByTagNameNS(WSSE_NS, "Username");
-                NodeList passwordNodes = usernameToken.getElementsByTagNameNS(WSSE_NS, "Password");
-
-                if (usernameNodes.getLength() == 0 || passwordNodes.getLength() == 0) {
-                    logger.error("Username or Password missing in UsernameToken");
-                    generateSOAPFault(message, "Invalid UsernameToken");
-                    return false;
-                }
+            Message message = context.getMessage();
+            if (message == null || !message.hasHeaders()) {
+                logger.error("No SOAP header found in request");
+                throw securityFault("Missing SOAP header");
+            }
 
-                String username = usernameNodes.item(0).getTextContent();
-                Element passwordElement = (Element) passwordNodes.item(0);
-                String password = passwordElement.getTextContent();
-                String passwordType = passwordElement.getAttribute("Type");
+            // Marks the header as understood for mustUnderstand processing
+            Header securityHeader = message.getHeaders().get(SECURITY_HEADER, true);
+            if (securityHeader == null) {
+                logger.error("No WS-Security header found");
+                throw securityFault("Missing WS-Security header");
+            }
 
-                // Validate credentials
-                if (!validateCredentials(username, password, passwordType)) {
-                    logger.error("Invalid credentials for user: {}", username);
-                    generateSOAPFault(message, "Authentication failed");
-                    return false;
+            UsernameToken token;
+            try {
+                XMLStreamReader reader = securityHeader.readHeader();
+                try {
+                    token = UsernameToken.parse(reader);
+                } finally {
+                    reader.close();
                 }
-
-                logger.info("User {} authenticated successfully", username);
-
-                // Store username in context for potential use in service
-                context.put("authenticated.user", username);
-                context.setScope("authenticated.user", MessageContext.Scope.APPLICATION);
-
-            } catch (Exception e) {
+            } catch (XMLStreamException e) {
                 logger.error("Error processing security header", e);
-                return false;
+                throw securityFault("Malformed WS-Security header");
             }
-        }
 
-        return true;
-    }
-
-    private boolean validateCredentials(String username, String password, String passwordType) {
-        // Check if password is digest or plain text
-        boolean isDigest = passwordType != null &&
-                passwordType.contains("PasswordDigest");
-
-        if (isDigest) {
-            // For digest passwords, validate against hashed password
-            return validateDigestPassword(username, password);
-        } else {
-            // For plain text passwords
-            return validatePlainPassword(username, password);
-        }
-    }
+            if (token == null) {
+                logger.error("No UsernameToken found in Security header");
+                throw securityFault("Missing UsernameToken");
+            }
 
-    private boolean validatePlainPassword(String username, String password) {
-        // In production, check against database or LDAP
-        // For demo purposes, using hardcoded credentials
-        if ("admin".equals(username) && "admin123".equals(password)) {
-            return true;
-        }
-        if ("client1".equals(username) && "pass123".equals(password)) {
-            return true;
-        }
-        if ("partner".equals(username) && "partner456".equals(password)) {
-            return true;
-        }
-        return false;
-    }
+            if (token.getUsername() == null || token.getPassword() == null) {
+                logger.error("Username or Password missing in UsernameToken");
+                throw securityFault("Invalid UsernameToken");
+            }
 
-    private boolean validateDigestPassword(String username, String passwordDigest) {
-        // In production, retrieve stored password hash from database
-        // and compare with provided digest
-        try {
-            // For demo: create digest of known password and compare
-            String knownPassword = getPasswordForUser(username);
-            if (knownPassword == null) {
-                return false;
+            // Validate credentials
+            if (!UsernameTokenValidator.validate(token)) {
+                logger.error("Invalid credentials for user: {}", token.getUsername());
+                throw securityFault("Authentication failed");
             }
 
-            MessageDigest digest = MessageDigest.getInstance("SHA-1");
-            byte[] hash = digest.digest(knownPassword.getBytes());
-            String expectedDigest = Base64.getEncoder().encodeToString(hash);
+            logger.debug("User {} authenticated successfully", token.getUsername());
 
-            return expectedDigest.equals(passwordDigest);
-        } catch (Exception e) {
-            logger.error("Error validating digest password", e);
-            return false;
+            // Store username in context for potential use in service
+            context.put("authenticated.user", token.getUsername());
+            context.setScope("authenticated.user", MessageContext.Scope.APPLICATION);
         }
-    }
 
-    private String getPasswordForUser(String username) {
-        // In production, retrieve from database
-        switch (username) {
-            case "admin": return "admin123";
-            case "client1": return "pass123";
-            case "partner": return "partner456";
-            default: return null;
-        }
+        return true;
     }
 
-    private void generateSOAPFault(SOAPMessage message, String reason) {
+    private SOAPFaultException securityFault(String reason) {
         try {
-            SOAPBody body = message.getSOAPBody();
-            body.removeContents();
-            SOAPFault fault = body.addFault();
-            fault.setFaultCode("SOAP-ENV:Client");
-            fault.setFaultString("WS-Security Error: " + reason);
+            SOAPFault fault = SOAPFactory.newInstance().createFault(
+                    "WS-Security Error: " + reason,
+                    new QName(SOAPConstants.URI_NS_SOAP_ENVELOPE, "Client"));
             fault.setFaultActor("CatalogService");
 
             // Add detail element
             Detail detail = fault.addDetail();
-            SOAPElement detailEntry = detail.addChildElement("error", "sec",
-                    "http://globalbooks.com/security");
-            detailEntry.addTextNode(reason);
-
+            detail.addDetailEntry(new QName(SECURITY_FAULT_NS, "error", "sec")).addTextNode(reason);
+            return new SOAPFaultException(fault);
         } catch (SOAPException e) {
             logger.error("Error generating SOAP fault", e);
+            throw new IllegalStateException("WS-Security Error: " + reason, e);
         }
     }
 
     @Override
-    public boolean handleFault(SOAPMessageContext context) {
+    public boolean handleFault(MessageHandlerContext context) {
         return true;
     }
 
@@ -187,9 +114,6 @@ public class WSSecurityHandler implements SOAPHandler<SOAPMessageContext> {
 
     @Override
     public Set<QName> getHeaders() {
-        // Fixed: Use HashSet instead of TreeSet
-        Set<QName> headers = new HashSet<>();
-        headers.add(new QName(WSSE_NS, "Security", WSSE_PREFIX));
-        return headers;
+        return Collections.singleton(SECURITY_HEADER);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,153 @@
+package com.globalbooks.catalog.server;
+
+import com.globalbooks.catalog.cache.SoapResponseCache;
+import com.globalbooks.catalog.config.CatalogConfig;
+import com.globalbooks.catalog.inventory.InventoryLedger;
+import com.globalbooks.catalog.security.CredentialCache;
+import com.globalbooks.catalog.service.CatalogServiceImpl;
+import com.globalbooks.catalog.util.DatabaseConnection;
+import com.globalbooks.catalog.web.JsonApi;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import javax.xml.ws.Endpoint;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Standalone launcher that publishes the Catalog SOAP endpoint on the JDK
+ * HTTP server instead of the servlet container. Each request is dispatched
+ * to the configured executor; with "virtual" every request gets its own
+ * virtual thread, so a request waiting on JDBC holds no platform thread and
+ * concurrency is limited by the Hikari pool rather than a worker count.
+ * The JSON read API is served alongside at /api/v1; the export and import
+ * servlets are only available in the WAR.
+ */
+public class CatalogServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogServer.class);
+    public static final String SERVICE_PATH = "/services/catalog";
+
+    public static final String JSON_API_PATH = JsonApiHandler.PATH;
+
+    private final int port;
+    private final ExecutorService executor;
+    private HttpServer httpServer;
+    private Endpoint endpoint;
+    private JsonApi jsonApi;
+
+    public CatalogServer(int port, ExecutorService executor) {
+        this.port = port;
+        this.executor = executor;
+    }
+
+    public synchronized void start() {
+        if (endpoint != null) {
+            return;
+        }
+        try {
+            httpServer = HttpServer.create(new InetSocketAddress(port), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot listen on port " + port, e);
+        }
+        httpServer.setExecutor(executor);
+
+        // @HandlerChain on the implementation installs WSSecurityHandler as in the WAR
+        endpoint = Endpoint.create(new CatalogServiceImpl());
+        HttpContext soapContext = httpServer.createContext(SERVICE_PATH);
+        if (CatalogConfig.SOAP_RESPONSE_CACHE_ENABLED) {
+            soapContext.getFilters().add(new SoapResponseCacheHttpFilter(SoapResponseCache.getInstance()));
+        }
+        endpoint.publish(soapContext);
+        jsonApi = JsonApi.create();
+        httpServer.createContext(JSON_API_PATH, new JsonApiHandler(jsonApi));
+        httpServer.start();
+        logger.info("Catalog SOAP endpoint published at http://0.0.0.0:{}{}, JSON API at {}",
+                port, SERVICE_PATH, JSON_API_PATH);
+    }
+
+    public synchronized void stop() {
+        // Disposing the endpoint runs CatalogServiceImpl.shutdown()
+        if (endpoint != null) {
+            endpoint.stop();
+            endpoint = null;
+        }
+        if (jsonApi != null) {
+            jsonApi.shutdown();
+            jsonApi = null;
+        }
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Catalog SOAP endpoint stopped");
+    }
+
+    /**
+     * "virtual" uses a virtual-thread-per-task executor when the runtime
+     * provides one (JDK 21+) and falls back to a bounded pool otherwise;
+     * "pool" is a fixed pool of maxThreads, like a servlet connector.
+     */
+    public static ExecutorService newRequestExecutor(String mode, int maxThreads) {
+        if ("virtual".equalsIgnoreCase(mode)) {
+            ExecutorService virtual = newVirtualThreadExecutor();
+            if (virtual != null) {
+                logger.info("Dispatching catalog requests on virtual threads");
+                return virtual;
+            }
+            logger.warn("Virtual threads not available on Java {}; using a pool of {} threads",
+                    System.getProperty("java.version"), maxThreads);
+        } else if (!"pool".equalsIgnoreCase(mode)) {
+            throw new IllegalArgumentException("Unknown executor mode: " + mode);
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread thread = new Thread(r, "catalog-request-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    // Looked up reflectively so the service still builds and runs on Java 11
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : CatalogConfig.SERVER_PORT;
+        CatalogServer server = new CatalogServer(port,
+                newRequestExecutor(CatalogConfig.SERVER_EXECUTOR, CatalogConfig.SERVER_MAX_THREADS));
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            InventoryLedger.shutdownInstance();
+            CredentialCache.shutdownInstance();
+            DatabaseConnection.closeDataSource();
+        }, "catalog-server-shutdown"));
+
+        server.start();
+    }
+}
@@ -0,0 +1,72 @@
+package com.globalbooks.catalog.server;
+
+import com.globalbooks.catalog.web.JsonApi;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+// Serves JsonApi on the embedded JDK HTTP server, as JsonApiServlet does in the WAR
+class JsonApiHandler implements HttpHandler {
+
+    static final String PATH = "/api/v1";
+
+    private final JsonApi api;
+
+    JsonApiHandler(JsonApi api) {
+        this.api = api;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+            String path = exchange.getRequestURI().getPath().substring(PATH.length());
+            JsonApi.Response result = api.handle(new JsonApi.Request() {
+                @Override
+                public String getMethod() { return exchange.getRequestMethod(); }
+
+                @Override
+                public String getPath() { return path; }
+
+                @Override
+                public String getParameter(String name) { return parameters.get(name); }
+
+                @Override
+                public String getHeader(String name) { return exchange.getRequestHeaders().getFirst(name); }
+            });
+
+            for (Map.Entry<String, String> header : result.getHeaders().entrySet()) {
+                exchange.getResponseHeaders().set(header.getKey(), header.getValue());
+            }
+            byte[] body = result.getBody();
+            exchange.sendResponseHeaders(result.getStatus(), body.length == 0 ? -1 : body.length);
+            if (body.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // First value wins, as with ServletRequest.getParameter
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            parameters.putIfAbsent(name, value);
+        }
+        return parameters;
+    }
+}
@@ -0,0 +1,90 @@
+package com.globalbooks.catalog.server;
+
+import com.globalbooks.catalog.cache.SoapResponseCache;
+import com.globalbooks.catalog.security.SoapReadRequest;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.ByteArrayInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+
+// Serves SoapResponseCache on the embedded JDK HTTP server, as the web.SoapResponseCacheFilter does in the WAR
+class SoapResponseCacheHttpFilter extends Filter {
+
+    private final SoapResponseCache cache;
+
+    SoapResponseCacheHttpFilter(SoapResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            chain.doFilter(exchange);
+            return;
+        }
+
+        InputStream in = exchange.getRequestBody();
+        byte[] body = SoapResponseCache.readRequest(in, SoapResponseCache.MAX_REQUEST_BYTES);
+        if (body.length > SoapResponseCache.MAX_REQUEST_BYTES) {
+            exchange.setStreams(new SequenceInputStream(new ByteArrayInputStream(body), in), null);
+            chain.doFilter(exchange);
+            return;
+        }
+
+        SoapReadRequest soapRequest = SoapReadRequest.parse(body);
+        String key = cache.keyFor(soapRequest);
+        SoapResponseCache.CachedResponse cached = key != null ? cache.get(key) : null;
+        if (cached != null && soapRequest.authenticate()) {
+            try {
+                exchange.getResponseHeaders().set("Content-Type", cached.getContentType());
+                exchange.sendResponseHeaders(200, cached.getBody().length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(cached.getBody());
+                }
+            } finally {
+                exchange.close();
+            }
+            cache.served(soapRequest);
+            return;
+        }
+
+        if (key == null) {
+            exchange.setStreams(new ByteArrayInputStream(body), null);
+            chain.doFilter(exchange);
+            return;
+        }
+
+        // The endpoint has no executor of its own, so the response is complete when the chain returns
+        SoapResponseCache.Capture capture = new SoapResponseCache.Capture();
+        exchange.setStreams(new ByteArrayInputStream(body), new FilterOutputStream(exchange.getResponseBody()) {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                capture.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+                capture.write(b, off, len);
+            }
+        });
+        chain.doFilter(exchange);
+
+        byte[] captured = capture.toByteArray();
+        String contentType = exchange.getResponseHeaders().getFirst("Content-Type");
+        if (captured != null && exchange.getResponseCode() == 200 && contentType != null
+                && exchange.getResponseHeaders().getFirst("Content-Encoding") == null) {
+            cache.put(key, captured, contentType);
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Serialized responses for repeated single-product SOAP reads";
+    }
+}
@@ -21,6 +21,26 @@ public interface CatalogService {
     @WebResult(name = "products")
     List<Product> searchProducts(@WebParam(name = "criteria") SearchCriteria criteria) throws CatalogException;
 
+    @WebMethod
+    @WebResult(name = "productSummaries")
+    List<ProductSummary> searchProductSummaries(@WebParam(name = "criteria") SearchCriteria criteria) throws CatalogException;
+
+    @WebMethod
+    @WebResult(name = "productPage")
+    ProductPage searchProductsPage(@WebParam(name = "criteria") SearchCriteria criteria) throws CatalogException;
+
+    @WebMethod
+    @WebResult(name = "facetedSearchResult")
+    FacetedSearchResult searchProductsWithFacets(@WebParam(name = "criteria") SearchCriteria criteria)
+            throws CatalogException;
+
+    @WebMethod
+    @WebResult(name = "suggestions")
+    List<Suggestion> suggestProducts(
+            @WebParam(name = "prefix") String prefix,
+            @WebParam(name = "maxResults") int maxResults
+    ) throws CatalogException;
+
     @WebMethod
     @WebResult(name = "priceQuote")
     PriceQuote getProductPrice(
@@ -32,6 +52,30 @@ public interface CatalogService {
     @WebResult(name = "inventoryStatus")
     InventoryStatus checkInventory(@WebParam(name = "productId") String productId) throws CatalogException;
 
+    @WebMethod
+    @WebResult(name = "productResult")
+    List<ProductResult> getProductsByIds(
+            @WebParam(name = "productId") List<String> productIds
+    ) throws CatalogException;
+
+    @WebMethod
+    @WebResult(name = "priceQuoteResult")
+    List<PriceQuoteResult> getProductPrices(
+            @WebParam(name = "item") List<PriceQuoteRequest> items
+    ) throws CatalogException;
+
+    @WebMethod
+    @WebResult(name = "cartQuote")
+    CartQuote getCartQuote(
+            @WebParam(name = "item") List<PriceQuoteRequest> items
+    ) throws CatalogException;
+
+    @WebMethod
+    @WebResult(name = "inventoryResult")
+    List<InventoryResult> checkInventoryBatch(
+            @WebParam(name = "productId") List<String> productIds
+    ) throws CatalogException;
+
     @WebMethod
     @WebResult(name = "success")
     boolean updateInventory(
@@ -39,4 +83,17 @@ public interface CatalogService {
             @WebParam(name = "quantity") int quantity,
             @WebParam(name = "operation") String operation
     ) throws CatalogException;
-}
\ No newline at end of file
+
+    @WebMethod
+    @WebResult(name = "reservationResult")
+    ReservationResult reserveInventory(
+            @WebParam(name = "line") List<InventoryLine> lines
+    ) throws CatalogException;
+
+    @WebMethod
+    @WebResult(name = "success")
+    boolean settleReservation(
+            @WebParam(name = "reservationId") long reservationId,
+            @WebParam(name = "operation") String operation
+    ) throws CatalogException;
+}
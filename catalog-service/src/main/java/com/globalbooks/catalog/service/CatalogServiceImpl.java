@@ -1,18 +1,36 @@
 // Location: src/main/java/com/globalbooks/catalog/service/CatalogServiceImpl.java
 package com.globalbooks.catalog.service;
 
+import com.globalbooks.catalog.cache.SoapResponseCache;
+import com.globalbooks.catalog.config.CatalogConfig;
+import com.globalbooks.catalog.config.SecurityConfig;
+import com.globalbooks.catalog.dao.CachingProductDAO;
+import com.globalbooks.catalog.dao.ProductChangeListener;
 import com.globalbooks.catalog.dao.ProductDAO;
 import com.globalbooks.catalog.dao.ProductDAOImpl;
 import com.globalbooks.catalog.exception.CatalogException;
+import com.globalbooks.catalog.inventory.ReservationSweeper;
+import com.globalbooks.catalog.metrics.TimingProxy;
 import com.globalbooks.catalog.model.*;
+import com.globalbooks.catalog.pricing.PricingEngine;
+import com.globalbooks.catalog.search.ProductPopularity;
+import com.globalbooks.catalog.search.ProductSearchEngine;
+import com.globalbooks.catalog.search.ProductSuggester;
+import com.globalbooks.catalog.security.CredentialCache;
+import com.globalbooks.catalog.util.ChangeNotificationListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import javax.jws.WebService;
 import javax.jws.HandlerChain;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 import javax.xml.ws.WebServiceContext;
 import javax.xml.ws.handler.MessageContext;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @WebService(
         endpointInterface = "com.globalbooks.catalog.service.CatalogService",
@@ -25,15 +43,119 @@ public class CatalogServiceImpl implements CatalogService {
 
     private static final Logger logger = LoggerFactory.getLogger(CatalogServiceImpl.class);
     private final ProductDAO productDAO;
+    private final ProductSearchEngine searchEngine;
+    private final ProductSuggester suggester;
+    private final PricingEngine pricingEngine;
+    private final ReservationSweeper reservationSweeper;
+    private final ChangeNotificationListener changeNotificationListener;
+    // Registered on ProductDAOImpl's static list; removed in shutdown() so they do not outlive this instance
+    private final List<ProductChangeListener> changeListeners = new ArrayList<>();
 
     @Resource
     private WebServiceContext wsContext;
 
     public CatalogServiceImpl() {
-        this.productDAO = new ProductDAOImpl();
+        // Timed at the database boundary, beneath the cache
+        ProductDAO databaseDAO = TimingProxy.wrap(ProductDAO.class, new ProductDAOImpl());
+        CachingProductDAO cachingDAO = new CachingProductDAO(databaseDAO);
+        register(cachingDAO);
+        this.productDAO = cachingDAO;
+
+        // After the product cache, so a response re-rendered on a miss is built from fresh data
+        if (CatalogConfig.SOAP_RESPONSE_CACHE_ENABLED) {
+            register(SoapResponseCache.getInstance());
+        }
+
+        if (CatalogConfig.SEARCH_INDEX_ENABLED) {
+            this.searchEngine = new ProductSearchEngine(databaseDAO);
+            register(searchEngine);
+            searchEngine.start(CatalogConfig.SEARCH_INDEX_VERIFY_INTERVAL_MILLIS);
+        } else {
+            this.searchEngine = null;
+        }
+
+        if (CatalogConfig.SUGGEST_ENABLED) {
+            this.suggester = new ProductSuggester(databaseDAO);
+            register(suggester);
+            suggester.start(CatalogConfig.SUGGEST_REWEIGHT_INTERVAL_MILLIS);
+        } else {
+            this.suggester = null;
+        }
+
+        this.pricingEngine = new PricingEngine(productDAO);
+        register(pricingEngine);
+        pricingEngine.start(CatalogConfig.PRICING_REFRESH_INTERVAL_MILLIS);
+
+        if (CatalogConfig.RESERVATION_SWEEP_ENABLED) {
+            this.reservationSweeper = new ReservationSweeper(CatalogConfig.RESERVATION_SWEEP_BATCH_SIZE,
+                    ProductDAOImpl::notifyProductChanged);
+            reservationSweeper.start(CatalogConfig.RESERVATION_SWEEP_INTERVAL_MILLIS);
+        } else {
+            this.reservationSweeper = null;
+        }
+
+        if (CatalogConfig.CHANGE_NOTIFY_ENABLED) {
+            this.changeNotificationListener = new ChangeNotificationListener(remoteChanges(),
+                    CatalogConfig.CHANGE_NOTIFY_POLL_MILLIS, CatalogConfig.CHANGE_NOTIFY_RECONNECT_MAX_MILLIS);
+            changeNotificationListener.start();
+        } else {
+            this.changeNotificationListener = null;
+        }
         logger.info("CatalogService initialized with WS-Security enabled");
     }
 
+    private void register(ProductChangeListener listener) {
+        ProductDAOImpl.addChangeListener(listener);
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Stops the background threads this instance started and detaches its
+     * change listeners. The JAX-WS runtime calls it when the endpoint is
+     * disposed, on undeploy in the WAR and on Endpoint.stop() in CatalogServer.
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (ProductChangeListener listener : changeListeners) {
+            ProductDAOImpl.removeChangeListener(listener);
+        }
+        changeListeners.clear();
+        if (changeNotificationListener != null) {
+            changeNotificationListener.shutdown();
+        }
+        if (reservationSweeper != null) {
+            reservationSweeper.shutdown();
+        }
+        pricingEngine.shutdown();
+        if (suggester != null) {
+            suggester.shutdown();
+        }
+        if (searchEngine != null) {
+            searchEngine.shutdown();
+        }
+        logger.info("CatalogService shut down");
+    }
+
+    // Changes written by other nodes go through the same notifications as local writes
+    private static ProductChangeListener remoteChanges() {
+        return new ProductChangeListener() {
+            @Override
+            public void productChanged(String productId) {
+                ProductDAOImpl.notifyProductChanged(productId);
+            }
+
+            @Override
+            public void productDeleted(String productId) {
+                ProductDAOImpl.notifyProductDeleted(productId);
+            }
+
+            @Override
+            public void catalogReloaded() {
+                ProductDAOImpl.notifyCatalogReloaded();
+            }
+        };
+    }
+
     @Override
     public Product getProductById(String productId) throws CatalogException {
         // Get authenticated user from context (optional)
@@ -51,6 +173,7 @@ public class CatalogServiceImpl implements CatalogService {
                         "Product with ID " + productId + " not found");
             }
             logger.info("Product {} found for user {}", productId, authenticatedUser);
+            ProductPopularity.recordView(productId);
             return product;
         } catch (CatalogException e) {
             throw e;
@@ -68,9 +191,12 @@ public class CatalogServiceImpl implements CatalogService {
         if (criteria == null) {
             throw new CatalogException("INVALID_INPUT", "Search criteria cannot be null");
         }
+        validateSimilarity(criteria);
 
         try {
-            List<Product> products = productDAO.search(criteria);
+            List<Product> products = useSearchIndex(criteria)
+                    ? searchIndexed(criteria)
+                    : productDAO.search(criteria);
             logger.info("Found {} products for user {}", products.size(), authenticatedUser);
             return products;
         } catch (Exception e) {
@@ -79,6 +205,127 @@ public class CatalogServiceImpl implements CatalogService {
         }
     }
 
+    @Override
+    public List<ProductSummary> searchProductSummaries(SearchCriteria criteria) throws CatalogException {
+        String authenticatedUser = getAuthenticatedUser();
+        logger.info("User {} searching product summaries", authenticatedUser);
+
+        if (criteria == null) {
+            throw new CatalogException("INVALID_INPUT", "Search criteria cannot be null");
+        }
+        validateSimilarity(criteria);
+
+        try {
+            List<ProductSummary> summaries;
+            if (useSearchIndex(criteria)) {
+                // Hits come back as cached full products; project them without another query
+                List<Product> products = searchIndexed(criteria);
+                summaries = new ArrayList<>(products.size());
+                for (Product product : products) {
+                    summaries.add(new ProductSummary(product));
+                }
+            } else {
+                summaries = productDAO.searchSummaries(criteria);
+            }
+            logger.info("Found {} product summaries for user {}", summaries.size(), authenticatedUser);
+            return summaries;
+        } catch (Exception e) {
+            logger.error("Error searching product summaries", e);
+            throw new CatalogException("DATABASE_ERROR", "Failed to search products", e);
+        }
+    }
+
+    @Override
+    public ProductPage searchProductsPage(SearchCriteria criteria) throws CatalogException {
+        String authenticatedUser = getAuthenticatedUser();
+        logger.info("User {} searching products page", authenticatedUser);
+
+        if (criteria == null) {
+            throw new CatalogException("INVALID_INPUT", "Search criteria cannot be null");
+        }
+
+        if (criteria.getMaxResults() <= 0) {
+            throw new CatalogException("INVALID_INPUT", "Max results must be greater than zero");
+        }
+
+        // Keyset pages follow (title, product_id) order, which only the LIKE mode produces
+        if (criteria.getSearchMode() != null && criteria.getSearchMode() != SearchMode.LIKE) {
+            throw new CatalogException("INVALID_INPUT",
+                    "Paged search is only supported in LIKE search mode");
+        }
+
+        try {
+            ProductPage page = productDAO.searchPage(criteria);
+            if (page == null) {
+                throw new CatalogException("DATABASE_ERROR", "Failed to search products");
+            }
+            logger.info("Found {} products for user {} (more: {})", page.getProducts().size(),
+                    authenticatedUser, page.getNextPageToken() != null);
+            return page;
+        } catch (IllegalArgumentException e) {
+            throw new CatalogException("INVALID_INPUT", "Invalid page token", e);
+        } catch (CatalogException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error searching products page", e);
+            throw new CatalogException("DATABASE_ERROR", "Failed to search products", e);
+        }
+    }
+
+    @Override
+    public FacetedSearchResult searchProductsWithFacets(SearchCriteria criteria) throws CatalogException {
+        String authenticatedUser = getAuthenticatedUser();
+        logger.info("User {} searching products with facets", authenticatedUser);
+
+        if (criteria == null) {
+            throw new CatalogException("INVALID_INPUT", "Search criteria cannot be null");
+        }
+        validateSimilarity(criteria);
+
+        // Facets are counted in SQL, which cannot reproduce the in-memory tokenizer's matches
+        if (criteria.getSearchMode() == SearchMode.INDEXED) {
+            throw new CatalogException("INVALID_INPUT",
+                    "Faceted search is not supported in INDEXED search mode");
+        }
+
+        try {
+            SearchFacets facets = productDAO.searchFacets(criteria);
+            if (facets == null) {
+                throw new CatalogException("DATABASE_ERROR", "Failed to compute search facets");
+            }
+            List<Product> products = facets.getTotalMatches() == 0
+                    ? new ArrayList<>()
+                    : productDAO.search(criteria);
+            logger.info("Found {} of {} matching products for user {}", products.size(),
+                    facets.getTotalMatches(), authenticatedUser);
+            return new FacetedSearchResult(products, facets);
+        } catch (CatalogException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error searching products with facets", e);
+            throw new CatalogException("DATABASE_ERROR", "Failed to search products", e);
+        }
+    }
+
+    @Override
+    public List<Suggestion> suggestProducts(String prefix, int maxResults) throws CatalogException {
+        if (prefix == null || prefix.trim().isEmpty()) {
+            throw new CatalogException("INVALID_INPUT", "Prefix cannot be null or empty");
+        }
+
+        if (maxResults <= 0 || maxResults > CatalogConfig.SUGGEST_MAX_RESULTS) {
+            throw new CatalogException("INVALID_INPUT",
+                    "Max results must be between 1 and " + CatalogConfig.SUGGEST_MAX_RESULTS);
+        }
+
+        // Called per keystroke: answered from memory only, empty until the index has loaded
+        if (suggester == null || !suggester.isReady()) {
+            logger.debug("Suggest index not available; no suggestions for '{}'", prefix);
+            return new ArrayList<>();
+        }
+        return suggester.suggest(prefix, maxResults);
+    }
+
     @Override
     public PriceQuote getProductPrice(String productId, int quantity) throws CatalogException {
         String authenticatedUser = getAuthenticatedUser();
@@ -94,13 +341,12 @@ public class CatalogServiceImpl implements CatalogService {
         }
 
         try {
-            Product product = productDAO.findById(productId);
-            if (product == null) {
+            PriceQuote quote = pricingEngine.quote(productId, quantity);
+            if (quote == null) {
                 throw new CatalogException("PRODUCT_NOT_FOUND",
                         "Product with ID " + productId + " not found");
             }
 
-            PriceQuote quote = new PriceQuote(productId, product.getPrice(), quantity);
             logger.info("Price quote generated for user {}: total={}",
                     authenticatedUser, quote.getTotal());
             return quote;
@@ -136,6 +382,84 @@ public class CatalogServiceImpl implements CatalogService {
         }
     }
 
+    @Override
+    public List<ProductResult> getProductsByIds(List<String> productIds) throws CatalogException {
+        String authenticatedUser = getAuthenticatedUser();
+        validateBatch(productIds, "Product IDs");
+        logger.info("User {} requesting {} products by ID", authenticatedUser, productIds.size());
+
+        try {
+            Map<String, Product> products = productDAO.findByIds(distinctIds(productIds));
+            List<ProductResult> results = new ArrayList<>(productIds.size());
+            for (String productId : productIds) {
+                results.add(new ProductResult(productId, products.get(productId)));
+            }
+            return results;
+        } catch (Exception e) {
+            logger.error("Error getting products by ID", e);
+            throw new CatalogException("DATABASE_ERROR", "Failed to retrieve products", e);
+        }
+    }
+
+    @Override
+    public List<PriceQuoteResult> getProductPrices(List<PriceQuoteRequest> items) throws CatalogException {
+        String authenticatedUser = getAuthenticatedUser();
+        validateBatch(items, "Price quote items");
+        logger.info("User {} requesting {} price quotes", authenticatedUser, items.size());
+
+        validateQuoteItems(items);
+
+        try {
+            List<PriceQuote> quotes = pricingEngine.quote(items);
+            List<PriceQuoteResult> results = new ArrayList<>(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                results.add(new PriceQuoteResult(items.get(i).getProductId(), quotes.get(i)));
+            }
+            return results;
+        } catch (Exception e) {
+            logger.error("Error generating price quotes", e);
+            throw new CatalogException("CALCULATION_ERROR", "Failed to calculate prices", e);
+        }
+    }
+
+    @Override
+    public CartQuote getCartQuote(List<PriceQuoteRequest> items) throws CatalogException {
+        String authenticatedUser = getAuthenticatedUser();
+        validateBatch(items, "Cart items");
+        logger.info("User {} requesting a cart quote for {} items", authenticatedUser, items.size());
+        validateQuoteItems(items);
+
+        try {
+            CartQuote cart = pricingEngine.quoteCart(items);
+            logger.info("Cart quote generated for user {}: total={}", authenticatedUser, cart.getTotal());
+            return cart;
+        } catch (IllegalArgumentException e) {
+            throw new CatalogException("INVALID_INPUT", e.getMessage(), e);
+        } catch (Exception e) {
+            logger.error("Error generating cart quote", e);
+            throw new CatalogException("CALCULATION_ERROR", "Failed to calculate cart price", e);
+        }
+    }
+
+    @Override
+    public List<InventoryResult> checkInventoryBatch(List<String> productIds) throws CatalogException {
+        String authenticatedUser = getAuthenticatedUser();
+        validateBatch(productIds, "Product IDs");
+        logger.info("User {} checking inventory for {} products", authenticatedUser, productIds.size());
+
+        try {
+            Map<String, InventoryStatus> statuses = productDAO.getInventoryStatuses(distinctIds(productIds));
+            List<InventoryResult> results = new ArrayList<>(productIds.size());
+            for (String productId : productIds) {
+                results.add(new InventoryResult(productId, statuses.get(productId)));
+            }
+            return results;
+        } catch (Exception e) {
+            logger.error("Error checking inventory batch", e);
+            throw new CatalogException("DATABASE_ERROR", "Failed to check inventory", e);
+        }
+    }
+
     @Override
     public boolean updateInventory(String productId, int quantity, String operation)
             throws CatalogException {
@@ -181,6 +505,132 @@ public class CatalogServiceImpl implements CatalogService {
         }
     }
 
+    private boolean useSearchIndex(SearchCriteria criteria) {
+        // INDEXED mode is answered in memory once the index is built;
+        // until then it falls back to the database LIKE path
+        return criteria.getSearchMode() == SearchMode.INDEXED
+                && searchEngine != null && searchEngine.isReady();
+    }
+
+    private List<Product> searchIndexed(SearchCriteria criteria) {
+        List<String> productIds = searchEngine.search(criteria);
+        Map<String, Product> found = productDAO.findByIds(productIds);
+        List<Product> products = new ArrayList<>(productIds.size());
+        for (String productId : productIds) {
+            Product product = found.get(productId);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return products;
+    }
+
+    private void validateBatch(List<?> items, String name) throws CatalogException {
+        if (items == null || items.isEmpty()) {
+            throw new CatalogException("INVALID_INPUT", name + " cannot be null or empty");
+        }
+        if (items.size() > CatalogConfig.BATCH_MAX_SIZE) {
+            throw new CatalogException("INVALID_INPUT",
+                    name + " cannot exceed " + CatalogConfig.BATCH_MAX_SIZE + " entries");
+        }
+    }
+
+    private void validateSimilarity(SearchCriteria criteria) throws CatalogException {
+        Double minSimilarity = criteria.getMinSimilarity();
+        if (minSimilarity != null && !(minSimilarity > 0 && minSimilarity <= 1)) {
+            throw new CatalogException("INVALID_INPUT", "Min similarity must be greater than 0 and at most 1");
+        }
+    }
+
+    private void validateQuoteItems(List<PriceQuoteRequest> items) throws CatalogException {
+        for (PriceQuoteRequest item : items) {
+            if (item == null || item.getQuantity() <= 0) {
+                throw new CatalogException("INVALID_INPUT", "Quantity must be greater than zero");
+            }
+        }
+    }
+
+    private Set<String> distinctIds(List<String> productIds) {
+        // Blank IDs are reported back as not found rather than queried
+        Set<String> ids = new LinkedHashSet<>();
+        for (String productId : productIds) {
+            if (productId != null && !productId.trim().isEmpty()) {
+                ids.add(productId);
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public ReservationResult reserveInventory(List<InventoryLine> lines) throws CatalogException {
+        String authenticatedUser = getAuthenticatedUser();
+
+        if (!hasUpdatePermission(authenticatedUser)) {
+            logger.error("User {} does not have permission to update inventory", authenticatedUser);
+            throw new CatalogException("AUTHORIZATION_ERROR",
+                    "User does not have permission to update inventory");
+        }
+
+        validateBatch(lines, "Inventory lines");
+        for (InventoryLine line : lines) {
+            if (line == null || line.getProductId() == null || line.getProductId().trim().isEmpty()) {
+                throw new CatalogException("INVALID_INPUT", "Product ID cannot be null or empty");
+            }
+            if (line.getQuantity() <= 0) {
+                throw new CatalogException("INVALID_INPUT", "Quantity must be greater than zero");
+            }
+        }
+
+        logger.info("User {} reserving inventory for {} lines", authenticatedUser, lines.size());
+
+        try {
+            ReservationResult result = productDAO.reserveInventory(lines);
+            if (result == null) {
+                throw new CatalogException("UPDATE_FAILED", "Failed to reserve inventory");
+            }
+            logger.info("Reservation of {} lines by user {} {}", lines.size(), authenticatedUser,
+                    result.isSuccess() ? "committed" : "rolled back");
+            return result;
+        } catch (CatalogException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error reserving inventory", e);
+            throw new CatalogException("DATABASE_ERROR", "Failed to reserve inventory", e);
+        }
+    }
+
+    @Override
+    public boolean settleReservation(long reservationId, String operation) throws CatalogException {
+        String authenticatedUser = getAuthenticatedUser();
+
+        if (!hasUpdatePermission(authenticatedUser)) {
+            logger.error("User {} does not have permission to update inventory", authenticatedUser);
+            throw new CatalogException("AUTHORIZATION_ERROR",
+                    "User does not have permission to update inventory");
+        }
+
+        logger.info("User {} settling reservation {}, operation: {}", authenticatedUser, reservationId, operation);
+
+        if (operation == null || (!operation.equals("RELEASE") && !operation.equals("DEDUCT"))) {
+            throw new CatalogException("INVALID_INPUT", "Operation must be RELEASE or DEDUCT");
+        }
+
+        try {
+            boolean result = productDAO.settleReservation(reservationId, operation);
+            if (!result) {
+                throw new CatalogException("UPDATE_FAILED",
+                        "Reservation " + reservationId + " was not found; it may have expired or been settled");
+            }
+            logger.info("Reservation {} settled by user {}", reservationId, authenticatedUser);
+            return true;
+        } catch (CatalogException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error settling reservation", e);
+            throw new CatalogException("DATABASE_ERROR", "Failed to settle reservation", e);
+        }
+    }
+
     private String getAuthenticatedUser() {
         if (wsContext != null) {
             MessageContext msgContext = wsContext.getMessageContext();
@@ -193,8 +643,8 @@ public class CatalogServiceImpl implements CatalogService {
     }
 
     private boolean hasUpdatePermission(String username) {
-        // In production, check against database or role-based access control
-        // For demo: only admin and partner can update inventory
-        return "admin".equals(username) || "partner".equals(username);
+        // Only admin and partner roles can update inventory
+        return CredentialCache.getInstance().hasRole(username,
+                SecurityConfig.UserRole.ADMIN, SecurityConfig.UserRole.PARTNER);
     }
 }
\ No newline at end of file
@@ -0,0 +1,166 @@
+package com.globalbooks.catalog.util;
+
+import com.globalbooks.catalog.dao.ProductChangeListener;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps this node's caches coherent with writes made elsewhere. The
+ * notify_catalog_change triggers send one catalog_changes notification per
+ * changed product and transaction, formatted as "op|origin|productId" where op
+ * is U (changed) or D (deleted), or "*|origin|" when a statement touched too
+ * many products to list. Notifications from this node's own connections are
+ * skipped, since its writers already notify the local listeners.
+ *
+ * The listener holds a dedicated connection outside the pool. Notifications
+ * sent while it is disconnected are lost, so after every reconnect the target
+ * is told the whole catalog reloaded. An idle connection is probed every
+ * poll interval so a silently dropped one is noticed.
+ */
+public class ChangeNotificationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeNotificationListener.class);
+
+    public static final String CHANNEL = "catalog_changes";
+    private static final long INITIAL_RECONNECT_DELAY_MILLIS = 500;
+
+    private final ProductChangeListener target;
+    private final String ownOrigin;
+    private final int pollMillis;
+    private final long maxReconnectDelayMillis;
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread thread;
+
+    public ChangeNotificationListener(ProductChangeListener target, long pollMillis, long maxReconnectDelayMillis) {
+        this.target = target;
+        this.ownOrigin = DatabaseConnection.getApplicationName();
+        this.pollMillis = (int) Math.min(Integer.MAX_VALUE, Math.max(1, pollMillis));
+        this.maxReconnectDelayMillis = Math.max(INITIAL_RECONNECT_DELAY_MILLIS, maxReconnectDelayMillis);
+    }
+
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "catalog-change-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void shutdown() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            closeQuietly(connection);
+            thread = null;
+        }
+    }
+
+    private void run() {
+        boolean connectedBefore = false;
+        long delay = INITIAL_RECONNECT_DELAY_MILLIS;
+        while (running) {
+            try (Connection conn = DatabaseConnection.openDedicatedConnection()) {
+                connection = conn;
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("LISTEN " + CHANNEL);
+                }
+                logger.info("Listening for catalog changes on channel {}", CHANNEL);
+                if (connectedBefore) {
+                    // Anything sent while disconnected is gone
+                    logger.info("Change listener reconnected; resynchronizing local caches");
+                    target.catalogReloaded();
+                }
+                connectedBefore = true;
+                delay = INITIAL_RECONNECT_DELAY_MILLIS;
+                listen(conn);
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    break;
+                }
+                logger.warn("Change listener disconnected; reconnecting in {} ms", delay, e);
+            } finally {
+                connection = null;
+            }
+
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                break;
+            }
+            delay = Math.min(delay * 2, maxReconnectDelayMillis);
+        }
+        logger.info("Change listener stopped");
+    }
+
+    private void listen(Connection conn) throws SQLException {
+        PGConnection pgConnection = conn.unwrap(PGConnection.class);
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications(pollMillis);
+            if (notifications == null || notifications.length == 0) {
+                // A dead peer can leave the read above waiting forever without failing
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("SELECT 1");
+                }
+                continue;
+            }
+            dispatch(notifications);
+        }
+    }
+
+    // Collapses a burst to one call per product; a resync request supersedes the rest
+    private void dispatch(PGNotification[] notifications) {
+        Map<String, Boolean> deleted = new LinkedHashMap<>();
+        for (PGNotification notification : notifications) {
+            String payload = notification.getParameter();
+            int first = payload.indexOf('|');
+            int second = first < 0 ? -1 : payload.indexOf('|', first + 1);
+            if (second < 0) {
+                logger.warn("Ignoring malformed catalog change notification: {}", payload);
+                continue;
+            }
+            if (ownOrigin.equals(payload.substring(first + 1, second))) {
+                continue;
+            }
+
+            String op = payload.substring(0, first);
+            if ("*".equals(op)) {
+                target.catalogReloaded();
+                return;
+            }
+            String productId = payload.substring(second + 1);
+            deleted.remove(productId);
+            deleted.put(productId, "D".equals(op));
+        }
+
+        for (Map.Entry<String, Boolean> change : deleted.entrySet()) {
+            if (change.getValue()) {
+                target.productDeleted(change.getKey());
+            } else {
+                target.productChanged(change.getKey());
+            }
+        }
+        if (!deleted.isEmpty()) {
+            logger.debug("Applied {} remote catalog changes", deleted.size());
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                logger.debug("Error closing change listener connection", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.globalbooks.catalog.util;
+
+public final class CsvUtil {
+
+    private CsvUtil() {}
+
+    // RFC 4180 field: quoted only when it contains a separator, quote or line break
+    public static StringBuilder appendField(StringBuilder out, String value) {
+        if (value == null) {
+            return out;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            return out.append(value);
+        }
+        return out.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
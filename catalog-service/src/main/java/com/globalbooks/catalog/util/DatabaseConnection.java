@@ -1,5 +1,8 @@
 package com.globalbooks.catalog.util;
 
+import com.globalbooks.catalog.config.CatalogConfig;
+import com.globalbooks.catalog.metrics.CatalogMetrics;
+import com.globalbooks.catalog.metrics.InstrumentedJdbc;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import org.slf4j.Logger;
@@ -7,13 +10,45 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Connection pools for the catalog database. Writes use the primary pool via
+ * {@link #getConnection()}. If db.replica.url is set, {@link #getReadConnection()}
+ * serves reads from a read-only replica pool while the replica is reachable
+ * and its replay lag is under db.replica.maxLagMillis; otherwise reads fall
+ * back to the primary. For a local stand-in, point db.replica.url at the
+ * primary itself: the default lag query reports zero on a server that is not
+ * in recovery. db.replica.lagQuery=none skips the lag check altogether.
+ */
 public class DatabaseConnection {
 
     private static final Logger logger = LoggerFactory.getLogger(DatabaseConnection.class);
+    private static final String PRIMARY_POOL = "primary";
+    private static final String REPLICA_POOL = "replica";
+
+    // Zero when the replica has replayed everything it received, else milliseconds since the last replayed commit
+    private static final String DEFAULT_LAG_QUERY =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000, 0) END";
+
+    // Reported as application_name on primary connections so change notifications name their origin
+    private static final String APPLICATION_NAME = applicationName(CatalogConfig.NODE_ID);
+
+    private static Properties properties;
     private static HikariDataSource dataSource;
+    private static HikariDataSource replicaDataSource;
+    private static ScheduledExecutorService lagMonitor;
+    private static String lagQuery;
+    private static long replicaMaxLagMillis;
+    private static volatile boolean replicaHealthy;
 
     static {
         initializeDataSource();
@@ -22,27 +57,16 @@ public class DatabaseConnection {
     private static void initializeDataSource() {
         try {
             Properties props = loadProperties();
+            properties = props;
 
-            HikariConfig config = new HikariConfig();
-            config.setJdbcUrl(props.getProperty("db.url"));
-            config.setUsername(props.getProperty("db.username"));
-            config.setPassword(props.getProperty("db.password"));
-            config.setDriverClassName(props.getProperty("db.driver"));
-
-            // Connection pool settings
-            config.setMaximumPoolSize(10);
-            config.setMinimumIdle(5);
-            config.setIdleTimeout(300000);
-            config.setConnectionTimeout(20000);
-            config.setMaxLifetime(1200000);
+            dataSource = createPool(PRIMARY_POOL, props, "db.", false);
+            CatalogMetrics.get().registerMBean();
+            logger.info("Database connection pool initialized successfully (maximumPoolSize={})",
+                    dataSource.getMaximumPoolSize());
 
-            // Performance settings
-            config.addDataSourceProperty("cachePrepStmts", "true");
-            config.addDataSourceProperty("prepStmtCacheSize", "250");
-            config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
-
-            dataSource = new HikariDataSource(config);
-            logger.info("Database connection pool initialized successfully");
+            if (setting(props, "db.replica.url", null) != null) {
+                initializeReplica(props);
+            }
 
         } catch (Exception e) {
             logger.error("Failed to initialize database connection pool", e);
@@ -50,6 +74,70 @@ public class DatabaseConnection {
         }
     }
 
+    private static void initializeReplica(Properties props) {
+        replicaDataSource = createPool(REPLICA_POOL, props, "db.replica.", true);
+        replicaMaxLagMillis = intSetting(props, "db.replica.maxLagMillis", 5000);
+        String query = setting(props, "db.replica.lagQuery", DEFAULT_LAG_QUERY);
+        lagQuery = "none".equalsIgnoreCase(query) ? null : query;
+
+        checkReplica();
+        long interval = intSetting(props, "db.replica.lagCheckIntervalMillis", 2000);
+        lagMonitor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "catalog-replica-lag-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lagMonitor.scheduleWithFixedDelay(DatabaseConnection::checkReplica, interval, interval,
+                TimeUnit.MILLISECONDS);
+        logger.info("Read replica pool initialized (maximumPoolSize={}, maxLagMillis={})",
+                replicaDataSource.getMaximumPoolSize(), replicaMaxLagMillis);
+    }
+
+    // Replica settings fall back to the primary's (db.replica.username -> db.username, ...)
+    private static HikariDataSource createPool(String name, Properties props, String prefix, boolean readOnly) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(setting(props, prefix + "url", null));
+        config.setUsername(setting(props, prefix + "username", props.getProperty("db.username")));
+        config.setPassword(setting(props, prefix + "password", props.getProperty("db.password")));
+        config.setDriverClassName(setting(props, prefix + "driver", props.getProperty("db.driver")));
+
+        // Connection pool settings (db.pool.* / db.replica.pool.* in database.properties or as system properties)
+        config.setPoolName(name);
+        config.setReadOnly(readOnly);
+        if (readOnly) {
+            // A missing replica must not stop the service; the lag check keeps reads on the primary
+            config.setInitializationFailTimeout(-1);
+        }
+        config.setMaximumPoolSize(poolSetting(props, prefix, "maximumPoolSize", 10));
+        config.setMinimumIdle(poolSetting(props, prefix, "minimumIdle", 5));
+        config.setIdleTimeout(poolSetting(props, prefix, "idleTimeout", 300000));
+        config.setConnectionTimeout(poolSetting(props, prefix, "connectionTimeout", readOnly ? 2000 : 20000));
+        config.setMaxLifetime(poolSetting(props, prefix, "maxLifetime", 1200000));
+
+        if (!readOnly && isPostgres(config.getJdbcUrl())) {
+            config.addDataSourceProperty("ApplicationName", APPLICATION_NAME);
+        }
+
+        // Performance settings
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", "250");
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+
+        HikariDataSource pool = new HikariDataSource(config);
+        CatalogMetrics.get().registerPool(name, pool.getHikariPoolMXBean());
+        return pool;
+    }
+
+    // Postgres keeps up to 63 bytes of application_name; '|' separates notification fields
+    private static String applicationName(String nodeId) {
+        String name = "catalog-service/" + nodeId.replace('|', '_');
+        return name.length() > 63 ? name.substring(0, 63) : name;
+    }
+
+    private static boolean isPostgres(String url) {
+        return url != null && url.startsWith("jdbc:postgresql:");
+    }
+
     private static Properties loadProperties() throws IOException {
         Properties props = new Properties();
         try (InputStream input = DatabaseConnection.class.getClassLoader()
@@ -62,17 +150,134 @@ public class DatabaseConnection {
         return props;
     }
 
+    private static String setting(Properties props, String key, String defaultValue) {
+        String value = System.getProperty(key, props.getProperty(key));
+        return value != null && !value.trim().isEmpty() ? value.trim() : defaultValue;
+    }
+
+    private static int intSetting(Properties props, String key, int defaultValue) {
+        String value = setting(props, key, null);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    private static int poolSetting(Properties props, String prefix, String name, int defaultValue) {
+        return intSetting(props, prefix + "pool." + name, defaultValue);
+    }
+
+    private static void checkReplica() {
+        boolean healthy;
+        long lagMillis = 0;
+        try (Connection conn = replicaDataSource.getConnection()) {
+            if (lagQuery == null) {
+                healthy = conn.isValid(2);
+            } else {
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery(lagQuery)) {
+                    lagMillis = rs.next() ? rs.getLong(1) : 0;
+                }
+                healthy = lagMillis <= replicaMaxLagMillis;
+            }
+        } catch (SQLException e) {
+            logger.debug("Replica check failed", e);
+            healthy = false;
+            lagMillis = -1;
+        }
+
+        CatalogMetrics.get().recordReplicaLag(lagMillis);
+        if (healthy != replicaHealthy) {
+            if (healthy) {
+                logger.info("Read replica available (lag {} ms); routing reads to it", lagMillis);
+            } else {
+                logger.warn("Read replica unavailable or lagging (lag {} ms); routing reads to primary", lagMillis);
+            }
+        }
+        replicaHealthy = healthy;
+    }
+
     public static Connection getConnection() throws SQLException {
         if (dataSource == null) {
             throw new SQLException("DataSource is not initialized");
         }
-        return dataSource.getConnection();
+        return acquire(dataSource, PRIMARY_POOL);
+    }
+
+    /**
+     * Connection for read-only queries: the replica while it is healthy,
+     * otherwise the primary. Results may trail the primary by up to
+     * db.replica.maxLagMillis.
+     */
+    public static Connection getReadConnection() throws SQLException {
+        if (replicaDataSource != null && replicaHealthy) {
+            try {
+                Connection connection = acquire(replicaDataSource, REPLICA_POOL);
+                CatalogMetrics.get().recordReadRoute(REPLICA_POOL);
+                return connection;
+            } catch (SQLException e) {
+                // Stay on the primary until the next successful lag check
+                replicaHealthy = false;
+                logger.warn("Could not get a replica connection; routing reads to primary", e);
+            }
+        }
+        Connection connection = getConnection();
+        CatalogMetrics.get().recordReadRoute(PRIMARY_POOL);
+        return connection;
+    }
+
+    /**
+     * Opens an unpooled, uninstrumented connection to the primary, for sessions
+     * that hold a connection indefinitely (LISTEN) and must not tie up the pool.
+     * The caller closes it.
+     */
+    public static Connection openDedicatedConnection() throws SQLException {
+        if (properties == null) {
+            throw new SQLException("DataSource is not initialized");
+        }
+        String url = setting(properties, "db.url", null);
+        String driver = setting(properties, "db.driver", null);
+        if (driver != null) {
+            try {
+                // Registers the driver where DriverManager cannot see the webapp's classes
+                Class.forName(driver);
+            } catch (ClassNotFoundException e) {
+                throw new SQLException("JDBC driver not found: " + driver, e);
+            }
+        }
+        Properties info = new Properties();
+        info.setProperty("user", setting(properties, "db.username", ""));
+        info.setProperty("password", setting(properties, "db.password", ""));
+        if (isPostgres(url)) {
+            info.setProperty("ApplicationName", APPLICATION_NAME);
+        }
+        return DriverManager.getConnection(url, info);
+    }
+
+    public static String getApplicationName() {
+        return APPLICATION_NAME;
+    }
+
+    // Upper bound on how stale a replica read can be; zero without a replica
+    public static long getReplicaMaxLagMillis() {
+        return replicaDataSource != null ? replicaMaxLagMillis : 0;
+    }
+
+    private static Connection acquire(HikariDataSource pool, String name) throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = pool.getConnection();
+        CatalogMetrics.get().recordPoolAcquire(name, System.nanoTime() - start);
+        return CatalogConfig.JDBC_METRICS_ENABLED ? InstrumentedJdbc.wrap(connection) : connection;
     }
 
     public static void closeDataSource() {
+        if (lagMonitor != null) {
+            lagMonitor.shutdownNow();
+        }
+        if (replicaDataSource != null && !replicaDataSource.isClosed()) {
+            replicaDataSource.close();
+            logger.info("Replica connection pool closed");
+        }
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
             logger.info("Database connection pool closed");
         }
     }
-}
\ No newline at end of file
+}
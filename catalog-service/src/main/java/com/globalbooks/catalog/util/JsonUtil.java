@@ -0,0 +1,76 @@
+package com.globalbooks.catalog.util;
+
+import com.globalbooks.catalog.model.InventoryStatus;
+import com.globalbooks.catalog.model.Product;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+// Minimal JSON encoding for catalog models; avoids pulling a JSON library into the WAR
+public final class JsonUtil {
+
+    private JsonUtil() {}
+
+    public static void appendProduct(StringBuilder out, Product product) {
+        out.append('{');
+        appendField(out, "productId", product.getProductId()).append(',');
+        appendField(out, "title", product.getTitle()).append(',');
+        appendField(out, "author", product.getAuthor()).append(',');
+        appendField(out, "isbn", product.getIsbn()).append(',');
+        appendField(out, "description", product.getDescription()).append(',');
+        appendField(out, "category", product.getCategory()).append(',');
+        out.append("\"price\":").append(product.getPrice() == null ? "null" : product.getPrice().toPlainString()).append(',');
+        appendField(out, "currency", product.getCurrency()).append(',');
+        out.append("\"stockQuantity\":").append(product.getStockQuantity()).append(',');
+        appendField(out, "publishDate", formatDate(product.getPublishDate())).append(',');
+        appendField(out, "imageUrl", product.getImageUrl());
+        out.append('}');
+    }
+
+    // lastUpdated is left out: it is the time the status was read, and would change every response's ETag
+    public static void appendInventoryStatus(StringBuilder out, InventoryStatus status) {
+        out.append('{');
+        appendField(out, "productId", status.getProductId()).append(',');
+        out.append("\"availableQuantity\":").append(status.getAvailableQuantity()).append(',');
+        out.append("\"reservedQuantity\":").append(status.getReservedQuantity()).append(',');
+        out.append("\"inStock\":").append(status.isInStock()).append(',');
+        appendField(out, "warehouseLocation", status.getWarehouseLocation()).append(',');
+        appendField(out, "restockDate", formatDate(status.getRestockDate()));
+        out.append('}');
+    }
+
+    public static StringBuilder appendField(StringBuilder out, String name, String value) {
+        appendString(out, name);
+        out.append(':');
+        if (value == null) {
+            out.append("null");
+        } else {
+            appendString(out, value);
+        }
+        return out;
+    }
+
+    public static void appendString(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+
+    public static String formatDate(Date date) {
+        return date == null ? null : new SimpleDateFormat("yyyy-MM-dd").format(date);
+    }
+}
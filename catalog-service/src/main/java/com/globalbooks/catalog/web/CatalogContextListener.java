@@ -0,0 +1,32 @@
+package com.globalbooks.catalog.web;
+
+import com.globalbooks.catalog.inventory.InventoryLedger;
+import com.globalbooks.catalog.security.CredentialCache;
+import com.globalbooks.catalog.util.DatabaseConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+
+/**
+ * Releases the process-wide resources on undeploy, as CatalogServer's
+ * shutdown hook does for the standalone server. Declared before
+ * WSServletContextListener in web.xml, so it runs after the endpoint, and
+ * with it CatalogServiceImpl, has been disposed.
+ */
+public class CatalogContextListener implements ServletContextListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogContextListener.class);
+
+    @Override
+    public void contextInitialized(ServletContextEvent event) {
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent event) {
+        InventoryLedger.shutdownInstance();
+        CredentialCache.shutdownInstance();
+        DatabaseConnection.closeDataSource();
+        logger.info("Catalog resources released");
+    }
+}
@@ -0,0 +1,120 @@
+package com.globalbooks.catalog.web;
+
+import com.globalbooks.catalog.config.SecurityConfig;
+import com.globalbooks.catalog.dao.ProductDAO;
+import com.globalbooks.catalog.dao.ProductDAOImpl;
+import com.globalbooks.catalog.metrics.TimingProxy;
+import com.globalbooks.catalog.model.Product;
+import com.globalbooks.catalog.util.CsvUtil;
+import com.globalbooks.catalog.util.JsonUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streams the full catalog as NDJSON (default) or CSV for partner feeds.
+ * Rows are written as they are read from a server-side cursor, so memory use
+ * does not grow with catalog size.
+ *
+ * GET /export/products?format=ndjson|csv   (HTTP Basic, admin or partner)
+ */
+public class CatalogExportServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogExportServlet.class);
+    private static final String CSV_HEADER =
+            "product_id,title,author,isbn,description,category,price,currency,stock_quantity,publish_date,image_url";
+
+    private transient ProductDAO productDAO;
+
+    @Override
+    public void init() {
+        this.productDAO = TimingProxy.wrap(ProductDAO.class, new ProductDAOImpl());
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        SecurityConfig.UserInfo user = HttpBasicAuth.requireRole(request, response,
+                SecurityConfig.UserRole.ADMIN, SecurityConfig.UserRole.PARTNER);
+        if (user == null) {
+            return;
+        }
+        String username = user.getUsername();
+
+        String format = request.getParameter("format");
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (format != null && !csv && !"ndjson".equalsIgnoreCase(format)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "format must be ndjson or csv");
+            return;
+        }
+
+        response.setCharacterEncoding("UTF-8");
+        response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+        response.setHeader("Content-Disposition",
+                "attachment; filename=\"products." + (csv ? "csv" : "ndjson") + "\"");
+
+        long start = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8), 16384);
+        StringBuilder line = new StringBuilder(1024);
+        try {
+            if (csv) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            int count = productDAO.streamAll(product -> {
+                line.setLength(0);
+                if (csv) {
+                    appendCsv(line, product);
+                } else {
+                    JsonUtil.appendProduct(line, product);
+                }
+                line.append('\n');
+                try {
+                    writer.append(line);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+            logger.info("User {} exported {} products as {} in {} ms", username, count,
+                    csv ? "CSV" : "NDJSON", System.currentTimeMillis() - start);
+        } catch (UncheckedIOException e) {
+            // Client went away mid-stream; the cursor has already been closed
+            logger.warn("Catalog export aborted for user {}: {}", username, e.getCause().getMessage());
+        } catch (IllegalStateException e) {
+            logger.error("Catalog export failed for user {}", username, e);
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Catalog export failed");
+                return;
+            }
+            // Part of the body is out; failing the request makes the container drop the connection
+            // instead of ending the stream normally, so the client sees a truncated transfer
+            throw new IOException("Catalog export failed mid-stream", e);
+        }
+    }
+
+    private static void appendCsv(StringBuilder out, Product product) {
+        CsvUtil.appendField(out, product.getProductId()).append(',');
+        CsvUtil.appendField(out, product.getTitle()).append(',');
+        CsvUtil.appendField(out, product.getAuthor()).append(',');
+        CsvUtil.appendField(out, product.getIsbn()).append(',');
+        CsvUtil.appendField(out, product.getDescription()).append(',');
+        CsvUtil.appendField(out, product.getCategory()).append(',');
+        out.append(product.getPrice() == null ? "" : product.getPrice().toPlainString()).append(',');
+        CsvUtil.appendField(out, product.getCurrency()).append(',');
+        out.append(product.getStockQuantity()).append(',');
+        CsvUtil.appendField(out, JsonUtil.formatDate(product.getPublishDate())).append(',');
+        CsvUtil.appendField(out, product.getImageUrl());
+    }
+}
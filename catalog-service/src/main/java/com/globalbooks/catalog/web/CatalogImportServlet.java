@@ -0,0 +1,77 @@
+package com.globalbooks.catalog.web;
+
+import com.globalbooks.catalog.config.SecurityConfig;
+import com.globalbooks.catalog.importer.ImportError;
+import com.globalbooks.catalog.importer.ImportResult;
+import com.globalbooks.catalog.importer.ProductImporter;
+import com.globalbooks.catalog.util.JsonUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Bulk product import from a CSV request body; responds with a JSON summary
+ * including per-row errors and throughput.
+ *
+ * POST /import/products   (HTTP Basic, admin only, Content-Type: text/csv)
+ */
+public class CatalogImportServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogImportServlet.class);
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        SecurityConfig.UserInfo user = HttpBasicAuth.requireRole(request, response, SecurityConfig.UserRole.ADMIN);
+        if (user == null) {
+            return;
+        }
+        if (request.getCharacterEncoding() == null) {
+            request.setCharacterEncoding("UTF-8");
+        }
+
+        logger.info("User {} started a product import", user.getUsername());
+        ProductImporter importer = new ProductImporter();
+        ImportResult result;
+        try {
+            result = importer.importCsv(request.getReader());
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        response.setCharacterEncoding("UTF-8");
+        response.setContentType("application/json");
+        if (result.getAbortReason() != null) {
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        }
+        response.getWriter().write(toJson(result));
+    }
+
+    private static String toJson(ImportResult result) {
+        StringBuilder json = new StringBuilder(256 + result.getErrors().size() * 96);
+        json.append("{\"rowsRead\":").append(result.getRowsRead())
+                .append(",\"rowsImported\":").append(result.getRowsImported())
+                .append(",\"rowsFailed\":").append(result.getRowsFailed())
+                .append(",\"elapsedMillis\":").append(result.getElapsedMillis())
+                .append(",\"rowsPerSecond\":").append(Math.round(result.getRowsPerSecond()))
+                .append(',');
+        JsonUtil.appendField(json, "abortReason", result.getAbortReason());
+        json.append(",\"errorsTruncated\":").append(result.isErrorListTruncated())
+                .append(",\"errors\":[");
+        for (int i = 0; i < result.getErrors().size(); i++) {
+            ImportError error = result.getErrors().get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"line\":").append(error.getLine()).append(',');
+            JsonUtil.appendField(json, "productId", error.getProductId()).append(',');
+            JsonUtil.appendField(json, "message", error.getMessage()).append('}');
+        }
+        return json.append("]}").toString();
+    }
+}
@@ -0,0 +1,56 @@
+package com.globalbooks.catalog.web;
+
+import com.globalbooks.catalog.config.SecurityConfig;
+import com.globalbooks.catalog.security.CredentialCache;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// HTTP Basic authentication for the catalog's plain servlets (the SOAP endpoint uses WS-Security)
+final class HttpBasicAuth {
+
+    private HttpBasicAuth() {}
+
+    // Returns the authenticated user, or null after sending 401/403
+    static SecurityConfig.UserInfo requireRole(HttpServletRequest request, HttpServletResponse response,
+                                               SecurityConfig.UserRole... roles) throws IOException {
+        SecurityConfig.UserInfo user = authenticate(request);
+        if (user == null) {
+            response.setHeader("WWW-Authenticate", "Basic realm=\"" + SecurityConfig.SECURITY_REALM + "\"");
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return null;
+        }
+        for (SecurityConfig.UserRole role : roles) {
+            if (user.getRole() == role) {
+                return user;
+            }
+        }
+        response.sendError(HttpServletResponse.SC_FORBIDDEN);
+        return null;
+    }
+
+    static SecurityConfig.UserInfo authenticate(HttpServletRequest request) {
+        return authenticate(request.getHeader("Authorization"));
+    }
+
+    // Checks an Authorization header value; null unless it carries valid Basic credentials
+    static SecurityConfig.UserInfo authenticate(String header) {
+        if (header == null || !header.regionMatches(true, 0, "Basic ", 0, 6)) {
+            return null;
+        }
+        String decoded;
+        try {
+            decoded = new String(Base64.getDecoder().decode(header.substring(6).trim()),
+                    StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        int colon = decoded.indexOf(':');
+        if (colon < 0) {
+            return null;
+        }
+        return CredentialCache.getInstance().authenticate(decoded.substring(0, colon), decoded.substring(colon + 1));
+    }
+}
@@ -0,0 +1,427 @@
+package com.globalbooks.catalog.web;
+
+import com.globalbooks.catalog.config.CatalogConfig;
+import com.globalbooks.catalog.config.SecurityConfig;
+import com.globalbooks.catalog.dao.CachingProductDAO;
+import com.globalbooks.catalog.dao.ProductChangeListener;
+import com.globalbooks.catalog.dao.ProductDAO;
+import com.globalbooks.catalog.dao.ProductDAOImpl;
+import com.globalbooks.catalog.metrics.TimingProxy;
+import com.globalbooks.catalog.model.InventoryStatus;
+import com.globalbooks.catalog.model.Product;
+import com.globalbooks.catalog.model.SearchCriteria;
+import com.globalbooks.catalog.model.SearchMode;
+import com.globalbooks.catalog.security.ApiTokens;
+import com.globalbooks.catalog.util.JsonUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Read-only JSON API over ProductDAO, for clients that do not need SOAP: no
+ * envelope, no JAXB and a signed bearer token instead of WS-Security. It is
+ * independent of the HTTP transport; JsonApiServlet serves it in the WAR and
+ * CatalogServer's handler on the embedded server.
+ *
+ * POST /token                     (HTTP Basic) returns a bearer token
+ * GET  /products/{id}
+ * GET  /products?ids=a,b,...
+ * GET  /search?keyword=&category=&author=&minPrice=&maxPrice=&inStockOnly=&maxResults=&mode=&minSimilarity=
+ * GET  /inventory/{id}
+ * GET  /inventory?ids=a,b,...
+ *
+ * Reads need "Authorization: Bearer TOKEN". Successful responses carry
+ * a weak ETag over the JSON and a matching If-None-Match gets 304 without a
+ * body; bodies of GZIP_MIN_BYTES or more are gzipped if the client accepts it.
+ */
+public class JsonApi {
+
+    private static final Logger logger = LoggerFactory.getLogger(JsonApi.class);
+
+    // Below this the gzip header and trailer cost more than compression saves
+    private static final int GZIP_MIN_BYTES = 1024;
+    private static final String CONTENT_TYPE = "application/json; charset=UTF-8";
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(JsonApi::newSha256);
+
+    private final ProductDAO productDAO;
+    // The cache create() registered for change notifications, or null
+    private final ProductChangeListener changeListener;
+
+    public JsonApi(ProductDAO productDAO) {
+        this(productDAO, null);
+    }
+
+    private JsonApi(ProductDAO productDAO, ProductChangeListener changeListener) {
+        this.productDAO = productDAO;
+        this.changeListener = changeListener;
+    }
+
+    // Over its own product cache, kept current by the change notifications the SOAP service's cache gets
+    public static JsonApi create() {
+        CachingProductDAO cachingDAO = new CachingProductDAO(
+                TimingProxy.wrap(ProductDAO.class, new ProductDAOImpl()));
+        ProductDAOImpl.addChangeListener(cachingDAO);
+        return new JsonApi(cachingDAO, cachingDAO);
+    }
+
+    // Detaches the cache from ProductDAOImpl's static listener list so it does not outlive this API
+    public void shutdown() {
+        if (changeListener != null) {
+            ProductDAOImpl.removeChangeListener(changeListener);
+        }
+    }
+
+    public interface Request {
+        String getMethod();
+
+        // Relative to the API root, e.g. /products/BOOK-001
+        String getPath();
+
+        String getParameter(String name);
+
+        String getHeader(String name);
+    }
+
+    public static final class Response {
+        private final int status;
+        private final byte[] body;
+        private final Map<String, String> headers = new LinkedHashMap<>();
+
+        Response(int status, byte[] body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        Response header(String name, String value) {
+            headers.put(name, value);
+            return this;
+        }
+
+        public int getStatus() { return status; }
+
+        public byte[] getBody() { return body; }
+
+        public Map<String, String> getHeaders() { return headers; }
+    }
+
+    public Response handle(Request request) {
+        String method = request.getMethod();
+        String path = request.getPath() == null || request.getPath().isEmpty() ? "/" : request.getPath();
+        try {
+            if ("/token".equals(path)) {
+                return "POST".equals(method) ? issueToken(request) : methodNotAllowed("POST");
+            }
+            if (!"GET".equals(method)) {
+                return methodNotAllowed("GET");
+            }
+
+            SecurityConfig.UserInfo user = authenticate(request.getHeader("Authorization"));
+            if (user == null) {
+                return error(401, "AUTHORIZATION_ERROR", "A valid bearer token is required")
+                        .header("WWW-Authenticate", "Bearer realm=\"" + SecurityConfig.SECURITY_REALM + "\"");
+            }
+            logger.debug("User {} requesting {}", user.getUsername(), path);
+
+            if (path.startsWith("/products/")) {
+                return product(request, path.substring("/products/".length()));
+            } else if ("/products".equals(path)) {
+                return products(request);
+            } else if ("/search".equals(path)) {
+                return search(request);
+            } else if (path.startsWith("/inventory/")) {
+                return inventory(request, path.substring("/inventory/".length()));
+            } else if ("/inventory".equals(path)) {
+                return inventories(request);
+            }
+            return error(404, "INVALID_INPUT", "No resource at " + path);
+        } catch (IllegalArgumentException e) {
+            return error(400, "INVALID_INPUT", e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("JSON API request failed: {} {}", method, path, e);
+            return error(500, "DATABASE_ERROR", "Failed to read the catalog");
+        }
+    }
+
+    private static SecurityConfig.UserInfo authenticate(String authorization) {
+        if (authorization == null || !authorization.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return null;
+        }
+        return ApiTokens.verify(authorization.substring(7).trim());
+    }
+
+    private Response issueToken(Request request) {
+        SecurityConfig.UserInfo user = HttpBasicAuth.authenticate(request.getHeader("Authorization"));
+        if (user == null) {
+            return error(401, "AUTHORIZATION_ERROR", "Valid HTTP Basic credentials are required")
+                    .header("WWW-Authenticate", "Basic realm=\"" + SecurityConfig.SECURITY_REALM + "\"");
+        }
+        StringBuilder json = new StringBuilder(256).append('{');
+        JsonUtil.appendField(json, "token", ApiTokens.issue(user)).append(',');
+        JsonUtil.appendField(json, "tokenType", "Bearer").append(',');
+        json.append("\"expiresIn\":").append(ApiTokens.getExpirationSeconds()).append('}');
+        logger.info("Issued API token to user {}", user.getUsername());
+        return new Response(200, json.toString().getBytes(StandardCharsets.UTF_8))
+                .header("Content-Type", CONTENT_TYPE)
+                .header("Cache-Control", "no-store");
+    }
+
+    private Response product(Request request, String productId) {
+        requireId(productId);
+        Product product = productDAO.findById(productId);
+        if (product == null) {
+            return error(404, "PRODUCT_NOT_FOUND", "Product with ID " + productId + " not found");
+        }
+        StringBuilder json = new StringBuilder(1024);
+        JsonUtil.appendProduct(json, product);
+        return ok(request, json);
+    }
+
+    private Response products(Request request) {
+        List<String> productIds = parseIds(request.getParameter("ids"));
+        Map<String, Product> products = productDAO.findByIds(new LinkedHashSet<>(productIds));
+        StringBuilder json = new StringBuilder(1024 * productIds.size()).append("{\"results\":[");
+        for (int i = 0; i < productIds.size(); i++) {
+            Product product = products.get(productIds.get(i));
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('{');
+            JsonUtil.appendField(json, "productId", productIds.get(i)).append(',');
+            json.append("\"found\":").append(product != null);
+            if (product != null) {
+                json.append(",\"product\":");
+                JsonUtil.appendProduct(json, product);
+            }
+            json.append('}');
+        }
+        return ok(request, json.append("]}"));
+    }
+
+    private Response search(Request request) {
+        SearchCriteria criteria = new SearchCriteria();
+        criteria.setKeyword(request.getParameter("keyword"));
+        criteria.setCategory(request.getParameter("category"));
+        criteria.setAuthor(request.getParameter("author"));
+        criteria.setMinPrice(parseDecimal(request, "minPrice"));
+        criteria.setMaxPrice(parseDecimal(request, "maxPrice"));
+        criteria.setInStockOnly(Boolean.parseBoolean(request.getParameter("inStockOnly")));
+        String maxResults = request.getParameter("maxResults");
+        if (maxResults != null) {
+            criteria.setMaxResults(parseInt(maxResults, "maxResults"));
+            if (criteria.getMaxResults() <= 0) {
+                throw new IllegalArgumentException("maxResults must be greater than zero");
+            }
+        }
+        String mode = request.getParameter("mode");
+        if (mode != null) {
+            try {
+                criteria.setSearchMode(SearchMode.valueOf(mode.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown search mode: " + mode);
+            }
+        }
+
+        BigDecimal minSimilarity = parseDecimal(request, "minSimilarity");
+        if (minSimilarity != null) {
+            if (minSimilarity.signum() <= 0 || minSimilarity.compareTo(BigDecimal.ONE) > 0) {
+                throw new IllegalArgumentException("minSimilarity must be greater than 0 and at most 1");
+            }
+            criteria.setMinSimilarity(minSimilarity.doubleValue());
+        }
+
+        List<Product> products = productDAO.search(criteria);
+        StringBuilder json = new StringBuilder(1024 * Math.max(1, products.size())).append("{\"products\":[");
+        for (int i = 0; i < products.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            JsonUtil.appendProduct(json, products.get(i));
+        }
+        return ok(request, json.append("]}"));
+    }
+
+    private Response inventory(Request request, String productId) {
+        requireId(productId);
+        InventoryStatus status = productDAO.getInventoryStatus(productId);
+        if (status == null) {
+            return error(404, "PRODUCT_NOT_FOUND", "Product with ID " + productId + " not found");
+        }
+        StringBuilder json = new StringBuilder(256);
+        JsonUtil.appendInventoryStatus(json, status);
+        return ok(request, json);
+    }
+
+    private Response inventories(Request request) {
+        List<String> productIds = parseIds(request.getParameter("ids"));
+        Map<String, InventoryStatus> statuses = productDAO.getInventoryStatuses(new LinkedHashSet<>(productIds));
+        StringBuilder json = new StringBuilder(256 * productIds.size()).append("{\"results\":[");
+        for (int i = 0; i < productIds.size(); i++) {
+            InventoryStatus status = statuses.get(productIds.get(i));
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('{');
+            JsonUtil.appendField(json, "productId", productIds.get(i)).append(',');
+            json.append("\"found\":").append(status != null);
+            if (status != null) {
+                json.append(",\"inventory\":");
+                JsonUtil.appendInventoryStatus(json, status);
+            }
+            json.append('}');
+        }
+        return ok(request, json.append("]}"));
+    }
+
+    private Response ok(Request request, StringBuilder json) {
+        byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+        String etag = etag(body);
+        if (matches(request.getHeader("If-None-Match"), etag)) {
+            return new Response(304, new byte[0])
+                    .header("ETag", etag)
+                    .header("Cache-Control", "private, no-cache")
+                    .header("Vary", "Accept-Encoding");
+        }
+
+        Response response;
+        if (body.length >= GZIP_MIN_BYTES && acceptsGzip(request.getHeader("Accept-Encoding"))) {
+            response = new Response(200, gzip(body)).header("Content-Encoding", "gzip");
+        } else {
+            response = new Response(200, body);
+        }
+        return response.header("Content-Type", CONTENT_TYPE)
+                .header("ETag", etag)
+                .header("Cache-Control", "private, no-cache")
+                .header("Vary", "Accept-Encoding");
+    }
+
+    private static Response error(int status, String code, String message) {
+        StringBuilder json = new StringBuilder(128).append('{');
+        JsonUtil.appendField(json, "error", code).append(',');
+        JsonUtil.appendField(json, "message", message).append('}');
+        return new Response(status, json.toString().getBytes(StandardCharsets.UTF_8))
+                .header("Content-Type", CONTENT_TYPE);
+    }
+
+    private static Response methodNotAllowed(String allowed) {
+        return error(405, "INVALID_INPUT", "Method not allowed").header("Allow", allowed);
+    }
+
+    private static void requireId(String productId) {
+        if (productId.trim().isEmpty() || productId.indexOf('/') >= 0) {
+            throw new IllegalArgumentException("Product ID cannot be null or empty");
+        }
+    }
+
+    private static List<String> parseIds(String ids) {
+        if (ids == null || ids.trim().isEmpty()) {
+            throw new IllegalArgumentException("ids cannot be null or empty");
+        }
+        String[] parts = ids.split(",");
+        if (parts.length > CatalogConfig.BATCH_MAX_SIZE) {
+            throw new IllegalArgumentException("ids cannot exceed " + CatalogConfig.BATCH_MAX_SIZE + " entries");
+        }
+        Set<String> seen = new LinkedHashSet<>();
+        for (String part : parts) {
+            if (!part.trim().isEmpty()) {
+                seen.add(part.trim());
+            }
+        }
+        if (seen.isEmpty()) {
+            throw new IllegalArgumentException("ids cannot be null or empty");
+        }
+        return List.copyOf(seen);
+    }
+
+    private static BigDecimal parseDecimal(Request request, String name) {
+        String value = request.getParameter(name);
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number");
+        }
+    }
+
+    private static int parseInt(String value, String name) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be an integer");
+        }
+    }
+
+    // Weak: the same tag covers the identity and gzip encodings of a representation
+    private static String etag(byte[] body) {
+        byte[] digest = SHA256.get().digest(body);
+        byte[] prefix = new byte[12];
+        System.arraycopy(digest, 0, prefix, 0, prefix.length);
+        return "W/\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(prefix) + "\"";
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = etag.substring(2);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if ("*".equals(tag)) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (opaque.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if ("gzip".equalsIgnoreCase(parts[0].trim())) {
+                return !(parts.length > 1 && parts[1].replace(" ", "").matches("(?i)q=0(\\.0*)?"));
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
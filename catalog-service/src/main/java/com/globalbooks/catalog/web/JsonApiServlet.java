@@ -0,0 +1,67 @@
+package com.globalbooks.catalog.web;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Serves {@link JsonApi} in the WAR.
+ *
+ * /api/v1/*   (bearer token; POST /api/v1/token with HTTP Basic issues one)
+ */
+public class JsonApiServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    private transient JsonApi api;
+
+    @Override
+    public void init() {
+        this.api = JsonApi.create();
+    }
+
+    @Override
+    public void destroy() {
+        if (api != null) {
+            api.shutdown();
+        }
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        handle(request, response);
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        handle(request, response);
+    }
+
+    private void handle(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        JsonApi.Response result = api.handle(new JsonApi.Request() {
+            @Override
+            public String getMethod() { return request.getMethod(); }
+
+            @Override
+            public String getPath() { return request.getPathInfo(); }
+
+            @Override
+            public String getParameter(String name) { return request.getParameter(name); }
+
+            @Override
+            public String getHeader(String name) { return request.getHeader(name); }
+        });
+
+        response.setStatus(result.getStatus());
+        for (Map.Entry<String, String> header : result.getHeaders().entrySet()) {
+            response.setHeader(header.getKey(), header.getValue());
+        }
+        byte[] body = result.getBody();
+        if (body.length > 0) {
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.globalbooks.catalog.web;
+
+import com.globalbooks.catalog.metrics.CatalogMetrics;
+import com.globalbooks.catalog.metrics.LatencyHistogram;
+import com.globalbooks.catalog.metrics.PoolStats;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Catalog database metrics in the Prometheus text exposition format. The
+ * same figures are available over JMX as com.globalbooks.catalog:type=CatalogMetrics.
+ *
+ * GET /metrics
+ */
+public class MetricsServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    // Upper bounds in seconds, matching LatencyHistogram's buckets
+    private static final String[] BUCKET_LABELS = {
+            "0.00005", "0.0001", "0.00025", "0.0005", "0.001", "0.0025", "0.005", "0.01", "0.025", "0.05",
+            "0.1", "0.25", "0.5", "1", "2.5", "5", "10", "+Inf"
+    };
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        CatalogMetrics metrics = CatalogMetrics.get();
+        response.setCharacterEncoding("UTF-8");
+        response.setContentType("text/plain; version=0.0.4");
+        PrintWriter out = response.getWriter();
+
+        writeHistograms(out, "catalog_dao_operation_seconds", "DAO method latency", "operation",
+                metrics.operationHistograms());
+        writeHistograms(out, "catalog_db_query_seconds", "Statement execution time by DAO operation", "operation",
+                metrics.queryHistograms());
+        writeHistograms(out, "catalog_db_pool_acquire_seconds", "Time waiting for a pooled connection", "pool",
+                metrics.poolAcquireHistograms());
+
+        out.println("# HELP catalog_db_rows_total Rows read from result sets by DAO operation");
+        out.println("# TYPE catalog_db_rows_total counter");
+        for (Map.Entry<String, Long> entry : metrics.getRowsReturned().entrySet()) {
+            out.println("catalog_db_rows_total{operation=\"" + entry.getKey() + "\"} " + entry.getValue());
+        }
+
+        out.println("# HELP catalog_db_pool_connections Pool connections by state");
+        out.println("# TYPE catalog_db_pool_connections gauge");
+        for (Map.Entry<String, PoolStats> entry : metrics.getPools().entrySet()) {
+            String pool = "pool=\"" + entry.getKey() + "\"";
+            PoolStats stats = entry.getValue();
+            out.println("catalog_db_pool_connections{" + pool + ",state=\"active\"} " + stats.getActive());
+            out.println("catalog_db_pool_connections{" + pool + ",state=\"idle\"} " + stats.getIdle());
+            out.println("catalog_db_pool_connections{" + pool + ",state=\"pending\"} " + stats.getPending());
+            out.println("catalog_db_pool_connections{" + pool + ",state=\"total\"} " + stats.getTotal());
+        }
+
+        out.println("# HELP catalog_db_read_routes_total Read connections by serving pool");
+        out.println("# TYPE catalog_db_read_routes_total counter");
+        for (Map.Entry<String, Long> entry : metrics.getReadRoutes().entrySet()) {
+            out.println("catalog_db_read_routes_total{pool=\"" + entry.getKey() + "\"} " + entry.getValue());
+        }
+
+        out.println("# HELP catalog_db_replica_lag_milliseconds Last measured replica lag, -1 if unknown");
+        out.println("# TYPE catalog_db_replica_lag_milliseconds gauge");
+        out.println("catalog_db_replica_lag_milliseconds " + metrics.getReplicaLagMillis());
+
+        out.println("# HELP catalog_db_slow_queries_total Statements over the slow query threshold");
+        out.println("# TYPE catalog_db_slow_queries_total counter");
+        out.println("catalog_db_slow_queries_total " + metrics.getSlowQueryCount());
+        out.flush();
+    }
+
+    private static void writeHistograms(PrintWriter out, String name, String help, String label,
+                                        Map<String, LatencyHistogram> histograms) {
+        out.println("# HELP " + name + " " + help);
+        out.println("# TYPE " + name + " histogram");
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(histograms).entrySet()) {
+            String labelPair = label + "=\"" + entry.getKey() + "\"";
+            LatencyHistogram histogram = entry.getValue();
+            long[] counts = histogram.getBucketCounts();
+            long cumulative = 0;
+            for (int i = 0; i < counts.length; i++) {
+                cumulative += counts[i];
+                out.println(name + "_bucket{" + labelPair + ",le=\"" + BUCKET_LABELS[i] + "\"} " + cumulative);
+            }
+            out.println(name + "_sum{" + labelPair + "} " + histogram.getSumNanos() / 1e9);
+            out.println(name + "_count{" + labelPair + "} " + cumulative);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.globalbooks.catalog.web;
+
+import com.globalbooks.catalog.cache.SoapResponseCache;
+import com.globalbooks.catalog.config.CatalogConfig;
+import com.globalbooks.catalog.security.SoapReadRequest;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Answers cacheable SOAP reads from {@link SoapResponseCache} in front of
+ * WSServlet, and records the service's responses to cacheable reads it could
+ * not answer. The UsernameToken is verified before any stored bytes go out.
+ */
+public class SoapResponseCacheFilter implements Filter {
+
+    private SoapResponseCache cache;
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+        this.cache = CatalogConfig.SOAP_RESPONSE_CACHE_ENABLED ? SoapResponseCache.getInstance() : null;
+    }
+
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain)
+            throws IOException, ServletException {
+        if (cache == null || !(req instanceof HttpServletRequest)
+                || !"POST".equals(((HttpServletRequest) req).getMethod())) {
+            chain.doFilter(req, res);
+            return;
+        }
+        HttpServletRequest request = (HttpServletRequest) req;
+        HttpServletResponse response = (HttpServletResponse) res;
+
+        byte[] body = SoapResponseCache.readRequest(request.getInputStream(), SoapResponseCache.MAX_REQUEST_BYTES);
+        boolean oversized = body.length > SoapResponseCache.MAX_REQUEST_BYTES;
+        String key = null;
+        if (!oversized) {
+            SoapReadRequest soapRequest = SoapReadRequest.parse(body);
+            key = cache.keyFor(soapRequest);
+
+            SoapResponseCache.CachedResponse cached = key != null ? cache.get(key) : null;
+            if (cached != null && soapRequest.authenticate()) {
+                response.setStatus(HttpServletResponse.SC_OK);
+                response.setContentType(cached.getContentType());
+                response.setContentLength(cached.getBody().length);
+                response.getOutputStream().write(cached.getBody());
+                cache.served(soapRequest);
+                return;
+            }
+            // On a failed check the service repeats it and sends the usual security fault
+        }
+
+        ReplayRequest replayRequest = new ReplayRequest(request, body,
+                oversized ? request.getInputStream() : null);
+        if (key == null) {
+            chain.doFilter(replayRequest, response);
+            return;
+        }
+
+        CapturingResponse capturing = new CapturingResponse(response);
+        chain.doFilter(replayRequest, capturing);
+        byte[] captured = capturing.capture.toByteArray();
+        if (captured != null && capturing.getStatus() == HttpServletResponse.SC_OK
+                && capturing.getHeader("Content-Encoding") == null && capturing.getContentType() != null) {
+            cache.put(key, captured, capturing.getContentType());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        // Nothing to release; the cache is shared with the service
+    }
+
+    // Replays the bytes already read, then whatever of the body the container still holds
+    private static class ReplayRequest extends HttpServletRequestWrapper {
+        private final ServletInputStream in;
+
+        ReplayRequest(HttpServletRequest request, byte[] buffered, ServletInputStream rest) {
+            super(request);
+            ByteArrayInputStream head = new ByteArrayInputStream(buffered);
+            this.in = new ServletInputStream() {
+                @Override
+                public int read() throws IOException {
+                    int b = head.read();
+                    return b >= 0 || rest == null ? b : rest.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    return head.available() > 0 || rest == null ? head.read(b, off, len) : rest.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return head.available() == 0 && (rest == null || rest.isFinished());
+                }
+
+                @Override
+                public boolean isReady() {
+                    return head.available() > 0 || rest == null || rest.isReady();
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    if (rest != null) {
+                        rest.setReadListener(new ReadListener() {
+                            @Override
+                            public void onDataAvailable() throws IOException { readListener.onDataAvailable(); }
+
+                            @Override
+                            public void onAllDataRead() throws IOException {
+                                if (head.available() > 0) {
+                                    readListener.onDataAvailable();
+                                }
+                                readListener.onAllDataRead();
+                            }
+
+                            @Override
+                            public void onError(Throwable t) { readListener.onError(t); }
+                        });
+                        return;
+                    }
+                    // The whole body is in memory, so it is available at once
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return in;
+        }
+    }
+
+    private static class CapturingResponse extends HttpServletResponseWrapper {
+        private final SoapResponseCache.Capture capture = new SoapResponseCache.Capture();
+        private ServletOutputStream out;
+
+        CapturingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (out == null) {
+                ServletOutputStream target = super.getOutputStream();
+                out = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        target.write(b);
+                        capture.write(b);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        target.write(b, off, len);
+                        capture.write(b, off, len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException { target.flush(); }
+
+                    @Override
+                    public void close() throws IOException { target.close(); }
+
+                    @Override
+                    public boolean isReady() { return target.isReady(); }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        target.setWriteListener(writeListener);
+                    }
+                };
+            }
+            return out;
+        }
+
+        // A response written as characters is passed through but not kept
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            capture.discard();
+            return super.getWriter();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+-- Last journal sequence applied by each write-behind inventory ledger
+-- (-Dcatalog.inventory.ledger.enabled), for databases created before the table was
+-- added to schema.sql.
+
+CREATE TABLE IF NOT EXISTS inventory_ledger_checkpoint (
+    ledger_id VARCHAR(100) PRIMARY KEY,
+    last_seq BIGINT NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,39 @@
+-- Moves inventory counters out of products into product_inventory, one row per
+-- product and warehouse. For databases created from schema.sql before this change;
+-- new databases get the split layout from schema.sql directly.
+-- Products without a warehouse_location go to the default warehouse ('MAIN',
+-- -Dcatalog.inventory.defaultWarehouse). Stop writers before running: it runs in
+-- one transaction and holds an exclusive lock on products until it commits.
+
+BEGIN;
+
+LOCK TABLE products IN ACCESS EXCLUSIVE MODE;
+
+CREATE TABLE product_inventory (
+    product_id VARCHAR(50) NOT NULL REFERENCES products(product_id) ON DELETE CASCADE,
+    warehouse_location VARCHAR(100) NOT NULL,
+    stock_quantity INTEGER NOT NULL DEFAULT 0 CHECK (stock_quantity >= 0),
+    reserved_quantity INTEGER NOT NULL DEFAULT 0 CHECK (reserved_quantity >= 0),
+    restock_date DATE,
+    PRIMARY KEY (product_id, warehouse_location),
+    CONSTRAINT check_inventory_reserved CHECK (reserved_quantity <= stock_quantity)
+) WITH (fillfactor = 80);
+
+INSERT INTO product_inventory (product_id, warehouse_location, stock_quantity, reserved_quantity, restock_date)
+SELECT product_id, COALESCE(warehouse_location, 'MAIN'), stock_quantity, reserved_quantity, restock_date
+FROM products;
+
+DROP INDEX IF EXISTS idx_products_stock;
+
+ALTER TABLE products
+    DROP CONSTRAINT IF EXISTS check_reserved,
+    DROP COLUMN stock_quantity,
+    DROP COLUMN reserved_quantity,
+    DROP COLUMN warehouse_location,
+    DROP COLUMN restock_date;
+
+COMMIT;
+
+-- Dropped columns keep their space in existing tuples until rows are rewritten;
+-- run VACUUM FULL products (or pg_repack) in a maintenance window to reclaim it.
+ANALYZE product_inventory;
@@ -0,0 +1,21 @@
+-- Reservation records with expiry, reclaimed by ReservationSweeper. Reserved units
+-- that predate this table have no record and never expire; RELEASE and DEDUCT
+-- still return them to stock. Records whose id was returned by reserveInventory
+-- (id_issued) are settled only through settleReservation, so RELEASE and DEDUCT
+-- by product never consume another order's hold.
+
+CREATE TABLE IF NOT EXISTS inventory_reservations (
+    reservation_id BIGSERIAL PRIMARY KEY,
+    product_id VARCHAR(50) NOT NULL,
+    warehouse_location VARCHAR(100) NOT NULL,
+    quantity INTEGER NOT NULL CHECK (quantity > 0),
+    created_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMPTZ NOT NULL,
+    id_issued BOOLEAN NOT NULL DEFAULT FALSE,
+    FOREIGN KEY (product_id, warehouse_location)
+        REFERENCES product_inventory(product_id, warehouse_location) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_inventory_reservations_expires ON inventory_reservations(expires_at);
+CREATE INDEX IF NOT EXISTS idx_inventory_reservations_product
+    ON inventory_reservations(product_id, warehouse_location, expires_at);
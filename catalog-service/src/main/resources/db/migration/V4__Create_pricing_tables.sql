@@ -0,0 +1,22 @@
+-- Pricing tables for PricingEngine, seeded with the rates quotes were hard-coded to.
+
+CREATE TABLE IF NOT EXISTS pricing_discount_tiers (
+    min_quantity INTEGER PRIMARY KEY CHECK (min_quantity > 0),
+    discount_rate DECIMAL(5, 4) NOT NULL CHECK (discount_rate >= 0 AND discount_rate < 1)
+);
+
+CREATE TABLE IF NOT EXISTS pricing_currencies (
+    currency VARCHAR(3) PRIMARY KEY,
+    tax_rate DECIMAL(5, 4) NOT NULL CHECK (tax_rate >= 0),
+    fraction_digits SMALLINT NOT NULL DEFAULT 2 CHECK (fraction_digits BETWEEN 0 AND 4)
+);
+
+INSERT INTO pricing_discount_tiers (min_quantity, discount_rate) VALUES
+(10, 0.0500),
+(50, 0.1000),
+(100, 0.1500)
+ON CONFLICT (min_quantity) DO NOTHING;
+
+INSERT INTO pricing_currencies (currency, tax_rate, fraction_digits) VALUES
+('USD', 0.0800, 2)
+ON CONFLICT (currency) DO NOTHING;
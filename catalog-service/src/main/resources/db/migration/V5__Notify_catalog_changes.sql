@@ -0,0 +1,83 @@
+-- Change notifications for ChangeNotificationListener, so catalog nodes drop cached
+-- products that another node wrote. Requires PostgreSQL 14 (CREATE OR REPLACE TRIGGER).
+
+-- Tell other catalog nodes which products changed (ChangeNotificationListener). Payload is
+-- "op|origin|product_id": op U (changed) or D (deleted), origin the writer's application_name.
+-- Statements touching more than 100 products send a single "*" so listeners resync instead
+-- of flooding the queue; Postgres drops duplicate payloads within a transaction.
+CREATE OR REPLACE FUNCTION send_catalog_changes(op TEXT, ids TEXT[])
+RETURNS VOID AS $$
+DECLARE
+    origin TEXT := replace(current_setting('application_name'), '|', '_');
+    id TEXT;
+BEGIN
+    IF ids IS NULL THEN
+        RETURN;
+    ELSIF cardinality(ids) > 100 THEN
+        PERFORM pg_notify('catalog_changes', '*|' || origin || '|');
+    ELSE
+        FOREACH id IN ARRAY ids LOOP
+            PERFORM pg_notify('catalog_changes', op || '|' || origin || '|' || id);
+        END LOOP;
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION notify_product_change()
+RETURNS TRIGGER AS $$
+DECLARE
+    ids TEXT[];
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        SELECT array_agg(DISTINCT product_id) INTO ids FROM old_rows;
+        PERFORM send_catalog_changes('D', ids);
+    ELSIF TG_OP = 'INSERT' THEN
+        SELECT array_agg(DISTINCT product_id) INTO ids FROM new_rows;
+        PERFORM send_catalog_changes('U', ids);
+    ELSE
+        SELECT array_agg(DISTINCT product_id) INTO ids
+        FROM (SELECT product_id FROM old_rows UNION SELECT product_id FROM new_rows) changed;
+        PERFORM send_catalog_changes('U', ids);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Reservations only move reserved_quantity, which no node caches, so they notify nothing
+CREATE OR REPLACE FUNCTION notify_inventory_change()
+RETURNS TRIGGER AS $$
+DECLARE
+    ids TEXT[];
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        SELECT array_agg(DISTINCT product_id) INTO ids FROM old_rows;
+    ELSIF TG_OP = 'INSERT' THEN
+        SELECT array_agg(DISTINCT product_id) INTO ids FROM new_rows;
+    ELSE
+        SELECT array_agg(DISTINCT product_id) INTO ids FROM (
+            (SELECT product_id, warehouse_location, stock_quantity, restock_date FROM new_rows
+             EXCEPT SELECT product_id, warehouse_location, stock_quantity, restock_date FROM old_rows)
+            UNION ALL
+            (SELECT product_id, warehouse_location, stock_quantity, restock_date FROM old_rows
+             EXCEPT SELECT product_id, warehouse_location, stock_quantity, restock_date FROM new_rows)
+        ) changed;
+    END IF;
+    PERFORM send_catalog_changes('U', ids);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Statement-level with transition tables: one trigger call per statement, not per row
+CREATE OR REPLACE TRIGGER notify_products_insert AFTER INSERT ON products
+REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_product_change();
+CREATE OR REPLACE TRIGGER notify_products_update AFTER UPDATE ON products
+REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_product_change();
+CREATE OR REPLACE TRIGGER notify_products_delete AFTER DELETE ON products
+REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_product_change();
+
+CREATE OR REPLACE TRIGGER notify_inventory_insert AFTER INSERT ON product_inventory
+REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_inventory_change();
+CREATE OR REPLACE TRIGGER notify_inventory_update AFTER UPDATE ON product_inventory
+REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_inventory_change();
+CREATE OR REPLACE TRIGGER notify_inventory_delete AFTER DELETE ON product_inventory
+REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_inventory_change();
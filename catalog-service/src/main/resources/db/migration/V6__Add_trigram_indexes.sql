@@ -0,0 +1,11 @@
+-- Trigram indexes for SearchMode.FUZZY, which matches misspelled keywords against
+-- title and author by word similarity. Built CONCURRENTLY so catalog writes continue
+-- meanwhile; run outside a transaction block (psql -f, not psql -1). pg_trgm ships
+-- with PostgreSQL's contrib modules; creating it needs CREATE on the database.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_title_trgm
+    ON products USING GIN (LOWER(title) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_author_trgm
+    ON products USING GIN (LOWER(author) gin_trgm_ops);
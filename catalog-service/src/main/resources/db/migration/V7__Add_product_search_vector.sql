@@ -0,0 +1,11 @@
+-- Full-text search column and index for SearchMode.FULL_TEXT, for databases created
+-- before search_vector was added to schema.sql. Adding a stored generated column
+-- rewrites products under an exclusive lock, so run it while writers are stopped.
+
+ALTER TABLE products ADD COLUMN IF NOT EXISTS search_vector TSVECTOR GENERATED ALWAYS AS (
+    setweight(to_tsvector('english', COALESCE(title, '')), 'A') ||
+    setweight(to_tsvector('english', COALESCE(author, '')), 'B') ||
+    setweight(to_tsvector('english', COALESCE(description, '')), 'C')
+) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_products_search ON products USING GIN (search_vector);
@@ -0,0 +1,5 @@
+-- (title, product_id) index behind the keyset pages of searchProductsPage, for
+-- databases created before it was added to schema.sql. Built CONCURRENTLY so catalog
+-- writes continue meanwhile; run outside a transaction block (psql -f, not psql -1).
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_title_id ON products(title, product_id);
@@ -0,0 +1,19 @@
+-- Catalog users for WS-Security and HTTP Basic authentication, for databases created
+-- before catalog_users was added to schema.sql. Seeded with the accounts that were
+-- previously built in, so existing clients keep authenticating; change the passwords
+-- after migrating. Passwords are kept recoverable because UsernameToken
+-- PasswordDigest needs them.
+
+CREATE TABLE IF NOT EXISTS catalog_users (
+    username VARCHAR(100) PRIMARY KEY,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(20) NOT NULL CHECK (role IN ('admin', 'partner', 'client', 'guest')),
+    enabled BOOLEAN NOT NULL DEFAULT TRUE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO catalog_users (username, password, role) VALUES
+('admin', 'admin123', 'admin'),
+('client1', 'pass123', 'client'),
+('partner', 'partner456', 'partner')
+ON CONFLICT (username) DO NOTHING;
@@ -7,23 +7,63 @@ CREATE TABLE IF NOT EXISTS products (
     category VARCHAR(100) NOT NULL,
     price DECIMAL(10, 2) NOT NULL CHECK (price >= 0),
     currency VARCHAR(3) DEFAULT 'USD',
-    stock_quantity INTEGER NOT NULL DEFAULT 0 CHECK (stock_quantity >= 0),
-    reserved_quantity INTEGER NOT NULL DEFAULT 0 CHECK (reserved_quantity >= 0),
-    warehouse_location VARCHAR(100),
     publish_date DATE,
     image_url VARCHAR(500),
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    search_vector TSVECTOR GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', COALESCE(title, '')), 'A') ||
+        setweight(to_tsvector('english', COALESCE(author, '')), 'B') ||
+        setweight(to_tsvector('english', COALESCE(description, '')), 'C')
+    ) STORED
+);
+
+-- Inventory counters, one row per product and warehouse. Kept out of products so a
+-- reservation rewrites this narrow row instead of the wide catalog tuple; no index
+-- covers the counters, so their updates are HOT and the fillfactor leaves room.
+CREATE TABLE IF NOT EXISTS product_inventory (
+    product_id VARCHAR(50) NOT NULL REFERENCES products(product_id) ON DELETE CASCADE,
+    warehouse_location VARCHAR(100) NOT NULL,
+    stock_quantity INTEGER NOT NULL DEFAULT 0 CHECK (stock_quantity >= 0),
+    reserved_quantity INTEGER NOT NULL DEFAULT 0 CHECK (reserved_quantity >= 0),
     restock_date DATE,
-    CONSTRAINT check_reserved CHECK (reserved_quantity <= stock_quantity)
+    PRIMARY KEY (product_id, warehouse_location),
+    CONSTRAINT check_inventory_reserved CHECK (reserved_quantity <= stock_quantity)
+) WITH (fillfactor = 80);
+
+-- Outstanding reservations and when they lapse. RESERVE adds one; ReservationSweeper
+-- returns expired ones to stock. Records whose id was returned to the caller (id_issued,
+-- from reserveInventory) are settled only by that id; RELEASE and DEDUCT by product
+-- consume the others earliest expiry first. Reservations admitted by the write-behind
+-- ledger get no record and do not expire.
+-- TIMESTAMPTZ so expiry does not depend on each node's session time zone.
+CREATE TABLE IF NOT EXISTS inventory_reservations (
+    reservation_id BIGSERIAL PRIMARY KEY,
+    product_id VARCHAR(50) NOT NULL,
+    warehouse_location VARCHAR(100) NOT NULL,
+    quantity INTEGER NOT NULL CHECK (quantity > 0),
+    created_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMPTZ NOT NULL,
+    id_issued BOOLEAN NOT NULL DEFAULT FALSE,
+    FOREIGN KEY (product_id, warehouse_location)
+        REFERENCES product_inventory(product_id, warehouse_location) ON DELETE CASCADE
 );
 
+CREATE INDEX idx_inventory_reservations_expires ON inventory_reservations(expires_at);
+CREATE INDEX idx_inventory_reservations_product ON inventory_reservations(product_id, warehouse_location, expires_at);
+
 -- Create indexes for better performance
 CREATE INDEX idx_products_title ON products(LOWER(title));
+CREATE INDEX idx_products_title_id ON products(title, product_id);
 CREATE INDEX idx_products_author ON products(LOWER(author));
 CREATE INDEX idx_products_category ON products(LOWER(category));
 CREATE INDEX idx_products_price ON products(price);
-CREATE INDEX idx_products_stock ON products(stock_quantity);
+CREATE INDEX idx_products_search ON products USING GIN (search_vector);
+
+-- Trigram indexes for fuzzy (misspelling-tolerant) search on title and author
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX idx_products_title_trgm ON products USING GIN (LOWER(title) gin_trgm_ops);
+CREATE INDEX idx_products_author_trgm ON products USING GIN (LOWER(author) gin_trgm_ops);
 
 -- Create trigger to update updated_at timestamp
 CREATE OR REPLACE FUNCTION update_updated_at_column()
@@ -39,18 +79,154 @@ BEFORE UPDATE ON products
 FOR EACH ROW
 EXECUTE FUNCTION update_updated_at_column();
 
+-- Tell other catalog nodes which products changed (ChangeNotificationListener). Payload is
+-- "op|origin|product_id": op U (changed) or D (deleted), origin the writer's application_name.
+-- Statements touching more than 100 products send a single "*" so listeners resync instead
+-- of flooding the queue; Postgres drops duplicate payloads within a transaction.
+CREATE OR REPLACE FUNCTION send_catalog_changes(op TEXT, ids TEXT[])
+RETURNS VOID AS $$
+DECLARE
+    origin TEXT := replace(current_setting('application_name'), '|', '_');
+    id TEXT;
+BEGIN
+    IF ids IS NULL THEN
+        RETURN;
+    ELSIF cardinality(ids) > 100 THEN
+        PERFORM pg_notify('catalog_changes', '*|' || origin || '|');
+    ELSE
+        FOREACH id IN ARRAY ids LOOP
+            PERFORM pg_notify('catalog_changes', op || '|' || origin || '|' || id);
+        END LOOP;
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION notify_product_change()
+RETURNS TRIGGER AS $$
+DECLARE
+    ids TEXT[];
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        SELECT array_agg(DISTINCT product_id) INTO ids FROM old_rows;
+        PERFORM send_catalog_changes('D', ids);
+    ELSIF TG_OP = 'INSERT' THEN
+        SELECT array_agg(DISTINCT product_id) INTO ids FROM new_rows;
+        PERFORM send_catalog_changes('U', ids);
+    ELSE
+        SELECT array_agg(DISTINCT product_id) INTO ids
+        FROM (SELECT product_id FROM old_rows UNION SELECT product_id FROM new_rows) changed;
+        PERFORM send_catalog_changes('U', ids);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Reservations only move reserved_quantity, which no node caches, so they notify nothing
+CREATE OR REPLACE FUNCTION notify_inventory_change()
+RETURNS TRIGGER AS $$
+DECLARE
+    ids TEXT[];
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        SELECT array_agg(DISTINCT product_id) INTO ids FROM old_rows;
+    ELSIF TG_OP = 'INSERT' THEN
+        SELECT array_agg(DISTINCT product_id) INTO ids FROM new_rows;
+    ELSE
+        SELECT array_agg(DISTINCT product_id) INTO ids FROM (
+            (SELECT product_id, warehouse_location, stock_quantity, restock_date FROM new_rows
+             EXCEPT SELECT product_id, warehouse_location, stock_quantity, restock_date FROM old_rows)
+            UNION ALL
+            (SELECT product_id, warehouse_location, stock_quantity, restock_date FROM old_rows
+             EXCEPT SELECT product_id, warehouse_location, stock_quantity, restock_date FROM new_rows)
+        ) changed;
+    END IF;
+    PERFORM send_catalog_changes('U', ids);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Statement-level with transition tables: one trigger call per statement, not per row
+CREATE TRIGGER notify_products_insert AFTER INSERT ON products
+REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_product_change();
+CREATE TRIGGER notify_products_update AFTER UPDATE ON products
+REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_product_change();
+CREATE TRIGGER notify_products_delete AFTER DELETE ON products
+REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_product_change();
+
+CREATE TRIGGER notify_inventory_insert AFTER INSERT ON product_inventory
+REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_inventory_change();
+CREATE TRIGGER notify_inventory_update AFTER UPDATE ON product_inventory
+REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_inventory_change();
+CREATE TRIGGER notify_inventory_delete AFTER DELETE ON product_inventory
+REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_inventory_change();
+
 -- Insert sample data
-INSERT INTO products (product_id, title, author, isbn, description, category, price, stock_quantity, warehouse_location, publish_date) VALUES
-('BOOK-001', 'Effective Java', 'Joshua Bloch', '978-0134685991', 'The definitive guide to Java best practices', 'Programming', 45.99, 150, 'Warehouse-A', '2018-01-06'),
-('BOOK-002', 'Clean Code', 'Robert C. Martin', '978-0132350884', 'A handbook of agile software craftsmanship', 'Programming', 39.99, 200, 'Warehouse-A', '2008-08-01'),
-('BOOK-003', 'Design Patterns', 'Gang of Four', '978-0201633610', 'Elements of reusable object-oriented software', 'Programming', 54.99, 75, 'Warehouse-B', '1994-10-31'),
-('BOOK-004', 'The Pragmatic Programmer', 'David Thomas', '978-0135957059', 'Your journey to mastery', 'Programming', 49.99, 120, 'Warehouse-A', '2019-09-13'),
-('BOOK-005', 'Introduction to Algorithms', 'Thomas H. Cormen', '978-0262033848', 'Comprehensive textbook on algorithms', 'Computer Science', 89.99, 50, 'Warehouse-C', '2009-07-31'),
-('BOOK-006', 'The Mythical Man-Month', 'Frederick Brooks', '978-0201835953', 'Essays on software engineering', 'Software Engineering', 29.99, 180, 'Warehouse-B', '1995-08-02'),
-('BOOK-007', 'Domain-Driven Design', 'Eric Evans', '978-0321125217', 'Tackling complexity in software', 'Architecture', 65.99, 90, 'Warehouse-C', '2003-08-30'),
-('BOOK-008', 'Microservices Patterns', 'Chris Richardson', '978-1617294549', 'With examples using Java and Spring Boot', 'Architecture', 49.99, 110, 'Warehouse-A', '2018-10-27'),
-('BOOK-009', 'Spring in Action', 'Craig Walls', '978-1617297571', 'Covers Spring 5 and Spring Boot 2', 'Framework', 44.99, 135, 'Warehouse-B', '2020-05-01'),
-('BOOK-010', 'Kubernetes in Action', 'Marko Luksa', '978-1617293726', 'Learn Kubernetes from the ground up', 'DevOps', 59.99, 95, 'Warehouse-C', '2017-12-01');
+INSERT INTO products (product_id, title, author, isbn, description, category, price, publish_date) VALUES
+('BOOK-001', 'Effective Java', 'Joshua Bloch', '978-0134685991', 'The definitive guide to Java best practices', 'Programming', 45.99, '2018-01-06'),
+('BOOK-002', 'Clean Code', 'Robert C. Martin', '978-0132350884', 'A handbook of agile software craftsmanship', 'Programming', 39.99, '2008-08-01'),
+('BOOK-003', 'Design Patterns', 'Gang of Four', '978-0201633610', 'Elements of reusable object-oriented software', 'Programming', 54.99, '1994-10-31'),
+('BOOK-004', 'The Pragmatic Programmer', 'David Thomas', '978-0135957059', 'Your journey to mastery', 'Programming', 49.99, '2019-09-13'),
+('BOOK-005', 'Introduction to Algorithms', 'Thomas H. Cormen', '978-0262033848', 'Comprehensive textbook on algorithms', 'Computer Science', 89.99, '2009-07-31'),
+('BOOK-006', 'The Mythical Man-Month', 'Frederick Brooks', '978-0201835953', 'Essays on software engineering', 'Software Engineering', 29.99, '1995-08-02'),
+('BOOK-007', 'Domain-Driven Design', 'Eric Evans', '978-0321125217', 'Tackling complexity in software', 'Architecture', 65.99, '2003-08-30'),
+('BOOK-008', 'Microservices Patterns', 'Chris Richardson', '978-1617294549', 'With examples using Java and Spring Boot', 'Architecture', 49.99, '2018-10-27'),
+('BOOK-009', 'Spring in Action', 'Craig Walls', '978-1617297571', 'Covers Spring 5 and Spring Boot 2', 'Framework', 44.99, '2020-05-01'),
+('BOOK-010', 'Kubernetes in Action', 'Marko Luksa', '978-1617293726', 'Learn Kubernetes from the ground up', 'DevOps', 59.99, '2017-12-01');
+
+INSERT INTO product_inventory (product_id, warehouse_location, stock_quantity) VALUES
+('BOOK-001', 'Warehouse-A', 150),
+('BOOK-002', 'Warehouse-A', 200),
+('BOOK-003', 'Warehouse-B', 75),
+('BOOK-004', 'Warehouse-A', 120),
+('BOOK-005', 'Warehouse-C', 50),
+('BOOK-006', 'Warehouse-B', 180),
+('BOOK-007', 'Warehouse-C', 90),
+('BOOK-008', 'Warehouse-A', 110),
+('BOOK-009', 'Warehouse-B', 135),
+('BOOK-010', 'Warehouse-C', 95);
+
+-- Last journal sequence applied by each write-behind inventory ledger
+CREATE TABLE IF NOT EXISTS inventory_ledger_checkpoint (
+    ledger_id VARCHAR(100) PRIMARY KEY,
+    last_seq BIGINT NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Quantity discount tiers and per-currency tax and rounding used by PricingEngine.
+-- Held in memory and reloaded periodically; quantities below the lowest tier pay list price.
+CREATE TABLE IF NOT EXISTS pricing_discount_tiers (
+    min_quantity INTEGER PRIMARY KEY CHECK (min_quantity > 0),
+    discount_rate DECIMAL(5, 4) NOT NULL CHECK (discount_rate >= 0 AND discount_rate < 1)
+);
+
+CREATE TABLE IF NOT EXISTS pricing_currencies (
+    currency VARCHAR(3) PRIMARY KEY,
+    tax_rate DECIMAL(5, 4) NOT NULL CHECK (tax_rate >= 0),
+    fraction_digits SMALLINT NOT NULL DEFAULT 2 CHECK (fraction_digits BETWEEN 0 AND 4)
+);
+
+INSERT INTO pricing_discount_tiers (min_quantity, discount_rate) VALUES
+(10, 0.0500),
+(50, 0.1000),
+(100, 0.1500);
+
+INSERT INTO pricing_currencies (currency, tax_rate, fraction_digits) VALUES
+('USD', 0.0800, 2);
+
+-- Catalog users for WS-Security and HTTP Basic authentication.
+-- Passwords are kept recoverable because UsernameToken PasswordDigest needs them.
+CREATE TABLE IF NOT EXISTS catalog_users (
+    username VARCHAR(100) PRIMARY KEY,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(20) NOT NULL CHECK (role IN ('admin', 'partner', 'client', 'guest')),
+    enabled BOOLEAN NOT NULL DEFAULT TRUE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO catalog_users (username, password, role) VALUES
+('admin', 'admin123', 'admin'),
+('client1', 'pass123', 'client'),
+('partner', 'partner456', 'partner');
 
 -- Grant permissions to catalog_user (run as superuser)
 -- GRANT ALL PRIVILEGES ON TABLE products TO catalog_user;
@@ -0,0 +1,116 @@
+package com.globalbooks.catalog.benchmark;
+
+import com.globalbooks.catalog.server.CatalogServer;
+import com.globalbooks.catalog.util.DatabaseConnection;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the embedded Catalog endpoint with a fixed request pool (the
+ * servlet-container model) against virtual-thread dispatch under many
+ * concurrent SOAP clients. The SOAP response cache is switched off, since
+ * every request is identical and would otherwise be answered by the filter
+ * rather than the endpoint. Needs the catalog database from database.properties.
+ *
+ * Usage: EndpointModeBenchmark [clients] [requestsPerClient] [poolThreads] [productId]
+ */
+public class EndpointModeBenchmark {
+
+    private static final String ENVELOPE =
+            "<S:Envelope xmlns:S=\"http://schemas.xmlsoap.org/soap/envelope/\">"
+            + "<S:Header><wsse:Security xmlns:wsse=\"http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-wssecurity-secext-1.0.xsd\">"
+            + "<wsse:UsernameToken><wsse:Username>client1</wsse:Username><wsse:Password>pass123</wsse:Password>"
+            + "</wsse:UsernameToken></wsse:Security></S:Header>"
+            + "<S:Body><ns:getProductById xmlns:ns=\"http://globalbooks.com/services/catalog/v1\">"
+            + "<productId>%s</productId></ns:getProductById></S:Body></S:Envelope>";
+
+    public static void main(String[] args) throws Exception {
+        // Must be set before CatalogConfig is loaded
+        System.setProperty("catalog.cache.response.enabled", "false");
+
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int requestsPerClient = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int poolThreads = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        String productId = args.length > 3 ? args[3] : "BOOK-001";
+
+        try {
+            run("pool", 18181, clients, requestsPerClient, poolThreads, productId);
+            run("virtual", 18182, clients, requestsPerClient, poolThreads, productId);
+        } finally {
+            DatabaseConnection.closeDataSource();
+        }
+    }
+
+    private static void run(String mode, int port, int clients, int requestsPerClient, int poolThreads,
+                            String productId) throws Exception {
+        CatalogServer server = new CatalogServer(port, CatalogServer.newRequestExecutor(mode, poolThreads));
+        server.start();
+        try {
+            URI uri = URI.create("http://localhost:" + port + CatalogServer.SERVICE_PATH);
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "text/xml; charset=utf-8")
+                    .header("SOAPAction", "\"\"")
+                    .timeout(Duration.ofSeconds(60))
+                    .POST(HttpRequest.BodyPublishers.ofString(String.format(ENVELOPE, productId)))
+                    .build();
+
+            // Warm up JIT, connection pool and caches
+            runClients(client, request, Math.min(clients, 50), 20, new long[50 * 20], new AtomicInteger());
+
+            long[] latencies = new long[clients * requestsPerClient];
+            AtomicInteger failures = new AtomicInteger();
+            long start = System.nanoTime();
+            runClients(client, request, clients, requestsPerClient, latencies, failures);
+            long elapsed = System.nanoTime() - start;
+
+            Arrays.sort(latencies);
+            System.out.printf("%-8s clients=%d requests=%d failures=%d throughput=%.0f req/s "
+                            + "p50=%.1fms p99=%.1fms max=%.1fms%n",
+                    mode, clients, latencies.length, failures.get(),
+                    latencies.length / (elapsed / 1e9),
+                    percentile(latencies, 0.50), percentile(latencies, 0.99),
+                    latencies[latencies.length - 1] / 1e6);
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static void runClients(HttpClient client, HttpRequest request, int clients, int requestsPerClient,
+                                   long[] latencies, AtomicInteger failures) {
+        CompletableFuture<?>[] running = new CompletableFuture<?>[clients];
+        for (int c = 0; c < clients; c++) {
+            running[c] = issue(client, request, c * requestsPerClient, requestsPerClient, latencies, failures);
+        }
+        CompletableFuture.allOf(running).join();
+    }
+
+    // Each client sends its requests one after another, so clients == requests in flight
+    private static CompletableFuture<Void> issue(HttpClient client, HttpRequest request, int slot, int remaining,
+                                                 long[] latencies, AtomicInteger failures) {
+        if (remaining == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long start = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    latencies[slot] = System.nanoTime() - start;
+                    if (error != null || response.statusCode() != 200) {
+                        failures.incrementAndGet();
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> issue(client, request, slot + 1, remaining - 1, latencies, failures));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
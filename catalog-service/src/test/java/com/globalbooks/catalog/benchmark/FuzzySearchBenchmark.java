@@ -0,0 +1,170 @@
+package com.globalbooks.catalog.benchmark;
+
+import com.globalbooks.catalog.util.DatabaseConnection;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Keyword search latency for the LIKE path (BASIC mode) versus the pg_trgm
+ * word-similarity path (FUZZY mode), with correctly spelled and misspelled
+ * terms. Builds its own scratch table of generated titles and authors next
+ * to the catalog schema, with the same indexes the catalog has, and drops it
+ * afterwards. Needs the pg_trgm extension (see V6__Add_trigram_indexes.sql).
+ *
+ * Usage: FuzzySearchBenchmark [rows] [iterations] [minSimilarity]
+ */
+public class FuzzySearchBenchmark {
+
+    private static final String WORDS =
+            "ARRAY['garden','river','shadow','winter','empire','silent','crimson','harbor','whisper','orchard',"
+            + "'lantern','meadow','thunder','velvet','compass','falcon','glacier','horizon','island','journey',"
+            + "'kingdom','legacy','marble','nightfall','ocean','phantom','quarry','raven','summit','tempest']";
+    private static final String SURNAMES =
+            "ARRAY['Hemingway','Fitzgerald','Dostoevsky','Tolstoy','Steinbeck','Faulkner','Nabokov','Woolf',"
+            + "'Achebe','Murakami','Ishiguro','Atwood','Morrison','Rushdie','Pamuk','Saramago']";
+
+    private static final String DDL =
+            "CREATE TABLE bench_products ("
+            + "product_id VARCHAR(50) PRIMARY KEY, title VARCHAR(255) NOT NULL, author VARCHAR(255) NOT NULL, "
+            + "category VARCHAR(100) NOT NULL, price DECIMAL(10, 2) NOT NULL)";
+    private static final String SEED =
+            "INSERT INTO bench_products (product_id, title, author, category, price) "
+            + "SELECT 'P-' || g, "
+            + "initcap((" + WORDS + ")[1 + g % 30] || ' ' || (" + WORDS + ")[1 + (g / 30) % 30] || ' ' || "
+            + "(" + WORDS + ")[1 + (g / 900) % 30]) || ' ' || g, "
+            + "'Author ' || (g % 997) || ' ' || (" + SURNAMES + ")[1 + (g / 7) % 16], "
+            + "'Category ' || (g % 20), 19.99 FROM generate_series(1, ?) g";
+    private static final String[] INDEXES = {
+            "CREATE INDEX ON bench_products (LOWER(title))",
+            "CREATE INDEX ON bench_products (LOWER(author))",
+            "CREATE INDEX ON bench_products USING GIN (LOWER(title) gin_trgm_ops)",
+            "CREATE INDEX ON bench_products USING GIN (LOWER(author) gin_trgm_ops)"
+    };
+
+    // The shapes ProductDAOImpl builds for BASIC and FUZZY keyword searches
+    private static final String LIKE_SQL =
+            "SELECT product_id, title, author FROM bench_products "
+            + "WHERE (LOWER(title) LIKE ? OR LOWER(author) LIKE ?) ORDER BY title LIMIT 50";
+    private static final String FUZZY_SQL =
+            "SELECT p.product_id, p.title, p.author, GREATEST(word_similarity(q.term, LOWER(p.title)), "
+            + "word_similarity(q.term, LOWER(p.author))) AS rank FROM bench_products p, LOWER(?) AS q(term) "
+            + "WHERE (q.term <% LOWER(p.title) OR q.term <% LOWER(p.author)) ORDER BY rank DESC, p.title LIMIT 50";
+    private static final String SET_THRESHOLD_SQL =
+            "SELECT set_config('pg_trgm.word_similarity_threshold', ?, true)";
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        double minSimilarity = args.length > 2 ? Double.parseDouble(args[2]) : 0.5;
+
+        try {
+            dropTables();
+            setUp(rows);
+
+            run("like", LIKE_SQL, "tempest", iterations, null);
+            run("like-typo", LIKE_SQL, "tempset", iterations, null);
+            run("like", LIKE_SQL, "dostoevsky", iterations, null);
+            run("like-typo", LIKE_SQL, "dostoyevsky", iterations, null);
+            run("fuzzy", FUZZY_SQL, "tempest", iterations, minSimilarity);
+            run("fuzzy-typo", FUZZY_SQL, "tempset", iterations, minSimilarity);
+            run("fuzzy", FUZZY_SQL, "dostoevsky", iterations, minSimilarity);
+            run("fuzzy-typo", FUZZY_SQL, "dostoyevsky", iterations, minSimilarity);
+        } finally {
+            dropTables();
+            DatabaseConnection.closeDataSource();
+        }
+    }
+
+    private static void setUp(int rows) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+                stmt.execute(DDL);
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(SEED)) {
+                stmt.setInt(1, rows);
+                stmt.executeUpdate();
+            }
+            long start = System.nanoTime();
+            try (Statement stmt = conn.createStatement()) {
+                for (String index : INDEXES) {
+                    stmt.execute(index);
+                }
+                stmt.execute("VACUUM ANALYZE bench_products");
+            }
+            System.out.printf("seeded rows=%d indexes=%dms size=%dkB%n", rows,
+                    (System.nanoTime() - start) / 1_000_000, totalSize() / 1024);
+        }
+    }
+
+    private static void run(String label, String sql, String term, int iterations, Double minSimilarity)
+            throws SQLException {
+        long[] latencies = new long[iterations];
+        int found = 0;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            // As in ProductDAOImpl, the threshold is transaction-local
+            if (minSimilarity != null) {
+                conn.setAutoCommit(false);
+                try (PreparedStatement stmt = conn.prepareStatement(SET_THRESHOLD_SQL)) {
+                    stmt.setString(1, Double.toString(minSimilarity));
+                    stmt.execute();
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                if (minSimilarity != null) {
+                    stmt.setString(1, term);
+                } else {
+                    stmt.setString(1, "%" + term + "%");
+                    stmt.setString(2, "%" + term + "%");
+                }
+                // Warm the buffer cache and the plan before measuring
+                for (int i = 0; i < Math.min(10, iterations); i++) {
+                    count(stmt);
+                }
+                for (int i = 0; i < iterations; i++) {
+                    long start = System.nanoTime();
+                    found = count(stmt);
+                    latencies[i] = System.nanoTime() - start;
+                }
+            } finally {
+                if (minSimilarity != null) {
+                    conn.rollback();
+                    conn.setAutoCommit(true);
+                }
+            }
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%-10s term=%-12s found=%-3d p50=%.2fms p99=%.2fms%n", label, term, found,
+                latencies[iterations / 2] / 1e6, latencies[Math.min(iterations - 1, iterations * 99 / 100)] / 1e6);
+    }
+
+    private static int count(PreparedStatement stmt) throws SQLException {
+        int rows = 0;
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private static long totalSize() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT pg_total_relation_size('bench_products')")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static void dropTables() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS bench_products");
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.globalbooks.catalog.benchmark;
+
+import com.globalbooks.catalog.util.DatabaseConnection;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reservation write throughput with counters on the wide products row (the
+ * layout before product_inventory) versus the narrow product_inventory row.
+ * Builds its own scratch tables next to the catalog schema, so it can run
+ * against the catalog database from database.properties without touching
+ * catalog data; the tables are dropped afterwards.
+ *
+ * Usage: InventoryWriteBenchmark [products] [threads] [seconds] [hotProducts]
+ */
+public class InventoryWriteBenchmark {
+
+    private static final String WIDE_DDL =
+            "CREATE TABLE bench_products_wide ("
+            + "product_id VARCHAR(50) PRIMARY KEY, title VARCHAR(255) NOT NULL, author VARCHAR(255) NOT NULL, "
+            + "description TEXT, category VARCHAR(100) NOT NULL, price DECIMAL(10, 2) NOT NULL, "
+            + "stock_quantity INTEGER NOT NULL DEFAULT 0 CHECK (stock_quantity >= 0), "
+            + "reserved_quantity INTEGER NOT NULL DEFAULT 0 CHECK (reserved_quantity >= 0), "
+            + "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+            + "search_vector TSVECTOR GENERATED ALWAYS AS (setweight(to_tsvector('english', title), 'A') || "
+            + "setweight(to_tsvector('english', COALESCE(description, '')), 'C')) STORED, "
+            + "CHECK (reserved_quantity <= stock_quantity))";
+    private static final String[] WIDE_INDEXES = {
+            "CREATE INDEX ON bench_products_wide (LOWER(title))",
+            "CREATE INDEX ON bench_products_wide (stock_quantity)",
+            "CREATE INDEX ON bench_products_wide USING GIN (search_vector)",
+            "CREATE TRIGGER bench_products_wide_updated_at BEFORE UPDATE ON bench_products_wide "
+                    + "FOR EACH ROW EXECUTE FUNCTION update_updated_at_column()"
+    };
+    private static final String WIDE_SEED =
+            "INSERT INTO bench_products_wide (product_id, title, author, description, category, price, stock_quantity) "
+            + "SELECT 'P-' || g, 'Title ' || g, 'Author ' || (g % 500), repeat('lorem ipsum dolor sit amet ', 40), "
+            + "'Category ' || (g % 20), 19.99, 1000000 FROM generate_series(1, ?) g";
+    private static final String WIDE_RESERVE =
+            "UPDATE bench_products_wide SET reserved_quantity = reserved_quantity + 1 "
+            + "WHERE product_id = ? AND stock_quantity >= reserved_quantity + 1";
+    private static final String WIDE_RELEASE =
+            "UPDATE bench_products_wide SET reserved_quantity = GREATEST(0, reserved_quantity - 1) WHERE product_id = ?";
+
+    private static final String NARROW_DDL =
+            "CREATE TABLE bench_product_inventory ("
+            + "product_id VARCHAR(50) NOT NULL, warehouse_location VARCHAR(100) NOT NULL, "
+            + "stock_quantity INTEGER NOT NULL DEFAULT 0 CHECK (stock_quantity >= 0), "
+            + "reserved_quantity INTEGER NOT NULL DEFAULT 0 CHECK (reserved_quantity >= 0), "
+            + "restock_date DATE, PRIMARY KEY (product_id, warehouse_location), "
+            + "CHECK (reserved_quantity <= stock_quantity)) WITH (fillfactor = 80)";
+    private static final String NARROW_SEED =
+            "INSERT INTO bench_product_inventory (product_id, warehouse_location, stock_quantity) "
+            + "SELECT 'P-' || g, 'MAIN', 1000000 FROM generate_series(1, ?) g";
+    // Same counter updates as ProductDAOImpl, without its reservation records
+    private static final String NARROW_RESERVE =
+            "UPDATE bench_product_inventory i SET reserved_quantity = i.reserved_quantity + 1 "
+            + "FROM (SELECT product_id, warehouse_location FROM bench_product_inventory "
+            + "WHERE product_id = ? AND stock_quantity - reserved_quantity >= 1 "
+            + "ORDER BY stock_quantity - reserved_quantity DESC, warehouse_location LIMIT 1 FOR UPDATE) w "
+            + "WHERE i.product_id = w.product_id AND i.warehouse_location = w.warehouse_location";
+    private static final String NARROW_RELEASE =
+            "UPDATE bench_product_inventory i SET reserved_quantity = GREATEST(0, i.reserved_quantity - 1) "
+            + "FROM (SELECT product_id, warehouse_location FROM bench_product_inventory WHERE product_id = ? "
+            + "ORDER BY reserved_quantity DESC, warehouse_location LIMIT 1 FOR UPDATE) w "
+            + "WHERE i.product_id = w.product_id AND i.warehouse_location = w.warehouse_location";
+
+    public static void main(String[] args) throws Exception {
+        int products = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int hotProducts = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+
+        try {
+            dropTables();
+            setUp(WIDE_DDL, WIDE_INDEXES, WIDE_SEED, "bench_products_wide", products);
+            setUp(NARROW_DDL, new String[0], NARROW_SEED, "bench_product_inventory", products);
+
+            run("wide", "bench_products_wide", WIDE_RESERVE, WIDE_RELEASE, threads, seconds, hotProducts);
+            run("narrow", "bench_product_inventory", NARROW_RESERVE, NARROW_RELEASE, threads, seconds, hotProducts);
+        } finally {
+            dropTables();
+            DatabaseConnection.closeDataSource();
+        }
+    }
+
+    private static void setUp(String ddl, String[] indexes, String seed, String table, int products)
+            throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(ddl);
+                for (String index : indexes) {
+                    stmt.execute(index);
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(seed)) {
+                stmt.setInt(1, products);
+                stmt.executeUpdate();
+            }
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("VACUUM ANALYZE " + table);
+            }
+        }
+    }
+
+    private static void run(String layout, String table, String reserveSql, String releaseSql, int threads,
+                            int seconds, int hotProducts) throws Exception {
+        long sizeBefore = totalSize(table);
+        long[] updatesBefore = updateCounts(table);
+
+        LongAdder operations = new LongAdder();
+        LongAdder failures = new LongAdder();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> work(reserveSql, releaseSql, hotProducts, deadline, operations, failures),
+                    "bench-" + layout + "-" + t);
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        long sizeAfter = totalSize(table);
+        long[] updatesAfter = updateCounts(table);
+        long updates = updatesAfter[0] - updatesBefore[0];
+        long hotUpdates = updatesAfter[1] - updatesBefore[1];
+        System.out.printf("%-6s threads=%d ops=%d failures=%d throughput=%.0f ops/s "
+                        + "size=%dkB->%dkB hot=%.0f%%%n",
+                layout, threads, operations.sum(), failures.sum(), operations.sum() / (double) seconds,
+                sizeBefore / 1024, sizeAfter / 1024, updates == 0 ? 0 : 100.0 * hotUpdates / updates);
+    }
+
+    // Each operation reserves one unit and releases it again, as a cart add and remove would
+    private static void work(String reserveSql, String releaseSql, int hotProducts, long deadline,
+                             LongAdder operations, LongAdder failures) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement reserve = conn.prepareStatement(reserveSql);
+             PreparedStatement release = conn.prepareStatement(releaseSql)) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (System.nanoTime() < deadline) {
+                String productId = "P-" + (1 + random.nextInt(hotProducts));
+                reserve.setString(1, productId);
+                release.setString(1, productId);
+                try {
+                    if (reserve.executeUpdate() == 1 && release.executeUpdate() == 1) {
+                        operations.add(2);
+                    } else {
+                        failures.increment();
+                    }
+                } catch (SQLException e) {
+                    failures.increment();
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long totalSize(String table) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT pg_total_relation_size(?::regclass)")) {
+            stmt.setString(1, table);
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    // Cumulative {updates, HOT updates}; statistics reach pg_stat_user_tables asynchronously
+    private static long[] updateCounts(String table) throws Exception {
+        Thread.sleep(1500);
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT n_tup_upd, n_tup_hot_upd FROM pg_stat_user_tables WHERE relname = ?")) {
+            stmt.setString(1, table);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? new long[] {rs.getLong(1), rs.getLong(2)} : new long[2];
+        }
+    }
+
+    private static void dropTables() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS bench_products_wide");
+            stmt.execute("DROP TABLE IF EXISTS bench_product_inventory");
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.globalbooks.catalog.benchmark;
+
+import com.globalbooks.catalog.server.CatalogServer;
+import com.globalbooks.catalog.util.DatabaseConnection;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The same reads over SOAP (WS-Security UsernameToken, JAXB) and over the
+ * JSON API (bearer token, gzip), both served by the embedded CatalogServer:
+ * bytes on the wire per request and latency percentiles. The JSON ETag case
+ * repeats the request with If-None-Match, as a polling client would. Needs the
+ * catalog database from database.properties and the client1 user.
+ *
+ * Usage: JsonApiBenchmark [clients] [requestsPerClient] [productIds (comma separated)]
+ */
+public class JsonApiBenchmark {
+
+    private static final int PORT = 18183;
+    private static final String USERNAME = "client1";
+    private static final String PASSWORD = "pass123";
+
+    private static final String ENVELOPE =
+            "<S:Envelope xmlns:S=\"http://schemas.xmlsoap.org/soap/envelope/\">"
+            + "<S:Header><wsse:Security xmlns:wsse=\"http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-wssecurity-secext-1.0.xsd\">"
+            + "<wsse:UsernameToken><wsse:Username>" + USERNAME + "</wsse:Username><wsse:Password>" + PASSWORD
+            + "</wsse:Password></wsse:UsernameToken></wsse:Security></S:Header>"
+            + "<S:Body><ns:%s xmlns:ns=\"http://globalbooks.com/services/catalog/v1\">%s</ns:%s></S:Body></S:Envelope>";
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int requestsPerClient = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        String[] productIds = (args.length > 2 ? args[2] : "BOOK-001,BOOK-002,BOOK-003,BOOK-004,BOOK-005").split(",");
+
+        CatalogServer server = new CatalogServer(PORT, CatalogServer.newRequestExecutor("pool", 200));
+        server.start();
+        try {
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+            String token = fetchToken(client);
+
+            StringBuilder idElements = new StringBuilder();
+            for (String productId : productIds) {
+                idElements.append("<productId>").append(productId).append("</productId>");
+            }
+            String ids = String.join(",", productIds);
+
+            HttpRequest soapOne = soap("getProductById", "<productId>" + productIds[0] + "</productId>");
+            HttpRequest jsonOne = json("/products/" + productIds[0], token, null);
+            HttpRequest soapBatch = soap("getProductsByIds", idElements.toString());
+            HttpRequest jsonBatch = json("/products?ids=" + ids, token, null);
+            HttpRequest jsonBatchRevalidate = json("/products?ids=" + ids, token, etagOf(client, jsonBatch));
+
+            run("soap  product", client, soapOne, clients, requestsPerClient);
+            run("json  product", client, jsonOne, clients, requestsPerClient);
+            run("soap  batch(" + productIds.length + ")", client, soapBatch, clients, requestsPerClient);
+            run("json  batch(" + productIds.length + ")", client, jsonBatch, clients, requestsPerClient);
+            run("json  batch 304", client, jsonBatchRevalidate, clients, requestsPerClient);
+        } finally {
+            server.stop();
+            DatabaseConnection.closeDataSource();
+        }
+    }
+
+    private static HttpRequest soap(String operation, String parameters) {
+        String body = String.format(ENVELOPE, operation, parameters, operation);
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + PORT + CatalogServer.SERVICE_PATH))
+                .header("Content-Type", "text/xml; charset=utf-8")
+                .header("SOAPAction", "\"\"")
+                .header("Accept-Encoding", "gzip")
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static HttpRequest json(String path, String token, String etag) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + PORT + CatalogServer.JSON_API_PATH + path))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept-Encoding", "gzip")
+                .timeout(Duration.ofSeconds(60));
+        if (etag != null) {
+            builder.header("If-None-Match", etag);
+        }
+        return builder.GET().build();
+    }
+
+    private static String fetchToken(HttpClient client) throws Exception {
+        String credentials = Base64.getEncoder().encodeToString(
+                (USERNAME + ":" + PASSWORD).getBytes(StandardCharsets.UTF_8));
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(
+                                URI.create("http://localhost:" + PORT + CatalogServer.JSON_API_PATH + "/token"))
+                        .header("Authorization", "Basic " + credentials)
+                        .POST(HttpRequest.BodyPublishers.noBody())
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = Pattern.compile("\"token\":\"([^\"]+)\"").matcher(response.body());
+        if (response.statusCode() != 200 || !matcher.find()) {
+            throw new IllegalStateException("Token request failed: " + response.statusCode() + " " + response.body());
+        }
+        return matcher.group(1);
+    }
+
+    private static String etagOf(HttpClient client, HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).headers().firstValue("ETag")
+                .orElseThrow(() -> new IllegalStateException("No ETag on " + request.uri()));
+    }
+
+    private static void run(String name, HttpClient client, HttpRequest request, int clients, int requestsPerClient) {
+        long requestBytes = request.bodyPublisher().map(HttpRequest.BodyPublisher::contentLength).orElse(0L);
+
+        // Warm up JIT, connection pool and caches
+        runClients(client, request, Math.min(clients, 20), 50, new long[20 * 50], new LongAdder(),
+                new AtomicInteger());
+
+        long[] latencies = new long[clients * requestsPerClient];
+        LongAdder responseBytes = new LongAdder();
+        AtomicInteger failures = new AtomicInteger();
+        long start = System.nanoTime();
+        runClients(client, request, clients, requestsPerClient, latencies, responseBytes, failures);
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.printf("%-16s requests=%d failures=%d throughput=%.0f req/s request=%dB response=%.0fB "
+                        + "p50=%.2fms p99=%.2fms%n",
+                name, latencies.length, failures.get(), latencies.length / (elapsed / 1e9), requestBytes,
+                responseBytes.sum() / (double) latencies.length,
+                percentile(latencies, 0.50), percentile(latencies, 0.99));
+    }
+
+    private static void runClients(HttpClient client, HttpRequest request, int clients, int requestsPerClient,
+                                   long[] latencies, LongAdder responseBytes, AtomicInteger failures) {
+        CompletableFuture<?>[] running = new CompletableFuture<?>[clients];
+        for (int c = 0; c < clients; c++) {
+            running[c] = issue(client, request, c * requestsPerClient, requestsPerClient, latencies, responseBytes,
+                    failures);
+        }
+        CompletableFuture.allOf(running).join();
+    }
+
+    // Bodies are counted as received, i.e. still compressed when the server gzipped them
+    private static CompletableFuture<Void> issue(HttpClient client, HttpRequest request, int slot, int remaining,
+                                                 long[] latencies, LongAdder responseBytes, AtomicInteger failures) {
+        if (remaining == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long start = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, error) -> {
+                    latencies[slot] = System.nanoTime() - start;
+                    if (error != null || (response.statusCode() != 200 && response.statusCode() != 304)) {
+                        failures.incrementAndGet();
+                    } else {
+                        responseBytes.add(response.body().length);
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> issue(client, request, slot + 1, remaining - 1, latencies, responseBytes,
+                        failures));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,136 @@
+package com.globalbooks.catalog.search;
+
+import com.globalbooks.catalog.model.SearchCriteria;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.util.BitSet;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BitmapFilterIndexTest {
+
+    // Above 2^31 cents, where a 32-bit shift of the price would overflow
+    private static final BigDecimal LARGE = new BigDecimal("25000000.00");
+    private static final BigDecimal INT_LIMIT = new BigDecimal("21474836.47");
+    private static final BigDecimal PAST_INT_LIMIT = new BigDecimal("21474836.48");
+    private static final BigDecimal COLUMN_MAX = new BigDecimal("99999999.99");
+
+    @Test
+    void largeUpperBoundKeepsEveryCheaperProduct() {
+        BitmapFilterIndex index = index(false);
+
+        assertEquals(docs(0, 1, 2, 3, 4), index.priceRange(null, new BigDecimal("25000000")));
+        assertEquals(docs(0, 1, 2, 3, 4, 5), index.priceRange(null, COLUMN_MAX));
+    }
+
+    @Test
+    void boundsAroundTheIntLimitAreInclusiveAndExact() {
+        BitmapFilterIndex index = index(false);
+
+        assertEquals(docs(2), index.priceRange(INT_LIMIT, INT_LIMIT));
+        assertEquals(docs(3), index.priceRange(PAST_INT_LIMIT, PAST_INT_LIMIT));
+        assertEquals(docs(3, 4, 5), index.priceRange(PAST_INT_LIMIT, null));
+        assertEquals(docs(4, 5), index.priceRange(LARGE, null));
+        assertEquals(docs(5), index.priceRange(COLUMN_MAX, COLUMN_MAX));
+    }
+
+    @Test
+    void fractionalBoundsRoundInward() {
+        BitmapFilterIndex index = index(false);
+
+        assertEquals(docs(1), index.priceRange(new BigDecimal("9.991"), new BigDecimal("10.004")));
+        assertEquals(docs(), index.priceRange(new BigDecimal("9.991"), new BigDecimal("9.999")));
+    }
+
+    @Test
+    void bulkLoadMatchesIncrementalAdds() {
+        BitmapFilterIndex incremental = index(false);
+        BitmapFilterIndex bulk = index(true);
+
+        BigDecimal[][] ranges = {
+                {null, null}, {null, INT_LIMIT}, {PAST_INT_LIMIT, null}, {new BigDecimal("5"), LARGE}
+        };
+        for (BigDecimal[] range : ranges) {
+            assertEquals(incremental.priceRange(range[0], range[1]), bulk.priceRange(range[0], range[1]));
+        }
+    }
+
+    @Test
+    void bulkLoadSortsManyPricesAcrossTheWholeColumnRange() {
+        Random random = new Random(42);
+        BitmapFilterIndex incremental = new BitmapFilterIndex();
+        BitmapFilterIndex bulk = new BitmapFilterIndex();
+        for (int doc = 5000; doc >= 0; doc--) {
+            // Few distinct prices, so equal-price runs are ordered by doc
+            long cents = random.nextInt(50) * 199_999_999L + random.nextInt(3);
+            BigDecimal price = BigDecimal.valueOf(cents, 2);
+            incremental.add(doc, "fiction", price, true);
+            bulk.append(doc, "fiction", price, true);
+        }
+        bulk.finishBulkLoad();
+
+        for (int i = 0; i < 200; i++) {
+            BigDecimal low = BigDecimal.valueOf((long) (random.nextDouble() * 1e10), 2);
+            BigDecimal high = low.add(BigDecimal.valueOf((long) (random.nextDouble() * 5e9), 2));
+            assertEquals(incremental.priceRange(low, high), bulk.priceRange(low, high));
+        }
+        assertEquals(5001, bulk.priceRange(null, null).cardinality());
+    }
+
+    @Test
+    void removedProductLeavesThePriceRange() {
+        BitmapFilterIndex index = index(false);
+
+        index.remove(4, "fiction", LARGE);
+        index.add(4, "fiction", new BigDecimal("12.50"), true);
+
+        assertEquals(docs(0, 1, 2, 3, 4), index.priceRange(null, PAST_INT_LIMIT));
+        assertEquals(docs(5), index.priceRange(LARGE, null));
+    }
+
+    @Test
+    void filterAndsCategoryStockAndPrice() {
+        BitmapFilterIndex index = index(false);
+        SearchCriteria criteria = new SearchCriteria();
+        assertNull(index.filter(criteria));
+
+        criteria.setCategory("Fiction");
+        criteria.setInStockOnly(true);
+        criteria.setMinPrice(PAST_INT_LIMIT);
+        assertEquals(docs(4), index.filter(criteria));
+    }
+
+    // Added out of price order, so the bulk path has something to sort
+    private static BitmapFilterIndex index(boolean bulk) {
+        Object[][] products = {
+                {5, "reference", COLUMN_MAX, true},
+                {3, "fiction", PAST_INT_LIMIT, false},
+                {0, "fiction", new BigDecimal("9.99"), true},
+                {4, "fiction", LARGE, true},
+                {2, "reference", INT_LIMIT, true},
+                {1, "fiction", new BigDecimal("10.00"), false},
+                {6, "fiction", null, true}
+        };
+        BitmapFilterIndex index = new BitmapFilterIndex();
+        for (Object[] p : products) {
+            if (bulk) {
+                index.append((Integer) p[0], (String) p[1], (BigDecimal) p[2], (Boolean) p[3]);
+            } else {
+                index.add((Integer) p[0], (String) p[1], (BigDecimal) p[2], (Boolean) p[3]);
+            }
+        }
+        if (bulk) {
+            index.finishBulkLoad();
+        }
+        return index;
+    }
+
+    private static BitSet docs(int... docs) {
+        BitSet bits = new BitSet();
+        for (int doc : docs) {
+            bits.set(doc);
+        }
+        return bits;
+    }
+}